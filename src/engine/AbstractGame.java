@@ -61,6 +61,31 @@ public abstract class AbstractGame {
 
     }
 
+    /**
+     * The method of drawing with the interpolation between the last two updates.
+     * By default, it calls <method>render</method> without the interpolation.
+     * @param gc The <class>GameContainer</class> object that handles the <class>AbstractGame</class> program.
+     * @param r The renderer.
+     * @param alpha The fraction of the time between the last update and the next one, from 0 to 1.
+     *              The state to draw is the previous state plus alpha times the change of the last update.
+     */
+    public void render(GameContainer gc, Renderer r, float alpha) {
+        render(gc, r);
+    }
+
+    /**
+     * The method of copying the state what the render draws. It is called after each
+     * update, and the render reads the slot of <method>getSnapshotSlot</method> of the
+     * <class>GameContainer</class>. If the update runs in other thread, the render
+     * must only read the copies, never the objects what the update changes.
+     * @param gc The <class>GameContainer</class> object that handles the <class>AbstractGame</class> program.
+     * @param slot The copy of the state to write, from 0 to 2. The game keeps the three copies.
+     * @see TripleBuffer
+     */
+    public void snapshot(GameContainer gc, int slot) {
+
+    }
+
     /**
      * The getter for the <field>title</field>
      */
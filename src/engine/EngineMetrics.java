@@ -0,0 +1,183 @@
+package engine;
+
+import engine.gfx.Renderer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * This class publishes the metrics of a <class>GameContainer</class> in the
+ * platform MBean server, so a running game can be watched with JConsole or
+ * JMC without a console. The name of the MBean is
+ * engine:type=GameContainer,name="title of the game".
+ *
+ * It also measures the memory allocated by the thread of the frames, for
+ * the <class>FrameEvent</class> of Java Flight Recorder.
+ *
+ * @class EngineMetrics
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final GameContainer gc;
+
+    /**
+     * The bean of the threads of the JVM, if it can measure the
+     * memory allocated by each thread, or null. It is taken the
+     * first time the memory is measured
+     */
+    private com.sun.management.ThreadMXBean threadBean = null;
+
+    private boolean isThreadBeanChecked = false;
+
+    /**
+     * The name of the MBean, or null if it is not registered
+     */
+    private ObjectName name = null;
+
+    /**
+     * The drawing calls of the last frame
+     */
+    private volatile int drawCalls = 0;
+
+    /**
+     * The images with alpha requested in the last frame
+     */
+    private volatile int translucentRequests = 0;
+
+    /**
+     * Constructor
+     * @param gc the GameContainer object
+     */
+    public EngineMetrics(GameContainer gc) {
+        this.gc = gc;
+    }
+
+    /**
+     * Registers the MBean in the platform MBean server. If other game
+     * with the same title is registered, this one is not published
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("engine:type=GameContainer,name=" + ObjectName.quote(gc.title));
+            server.registerMBean(this, objectName);
+            name = objectName;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void unregister() {
+        if ( name == null ) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        name = null;
+    }
+
+    /**
+     * Keeps the counters of the renderer at the end of a frame
+     * @param r the renderer what has drawn the frame
+     */
+    public void recordFrame(Renderer r) {
+        drawCalls = r.getNumDrawCalls();
+        translucentRequests = r.getNumTranslucentRequests();
+    }
+
+    /**
+     * @return the memory allocated by the current thread since it started,
+     * in bytes, or -1 if the JVM can't measure it
+     */
+    public long getThreadAllocatedBytes() {
+        if ( !isThreadBeanChecked ) {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if ( bean instanceof com.sun.management.ThreadMXBean &&
+                    ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported() ) {
+                threadBean = (com.sun.management.ThreadMXBean)bean;
+            }
+            isThreadBeanChecked = true;
+        }
+        if ( threadBean == null ) {
+            return -1;
+        }
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    public int getFps() {
+        return gc.getFps();
+    }
+
+    @Override
+    public long getTotalFrames() {
+        return gc.getTotalFrames();
+    }
+
+    @Override
+    public double getFrameTimeMean() {
+        return gc.getProfiler().getHistogram(FrameProfiler.FRAME).getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFrameTimeP50() {
+        return gc.getProfiler().getHistogram(FrameProfiler.FRAME).getPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFrameTimeP95() {
+        return gc.getProfiler().getHistogram(FrameProfiler.FRAME).getPercentile(95) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFrameTimeP99() {
+        return gc.getProfiler().getHistogram(FrameProfiler.FRAME).getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFrameTimeMax() {
+        return gc.getProfiler().getHistogram(FrameProfiler.FRAME).getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getUpdateBacklog() {
+        return gc.getPacer().getBacklogTicks();
+    }
+
+    @Override
+    public long getDroppedTicks() {
+        return gc.getPacer().getDroppedTicks();
+    }
+
+    @Override
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    @Override
+    public int getTranslucentRequests() {
+        return translucentRequests;
+    }
+
+    @Override
+    public double getPresentLatency() {
+        Presenter presenter = gc.getPresenter();
+        return presenter != null ? presenter.getAverageLatency() / NANOS_PER_MILLI : 0;
+    }
+
+    @Override
+    public void resetFrameTimes() {
+        gc.getProfiler().reset();
+    }
+
+}
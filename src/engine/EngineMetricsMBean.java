@@ -0,0 +1,53 @@
+package engine;
+
+/**
+ * This interface is the management interface of the <class>EngineMetrics</class>,
+ * what can be seen with JConsole, JMC or any other JMX client. The times are in
+ * milliseconds.
+ *
+ * @class EngineMetricsMBean
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public interface EngineMetricsMBean {
+
+    int getFps();
+
+    long getTotalFrames();
+
+    double getFrameTimeMean();
+
+    double getFrameTimeP50();
+
+    double getFrameTimeP95();
+
+    double getFrameTimeP99();
+
+    double getFrameTimeMax();
+
+    /**
+     * @return the number of complete ticks in the last advance of the updates.
+     * If it is more than one, the updates are behind the time
+     */
+    long getUpdateBacklog();
+
+    /**
+     * @return the number of ticks dropped for not exceed the maximum of updates
+     */
+    long getDroppedTicks();
+
+    int getDrawCalls();
+
+    int getTranslucentRequests();
+
+    /**
+     * @return the average latency of the presentation, or 0 if the frames are presented by the loop
+     */
+    double getPresentLatency();
+
+    /**
+     * Forgets the times of the frames and the phases measured
+     */
+    void resetFrameTimes();
+
+}
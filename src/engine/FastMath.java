@@ -0,0 +1,198 @@
+package engine;
+
+/**
+ * This class has fast versions of the trigonometric functions, for
+ * the loops what rotate thousands of vectors each frame.
+ *
+ * The sine and the cosine are read from a table of one turn, with a
+ * linear interpolation between the two nearest values. The precision
+ * depends on the size of the table, what can be changed: with 2^10
+ * values the error is about 5e-6, and with 2^12 values (the default
+ * one) it is about 2e-6, what is the precision of a float angle of a
+ * few turns. Each bit less multiplies the error by 4.
+ *
+ * The arc tangent is a polynomial, with an error about 2e-6 radians.
+ *
+ * The results are not the same as the results of <class>Math</class>,
+ * so these methods must not be used where the exact values matter.
+ *
+ * @class FastMath
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class FastMath {
+
+    /**
+     * The default number of bits of the size of the table
+     */
+    public static final int DEFAULT_TABLE_BITS = 12;
+
+    private static final float TWO_PI = (float)(Math.PI * 2.0);
+
+    private static final float HALF_PI = (float)(Math.PI / 2.0);
+
+    private static final float PI = (float)Math.PI;
+
+    /**
+     * The sine of one turn, with one value more at the end
+     * for interpolate the last one without wrap
+     */
+    private static float[] sinTable;
+
+    /**
+     * The number of values of the table for each radian
+     */
+    private static float valuesPerRadian;
+
+    static {
+        setTableBits(DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Changes the size of the table of the sine. It must be
+     * done before the methods are used by other threads
+     *
+     * @param bits the number of bits of the size, between 4 and 20
+     */
+    public static synchronized void setTableBits(int bits) {
+        if ( bits < 4 || bits > 20 ) {
+            throw new IllegalArgumentException("The bits of the table must be between 4 and 20");
+        }
+        int size = 1 << bits;
+        float[] table = new float[size + 1];
+        for ( int i = 0; i <= size; i++ ) {
+            table[i] = (float)Math.sin(Math.PI * 2.0 * i / size);
+        }
+        valuesPerRadian = size / TWO_PI;
+        sinTable = table;
+    }
+
+    /**
+     * @param radians the angle in radians
+     * @return the sine of the angle
+     */
+    public static float sin(float radians) {
+        return lookUp(radians * valuesPerRadian);
+    }
+
+    /**
+     * @param radians the angle in radians
+     * @return the cosine of the angle
+     */
+    public static float cos(float radians) {
+        return lookUp((radians + HALF_PI) * valuesPerRadian);
+    }
+
+    /**
+     * @param degrees the angle in degrees
+     * @return the sine of the angle
+     */
+    public static float sinDeg(float degrees) {
+        return sin(degrees * (PI / 180.0f));
+    }
+
+    /**
+     * @param degrees the angle in degrees
+     * @return the cosine of the angle
+     */
+    public static float cosDeg(float degrees) {
+        return cos(degrees * (PI / 180.0f));
+    }
+
+    /**
+     * @param position the angle measured in values of the table
+     * @return the interpolated value of the table
+     */
+    private static float lookUp(float position) {
+        int index = (int)position;
+        if ( position < index ) {
+            index--;
+        }
+        float fraction = position - index;
+        float[] table = sinTable;
+        // The size of the table is a power of two, plus the last value
+        index &= table.length - 2;
+        float a = table[index];
+        return a + (table[index + 1] - a) * fraction;
+    }
+
+    /**
+     * The arc tangent of y / x, in the quadrant of the point
+     *
+     * @param y the y coordinate
+     * @param x the x coordinate
+     * @return the angle in radians, between -pi and pi
+     */
+    public static float atan2(float y, float x) {
+        float absX = Math.abs(x);
+        float absY = Math.abs(y);
+        if ( absX == 0.0f && absY == 0.0f ) {
+            return 0.0f;
+        }
+        // The arc tangent of a value between 0 and 1, for the octant
+        float a = Math.min(absX, absY) / Math.max(absX, absY);
+        float s = a * a;
+        float angle = ((((-0.0117212f * s + 0.05265332f) * s - 0.11643287f) * s + 0.19354346f) * s - 0.33262348f) * s * a + 0.99997726f * a;
+        if ( absY > absX ) {
+            angle = HALF_PI - angle;
+        }
+        if ( x < 0.0f ) {
+            angle = PI - angle;
+        }
+        return y < 0.0f ? -angle : angle;
+    }
+
+    /**
+     * Rotates a range of vectors, each one by its own angle
+     *
+     * @param x the x components
+     * @param y the y components
+     * @param degrees the angle of each vector, in degrees
+     * @param from the first vector
+     * @param to the vector after the last one
+     */
+    public static void rotate(float[] x, float[] y, float[] degrees, int from, int to) {
+        float[] table = sinTable;
+        int mask = table.length - 2;
+        float valuesPerDegree = valuesPerRadian * (PI / 180.0f);
+        int quarter = (mask + 1) >> 2;
+        for ( int i = from; i < to; i++ ) {
+            float position = degrees[i] * valuesPerDegree;
+            int index = (int)position;
+            if ( position < index ) {
+                index--;
+            }
+            float fraction = position - index;
+            int sinIndex = index & mask;
+            int cosIndex = (index + quarter) & mask;
+            float sin = table[sinIndex] + (table[sinIndex + 1] - table[sinIndex]) * fraction;
+            float cos = table[cosIndex] + (table[cosIndex + 1] - table[cosIndex]) * fraction;
+            float vx = x[i];
+            float vy = y[i];
+            x[i] = vx * cos - vy * sin;
+            y[i] = vx * sin + vy * cos;
+        }
+    }
+
+    /**
+     * Rotates a range of vectors by the same angle. The sine and
+     * the cosine are computed once
+     *
+     * @param x the x components
+     * @param y the y components
+     * @param degrees the angle in degrees
+     * @param from the first vector
+     * @param to the vector after the last one
+     */
+    public static void rotate(float[] x, float[] y, float degrees, int from, int to) {
+        float sin = sinDeg(degrees);
+        float cos = cosDeg(degrees);
+        for ( int i = from; i < to; i++ ) {
+            float vx = x[i];
+            float vy = y[i];
+            x[i] = vx * cos - vy * sin;
+            y[i] = vx * sin + vy * cos;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * This class is the event of Java Flight Recorder of each frame drawn by the
+ * <class>GameContainer</class>. The event lasts from the clear of the screen
+ * to the presentation of the frame, and it has the time of each phase, the
+ * drawing calls and the memory allocated.
+ *
+ * When there isn't any recording, the event is not committed and the JIT
+ * removes its allocation, so it costs nothing. It is recorded with:
+ * java -XX:StartFlightRecording:filename=game.jfr ...
+ *
+ * @class FrameEvent
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+@Name("engine.Frame")
+@Label("Frame")
+@Category("Game Engine")
+@Description("A frame drawn by the game container")
+@StackTrace(false)
+public class FrameEvent extends Event {
+
+    @Label("Frame Number")
+    long frame;
+
+    @Label("Update")
+    @Description("The time of the updates since the last frame")
+    @Timespan(Timespan.NANOSECONDS)
+    long updateTime;
+
+    @Label("Updates")
+    @Description("The number of updates since the last frame")
+    int updates;
+
+    @Label("Input")
+    @Timespan(Timespan.NANOSECONDS)
+    long inputTime;
+
+    @Label("Clear")
+    @Timespan(Timespan.NANOSECONDS)
+    long clearTime;
+
+    @Label("Render")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderTime;
+
+    @Label("Process")
+    @Timespan(Timespan.NANOSECONDS)
+    long processTime;
+
+    @Label("Present")
+    @Timespan(Timespan.NANOSECONDS)
+    long presentTime;
+
+    @Label("Frame Time")
+    @Description("The time since the end of the last frame")
+    @Timespan(Timespan.NANOSECONDS)
+    long frameTime;
+
+    @Label("Draw Calls")
+    int drawCalls;
+
+    @Label("Translucent Requests")
+    @Description("The images with alpha requested, what are sorted and drawn in the process")
+    int translucentRequests;
+
+    @Label("Allocated")
+    @Description("The memory allocated by the thread of the frames during the frame, or -1 if it can't be measured")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+}
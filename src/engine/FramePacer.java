@@ -0,0 +1,245 @@
+package engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class decides when the loop of the <class>GameContainer</class>
+ * runs the updates and the frames. All the times are long nanoseconds,
+ * without the rounding of the double seconds.
+ *
+ * The updates have a fixed step, the tick. The time since the last
+ * loop is accumulated, and each complete tick is one update. If the
+ * updates are slower than the ticks, the accumulated time would grow
+ * forever (the spiral of death), so there is a maximum of updates in
+ * each loop and the time of the rest of the ticks is dropped: the game
+ * goes slower, but it doesn't freeze.
+ *
+ * The waits park the thread until a little before the deadline, and
+ * then spin yielding the processor until the deadline. The parking
+ * alone can wake up a millisecond late or more, and the spin ends
+ * within some microseconds of the deadline.
+ *
+ * The tick methods are used by the thread of the updates, and the frame
+ * methods by the thread of the frames, what can be the same one.
+ *
+ * @class FramePacer
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class FramePacer {
+
+    /**
+     * The default time what the waits spin before the deadline, in nanoseconds
+     */
+    public static final long DEFAULT_SPIN_NANOS = 1000000L;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * The time of each update, in nanoseconds
+     */
+    private long tickNanos;
+
+    /**
+     * The minimum time of each frame, in nanoseconds. If it is 0, the
+     * frames are not capped
+     */
+    private long frameNanos = 0;
+
+    /**
+     * The maximum number of updates in each loop
+     */
+    private int maxUpdatesPerFrame = 5;
+
+    /**
+     * The time what the waits spin before the deadline, in nanoseconds
+     */
+    private long spinNanos = DEFAULT_SPIN_NANOS;
+
+    /**
+     * The time of the last advance of the ticks
+     */
+    private long lastTime;
+
+    /**
+     * The time what is not updated yet, less than one tick after each advance
+     */
+    private long accumulatedNanos = 0;
+
+    /**
+     * The number of ticks dropped for not exceed the maximum of updates
+     */
+    private long droppedTicks = 0;
+
+    /**
+     * The number of complete ticks in the last advance, before the maximum
+     * of updates. If it is more than one, the updates are behind the time
+     */
+    private long backlogTicks = 0;
+
+    /**
+     * The deadline of the next frame, if the frames are capped
+     */
+    private long nextFrameTime;
+
+    /**
+     * Constructor
+     * @param ticksPerSecond the number of updates each second
+     */
+    public FramePacer(int ticksPerSecond) {
+        setTickRate(ticksPerSecond);
+        long now = System.nanoTime();
+        resetTicks(now);
+        resetFrames(now);
+    }
+
+    /**
+     * Starts counting the ticks from now, without accumulated time.
+     * It is called by the thread of the updates
+     *
+     * @param now the current time, in nanoseconds
+     */
+    public void resetTicks(long now) {
+        lastTime = now;
+        accumulatedNanos = 0;
+    }
+
+    /**
+     * Starts counting the frames from now. It is called by the thread of the frames
+     * @param now the current time, in nanoseconds
+     */
+    public void resetFrames(long now) {
+        nextFrameTime = now;
+    }
+
+    /**
+     * Accumulates the time since the last call, and takes the complete ticks
+     *
+     * @param now the current time, in nanoseconds
+     * @return the number of updates to run, at most the maximum of updates for each frame
+     */
+    public int advance(long now) {
+        accumulatedNanos += now - lastTime;
+        lastTime = now;
+        long ticks = accumulatedNanos / tickNanos;
+        backlogTicks = ticks;
+        int updates = (int)Math.min(ticks, maxUpdatesPerFrame);
+        accumulatedNanos -= updates * tickNanos;
+        if ( ticks > updates ) {
+            droppedTicks += ticks - updates;
+            accumulatedNanos -= (ticks - updates) * tickNanos;
+        }
+        return updates;
+    }
+
+    /**
+     * @return the fraction of the next tick what is accumulated, from 0 to 1.
+     * It is the interpolation between the last two updates
+     */
+    public float getAlpha() {
+        return (float)accumulatedNanos / tickNanos;
+    }
+
+    /**
+     * @return the time when the next tick is complete, in nanoseconds
+     */
+    public long getNextTickTime() {
+        return lastTime + tickNanos - accumulatedNanos;
+    }
+
+    /**
+     * Waits until the deadline of the next frame, if the frames are
+     * capped. If the frame was later than its deadline, the next one
+     * counts from now, for not run several frames without wait
+     */
+    public void waitForNextFrame() {
+        if ( frameNanos <= 0 ) {
+            return;
+        }
+        long now = System.nanoTime();
+        nextFrameTime += frameNanos;
+        if ( nextFrameTime < now ) {
+            nextFrameTime = now;
+            return;
+        }
+        waitUntil(nextFrameTime);
+    }
+
+    /**
+     * Waits until a time. The thread is parked until the spinning time
+     * before the deadline, and then it yields until the deadline
+     *
+     * @param deadline the time, in nanoseconds
+     */
+    public void waitUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        while ( remaining > 0 ) {
+            if ( remaining > spinNanos ) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            } else {
+                Thread.yield();
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * @return the time of each update, in seconds
+     */
+    public double getTickSeconds() {
+        return (double)tickNanos / NANOS_PER_SECOND;
+    }
+
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    public int getMaxUpdatesPerFrame() {
+        return maxUpdatesPerFrame;
+    }
+
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public long getBacklogTicks() {
+        return backlogTicks;
+    }
+
+    /**
+     * @param ticksPerSecond the number of updates each second
+     */
+    public void setTickRate(int ticksPerSecond) {
+        if ( ticksPerSecond <= 0 ) {
+            throw new IllegalArgumentException("The tick rate must be positive");
+        }
+        tickNanos = NANOS_PER_SECOND / ticksPerSecond;
+    }
+
+    /**
+     * @param framesPerSecond the maximum number of frames each second, or 0 for not cap them
+     */
+    public void setFrameRateCap(int framesPerSecond) {
+        frameNanos = framesPerSecond > 0 ? NANOS_PER_SECOND / framesPerSecond : 0;
+    }
+
+    public void setMaxUpdatesPerFrame(int maxUpdatesPerFrame) {
+        if ( maxUpdatesPerFrame <= 0 ) {
+            throw new IllegalArgumentException("There must be at least one update for each frame");
+        }
+        this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+    }
+
+    public void setSpinNanos(long spinNanos) {
+        this.spinNanos = spinNanos;
+    }
+
+}
@@ -0,0 +1,246 @@
+package engine;
+
+import engine.gfx.Renderer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class measures the time of each phase of the loop of the
+ * <class>GameContainer</class>: the update of the game, the update of
+ * the input, the clear of the screen, the render of the game, the
+ * process of the renderer and the presentation of the frame.
+ *
+ * Each phase has a <class>LatencyHistogram</class>, with its median,
+ * its 99th percentile and its maximum, and the last frames are kept
+ * for draw a graph where the slow frames and their slow phases can
+ * be seen. The frame time is the time between the ends of two frames.
+ *
+ * Measuring a phase costs one <method>System.nanoTime</method>, what
+ * ends the phase and starts the next one, and doesn't allocate memory.
+ *
+ * @class FrameProfiler
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class FrameProfiler {
+
+    public static final int UPDATE = 0;
+
+    public static final int INPUT = 1;
+
+    public static final int CLEAR = 2;
+
+    public static final int RENDER = 3;
+
+    public static final int PROCESS = 4;
+
+    public static final int PRESENT = 5;
+
+    public static final int FRAME = 6;
+
+    public static final int NUM_PHASES = 7;
+
+    private static final String[] NAMES = { "update", "input", "clear", "render", "process", "present", "frame" };
+
+    /**
+     * The colors of the phases in the graph
+     */
+    private static final int[] COLORS = { 0xff4080ff, 0xff40c0c0, 0xff808080, 0xff40ff40, 0xffffc040, 0xffff4040, 0xffffffff };
+
+    /**
+     * The number of frames of the graph
+     */
+    public static final int HISTORY_FRAMES = 240;
+
+    private static final int GRAPH_HEIGHT = 100;
+
+    private static final int LINE_HEIGHT = 25;
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[NUM_PHASES];
+
+    /**
+     * The time of each phase in the last frames, in microseconds.
+     * The updates of a frame are the updates since the last frame
+     */
+    private final int[][] history = new int[NUM_PHASES][HISTORY_FRAMES];
+
+    /**
+     * The number of frames recorded. The last frame is in the
+     * position frames - 1 of the history, modulo its size
+     */
+    private volatile long frames = 0;
+
+    /**
+     * The time of the updates and the input since the last frame. The
+     * updates can be in other thread, so it is added atomically
+     */
+    private final AtomicLong pendingUpdateNanos = new AtomicLong();
+
+    private final AtomicLong pendingInputNanos = new AtomicLong();
+
+    /**
+     * The number of updates since the last frame
+     */
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+
+    /**
+     * The number of updates of the last frame
+     */
+    private int lastFrameUpdates = 0;
+
+    /**
+     * The time of the phases of the frame being drawn
+     */
+    private final long[] framePhases = new long[NUM_PHASES];
+
+    /**
+     * The time of the phases of the last frame, in nanoseconds
+     */
+    private final long[] lastFramePhases = new long[NUM_PHASES];
+
+    /**
+     * The end of the last frame, in nanoseconds
+     */
+    private long lastFrameEnd = 0;
+
+    public FrameProfiler() {
+        for ( int i = 0; i < NUM_PHASES; i++ ) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Ends a phase and records its time
+     *
+     * @param phase the phase
+     * @param start the time when the phase started, in nanoseconds
+     * @return the current time, what is the start of the next phase
+     */
+    public long mark(int phase, long start) {
+        long now = System.nanoTime();
+        long nanos = now - start;
+        histograms[phase].record(nanos);
+        if ( phase == UPDATE ) {
+            pendingUpdateNanos.addAndGet(nanos);
+            pendingUpdates.incrementAndGet();
+        } else if ( phase == INPUT ) {
+            pendingInputNanos.addAndGet(nanos);
+        } else {
+            framePhases[phase] += nanos;
+        }
+        return now;
+    }
+
+    /**
+     * Ends a frame: records the time since the end of the last frame and
+     * keeps the time of the phases of the frame in the history. It must be
+     * called by the thread what draws the frames
+     */
+    public void endFrame() {
+        long now = System.nanoTime();
+        if ( lastFrameEnd != 0 ) {
+            framePhases[FRAME] = now - lastFrameEnd;
+            histograms[FRAME].record(framePhases[FRAME]);
+        }
+        lastFrameEnd = now;
+        framePhases[UPDATE] = pendingUpdateNanos.getAndSet(0);
+        framePhases[INPUT] = pendingInputNanos.getAndSet(0);
+        lastFrameUpdates = pendingUpdates.getAndSet(0);
+
+        int index = (int)(frames % HISTORY_FRAMES);
+        for ( int i = 0; i < NUM_PHASES; i++ ) {
+            history[i][index] = (int)Math.min(Integer.MAX_VALUE, framePhases[i] / 1000);
+            lastFramePhases[i] = framePhases[i];
+            framePhases[i] = 0;
+        }
+        frames++;
+    }
+
+    /**
+     * Draws a table with the median, the 99th percentile and the maximum of
+     * each phase, and a graph of the last frames. Each bar of the graph is a
+     * frame, with the time of each phase stacked, and the line is the time
+     * of the tick
+     *
+     * @param r the renderer
+     * @param x the x coordinate of the top left corner
+     * @param y the y coordinate of the top left corner
+     * @param tickNanos the time of each update, in nanoseconds, the height of the line of the graph
+     */
+    public void drawOverlay(Renderer r, int x, int y, long tickNanos) {
+        for ( int i = 0; i < NUM_PHASES; i++ ) {
+            LatencyHistogram histogram = histograms[i];
+            r.drawFillRect(x, y + i * LINE_HEIGHT + 6, 10, 10, COLORS[i]);
+            r.drawText(String.format("%-8s p50 %6.2f  p99 %6.2f  max %6.2f ms", NAMES[i],
+                    histogram.getPercentile(50) / 1000000.0, histogram.getPercentile(99) / 1000000.0,
+                    histogram.getMax() / 1000000.0), x + 15, y + i * LINE_HEIGHT, 0xffffffff);
+        }
+
+        int top = y + NUM_PHASES * LINE_HEIGHT + 5;
+        int bottom = top + GRAPH_HEIGHT;
+        // The graph shows up to two ticks
+        float pixelsPerMicro = GRAPH_HEIGHT / (tickNanos * 2 / 1000.0f);
+        r.drawFillRect(x, top, HISTORY_FRAMES, GRAPH_HEIGHT, 0xc0000000);
+        long last = frames;
+        int count = (int)Math.min(last, HISTORY_FRAMES);
+        for ( int k = 0; k < count; k++ ) {
+            int index = (int)((last - count + k) % HISTORY_FRAMES);
+            int barX = x + HISTORY_FRAMES - count + k;
+            int barBottom = bottom;
+            for ( int i = 0; i < FRAME && barBottom > top; i++ ) {
+                int height = Math.min(barBottom - top, (int)(history[i][index] * pixelsPerMicro));
+                if ( height > 0 ) {
+                    r.drawFillRect(barX, barBottom - height, 1, height, COLORS[i]);
+                    barBottom -= height;
+                }
+            }
+            int frameHeight = Math.min(GRAPH_HEIGHT, (int)(history[FRAME][index] * pixelsPerMicro));
+            r.setPixel(barX, bottom - frameHeight, COLORS[FRAME]);
+        }
+        int tickY = bottom - GRAPH_HEIGHT / 2;
+        r.drawLine(x, tickY, x + HISTORY_FRAMES - 1, tickY, 0xffff80ff);
+    }
+
+    /**
+     * Forgets all the times measured
+     */
+    public void reset() {
+        for ( LatencyHistogram histogram : histograms ) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @param phase a phase
+     * @return the histogram of the times of the phase
+     */
+    public LatencyHistogram getHistogram(int phase) {
+        return histograms[phase];
+    }
+
+    /**
+     * @param phase a phase
+     * @return the time of the phase in the last frame, in nanoseconds
+     */
+    public long getLastFrameNanos(int phase) {
+        return lastFramePhases[phase];
+    }
+
+    /**
+     * @param phase a phase
+     * @return the name of the phase
+     */
+    public static String getName(int phase) {
+        return NAMES[phase];
+    }
+
+    public int getLastFrameUpdates() {
+        return lastFrameUpdates;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+}
@@ -1,7 +1,11 @@
 package engine;
 
+import engine.ecs.World;
+import engine.gfx.DeferredRenderer;
 import engine.gfx.Renderer;
 
+import jdk.jfr.FlightRecorder;
+
 import java.awt.event.KeyEvent;
 
 /**
@@ -24,15 +28,36 @@ import java.awt.event.KeyEvent;
 public class GameContainer implements Runnable {
 
     /**
-     * The needed constant for updating the screen
+     * The default number of updates each second
+     */
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    /**
+     * The scheduler of the updates and the frames: the tick of the
+     * updates, the cap of the frames and the waits
+     */
+    protected final FramePacer pacer = new FramePacer(DEFAULT_TICK_RATE);
+
+    /**
+     * It measures the time of each phase of the loop
+     */
+    protected final FrameProfiler profiler = new FrameProfiler();
+
+    /**
+     * The metrics of the engine published in the MBean server
      */
-    protected final double UPDATE_CAP = 1.0 / 60.0;
+    protected final EngineMetrics metrics = new EngineMetrics(this);
 
     /**
      * This is the name of the version
      */
     protected final String NAME_VERSION = "1";
 
+    /**
+     * The minimum wait of the render thread for a new state, in nanoseconds
+     */
+    private static final long MIN_WAIT_NANOS = 100000L;
+
     /**
      * The window of the program
      */
@@ -48,6 +73,13 @@ public class GameContainer implements Runnable {
      */
     protected AbstractGame game;
 
+    /**
+     * The entities of the game. Its update systems run after each update of
+     * the game, and its render systems before each render of the game.
+     * It is null if the game doesn't use entities
+     */
+    protected World world = null;
+
     /**
      * The input class which manages the user input
      */
@@ -75,9 +107,9 @@ public class GameContainer implements Runnable {
     protected float scale = 1.0f;
 
     /**
-     * The time spent in do the frame
+     * The time of the last count of the frames per second, in nanoseconds
      */
-    protected double frameTime = 0;
+    protected long fpsTime = 0;
 
     /**
      * The number of frames in each loop
@@ -90,24 +122,116 @@ public class GameContainer implements Runnable {
     protected int fps;
 
     /**
-     * The running flag, if the program is running
+     * The running flag, if the program is running. It is read by the
+     * update thread and the render thread
      */
-    protected boolean running = false;
+    protected volatile boolean running = false;
 
     /**
-     * The flag for not overload a lot the CPU
+     * The flag for not overload a lot the CPU. The frames are drawn
+     * only after some update, so there are as many frames as ticks
      */
     protected boolean isCappedTo60fps = false;
 
     /**
-     * Flag for show some information in screen (the fps)
+     * Flag for print the fps in the console each second. The fps
+     * and the times of the frames are published in the MBean
+     * <class>EngineMetrics</class>, so it is disabled by default
+     */
+    protected boolean isShowingFpsInConsole = false;
+
+    /**
+     * Flag for register the <class>EngineMetrics</class> in the platform
+     * MBean server when the program starts, for watch it with JMX
+     */
+    protected boolean isPublishingMetrics = true;
+
+    /**
+     * Flag for show some information in screen (mouse position). It is
+     * toggled by the updates and read by the frames, what can be other thread
+     */
+    protected volatile boolean isShowingInformation = false;
+
+    /**
+     * The position of the mouse in the last update, for the information
+     * in screen. The frames don't read the input, because the update
+     * thread changes it
+     */
+    private volatile int informationMouseX = 0;
+
+    private volatile int informationMouseY = 0;
+
+    /**
+     * Flag for run the program without window. The renderer draws
+     * over an in-memory pixel array, and no input is received.
+     * Useful for servers, CI machines and benchmarking
+     */
+    protected boolean isHeadless = false;
+
+    /**
+     * Flag for run one update for each frame, with the fixed elapsed
+     * time of a tick, without waiting the real time. The program
+     * runs as fast as it can, and two runs produce the same frames
+     */
+    protected boolean isSteppingEachFrame = false;
+
+    /**
+     * Flag for record the drawing calls of each frame and draw them
+     * in all the cores of the CPU, with a <class>DeferredRenderer</class>
+     */
+    protected boolean isRenderingInParallel = false;
+
+    /**
+     * Flag for track the regions of the screen what change each frame,
+     * and redraw only these regions in the window. It is useful when the
+     * clearing of the renderer is disabled and the screen changes little
+     */
+    protected boolean isPresentingDirtyRegions = false;
+
+    /**
+     * Flag for run the updates in their own thread, while the frames are
+     * drawn in the thread of the program. The render draws the last state
+     * copied by the <method>snapshot</method> of the game, with the
+     * interpolation to the time of the frame, so a slow frame doesn't
+     * stop the simulation. It has no effect if the program is stepping
+     * each frame, because two threads don't give the same frames in each run
+     */
+    protected boolean isUpdatingInOtherThread = false;
+
+    /**
+     * Flag for show the frames in the window from other thread, with a ring
+     * of three framebuffers, so the next frame is drawn while the last one is
+     * presented. It has no effect if the program is headless or presents the
+     * dirty regions, because each frame is drawn in a different framebuffer.
+     * For the same reason, the renderer must clear the screen each frame
+     */
+    protected boolean isPresentingInOtherThread = false;
+
+    /**
+     * The presenter of the frames, or null if they are presented by this thread
+     */
+    protected Presenter presenter = null;
+
+    /**
+     * The copies of the state of the game, passed from the updates to the render
+     */
+    protected final TripleBuffer snapshots = new TripleBuffer();
+
+    /**
+     * The interpolation between the last two updates of the frame being drawn
+     */
+    protected float interpolationAlpha = 0.0f;
+
+    /**
+     * The number of frames to render before stop the program.
+     * If it is 0 or less, the program runs until <method>stop</method> is called
      */
-    protected boolean isShowingFpsInConsole = true;
+    protected int frameLimit = 0;
 
     /**
-     * Flag for show some information in screen (mouse position)
+     * The total number of frames rendered since the program started
      */
-    protected boolean isShowingInformation = false;
+    protected long totalFrames = 0;
 
     /**
      * Constructor
@@ -123,7 +247,11 @@ public class GameContainer implements Runnable {
      */
     protected void showInformation() {
         renderer.drawText("FPS:" + fps, 0, 0, 0xffffffff );
-        renderer.drawText("Mouse X: " + getInput().getMouseX() + " Y: " + getInput().getMouseY(), 0, 25, 0xffffffff);
+        renderer.drawText("Mouse X: " + informationMouseX + " Y: " + informationMouseY, 0, 25, 0xffffffff);
+        if ( presenter != null ) {
+            renderer.drawText(String.format("Present latency: %.2f ms", presenter.getAverageLatency() / 1000000.0), 0, 50, 0xffffffff);
+        }
+        profiler.drawOverlay(renderer, 0, 75, pacer.getTickNanos());
     }
 
     /**
@@ -136,13 +264,28 @@ public class GameContainer implements Runnable {
      * for which all the objects that the program, game or program has are also instantiated.
      * application.
      * Lastly, <method> run </method> of the <field> thread </field> field is also called
+     *
+     * If the program is headless, the window is not created.
      */
     public void start() {
-        window = new Window(this);
-        renderer = new Renderer(this);
+        if ( !isHeadless ) {
+            window = new Window(this);
+        }
+        renderer = isRenderingInParallel ? new DeferredRenderer(this) : new Renderer(this);
+        renderer.setTrackingDamage(isPresentingDirtyRegions);
+        if ( window != null && isPresentingInOtherThread && !isPresentingDirtyRegions ) {
+            presenter = new Presenter(window, width, height);
+            renderer.setTarget(presenter.acquire());
+            presenter.start();
+        }
         input = new Input(this);
+        if ( isPublishingMetrics ) {
+            metrics.register();
+        }
         Thread thread = new Thread(this);
         game.initialize(this);
+        publishSnapshot();
+        snapshots.acquire();
         running = true;
         thread.run();
     }
@@ -166,77 +309,271 @@ public class GameContainer implements Runnable {
      */
     @Override
     public void run() {
-        boolean render;
+        if ( isUpdatingInOtherThread && !isSteppingEachFrame ) {
+            runInTwoThreads();
+        } else {
+            runInOneThread();
+        }
+        dispose();
+    }
 
-        double firstTime;
-        double lastTime = System.nanoTime() / 1000000000.0;
-        double passedTime;
-        double unprocessedTime = 0;
+    /**
+     * The loop of the updates and the frames in the same thread.
+     * If the program is capped, a frame is drawn only after some update,
+     * and the loop waits for the next tick
+     */
+    private void runInOneThread() {
+        long now = System.nanoTime();
+        pacer.resetTicks(now);
+        pacer.resetFrames(now);
+        fpsTime = now;
 
         while ( running ) {
-            render = !isCappedTo60fps; // render = isCappedTo60fps ? false : true
+            int updates = isSteppingEachFrame ? 1 : pacer.advance(System.nanoTime());
+            for ( int i = 0; i < updates; i++ ) {
+                update();
+            }
 
-            firstTime = System.nanoTime() / 1000000000.0;
-            passedTime = firstTime - lastTime;
-            lastTime = firstTime;
+            if ( updates > 0 || !isCappedTo60fps ) {
+                snapshots.acquire();
+                renderFrame(isSteppingEachFrame ? 0.0f : pacer.getAlpha());
+                countFps();
+                if ( !isSteppingEachFrame ) {
+                    pacer.waitForNextFrame();
+                }
+            } else {
+                pacer.waitUntil(pacer.getNextTickTime());
+            }
+        }
+    }
 
-            unprocessedTime += passedTime;
-            frameTime += passedTime;
+    /**
+     * The loop of the frames, while the updates run in other thread.
+     * If the program is capped, only the new states are drawn
+     */
+    private void runInTwoThreads() {
+        Thread updateThread = new Thread(this::runUpdates, "Update");
+        updateThread.start();
 
-            while ( unprocessedTime >= UPDATE_CAP ) {
-                unprocessedTime -= UPDATE_CAP;
-                render = true;
+        fpsTime = System.nanoTime();
+        pacer.resetFrames(fpsTime);
+        while ( running ) {
+            boolean isNewState = snapshots.acquire();
+            if ( isCappedTo60fps && !isNewState ) {
+                // The next state is expected a tick after the last one
+                pacer.waitUntil(Math.max(snapshots.getReadTime() + pacer.getTickNanos(), System.nanoTime() + MIN_WAIT_NANOS));
+                continue;
+            }
 
-                game.update(this, (float)UPDATE_CAP);
-                input.update();
+            long sinceUpdate = System.nanoTime() - snapshots.getReadTime();
+            renderFrame(Math.min(1.0f, (float)sinceUpdate / pacer.getTickNanos()));
+            countFps();
+            pacer.waitForNextFrame();
+        }
 
-                if ( input.isKeyUp(KeyEvent.VK_CONTROL) ) {
-                    isShowingInformation = !isShowingInformation;
-                }
+        try {
+            updateThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
 
-                if ( frameTime >= 1.0 ) {
-                    frameTime = 0;
-                    fps = frames;
-                    frames = 0;
-                    if ( isShowingFpsInConsole ) {
-                        System.out.println("FPS: " + fps);
-                    }
+    /**
+     * The loop of the update thread. If the update fails, the program stops
+     */
+    private void runUpdates() {
+        pacer.resetTicks(System.nanoTime());
+        try {
+            while ( running ) {
+                int updates = pacer.advance(System.nanoTime());
+                for ( int i = 0; i < updates; i++ ) {
+                    update();
                 }
+                pacer.waitUntil(pacer.getNextTickTime());
+            }
+        } finally {
+            running = false;
+        }
+    }
 
+    /**
+     * Counts a frame, and each second computes the frames per second
+     */
+    private void countFps() {
+        long now = System.nanoTime();
+        if ( now - fpsTime >= 1000000000L ) {
+            fpsTime = now;
+            fps = frames;
+            frames = 0;
+            if ( isShowingFpsInConsole ) {
+                System.out.println("FPS: " + fps);
             }
+        }
+    }
 
-            if ( render ) {
-                renderer.clear();
-                game.render(this, this.renderer);
-                renderer.process();
-                if ( isShowingInformation ) {
-                    showInformation();
-                }
-                window.update();
-                frames++;
-            } else {
-                try {
-                    Thread.sleep(1);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+    /**
+     * One fixed step of the game: the update of the game, the update of
+     * the world, the input and the copy of the state for the render
+     */
+    private void update() {
+        float dt = (float)pacer.getTickSeconds();
+        long start = System.nanoTime();
+        if ( world != null ) {
+            // The game can change the entities in its update, so the world
+            // is locked for not draw it at the same time in other thread
+            synchronized ( world ) {
+                game.update(this, dt);
+                world.update(dt);
             }
+        } else {
+            game.update(this, dt);
         }
-        dispose();
+        long time = profiler.mark(FrameProfiler.UPDATE, start);
+        input.update();
+        profiler.mark(FrameProfiler.INPUT, time);
+
+        if ( input.isKeyUp(KeyEvent.VK_CONTROL) ) {
+            isShowingInformation = !isShowingInformation;
+        }
+        informationMouseX = input.getMouseX();
+        informationMouseY = input.getMouseY();
+
+        publishSnapshot();
     }
 
-    private void dispose() {
+    /**
+     * The game copies its state in the slot of the update thread, and the slot is published
+     */
+    private void publishSnapshot() {
+        game.snapshot(this, snapshots.getWriteSlot());
+        snapshots.publish(System.nanoTime());
+    }
+
+    /**
+     * Draws a frame and shows it in the window
+     * @param alpha the interpolation between the last two updates
+     */
+    private void renderFrame(float alpha) {
+        interpolationAlpha = alpha;
+        // The classes of the events are not loaded if Flight Recorder is not started
+        FrameEvent event = null;
+        long allocated = 0;
+        if ( FlightRecorder.isInitialized() ) {
+            event = new FrameEvent();
+            event.begin();
+            if ( event.isEnabled() ) {
+                allocated = metrics.getThreadAllocatedBytes();
+            }
+        }
+        long time = System.nanoTime();
+        renderer.clear();
+        time = profiler.mark(FrameProfiler.CLEAR, time);
+        if ( world != null ) {
+            synchronized ( world ) {
+                world.render(renderer);
+            }
+        }
+        game.render(this, this.renderer, alpha);
+        time = profiler.mark(FrameProfiler.RENDER, time);
+        renderer.process();
+        time = profiler.mark(FrameProfiler.PROCESS, time);
+        if ( isShowingInformation ) {
+            // The information is not measured, for not change the phases it shows
+            showInformation();
+            time = System.nanoTime();
+        }
+        if ( presenter != null ) {
+            presenter.submit();
+            renderer.setTarget(presenter.acquire());
+        } else if ( window != null ) {
+            window.update();
+        }
+        profiler.mark(FrameProfiler.PRESENT, time);
+        profiler.endFrame();
+        metrics.recordFrame(renderer);
+        if ( event != null && event.shouldCommit() ) {
+            commitFrameEvent(event, allocated);
+        }
+        frames++;
+        totalFrames++;
+        if ( frameLimit > 0 && totalFrames >= frameLimit ) {
+            running = false;
+        }
+    }
+
+    /**
+     * Fills the event of the frame with the times of the profiler and
+     * the counters of the renderer, and commits it to the recording
+     *
+     * @param event the event started at the beginning of the frame
+     * @param allocated the memory allocated by this thread when the frame started, in bytes
+     */
+    private void commitFrameEvent(FrameEvent event, long allocated) {
+        event.frame = totalFrames;
+        event.updates = profiler.getLastFrameUpdates();
+        event.updateTime = profiler.getLastFrameNanos(FrameProfiler.UPDATE);
+        event.inputTime = profiler.getLastFrameNanos(FrameProfiler.INPUT);
+        event.clearTime = profiler.getLastFrameNanos(FrameProfiler.CLEAR);
+        event.renderTime = profiler.getLastFrameNanos(FrameProfiler.RENDER);
+        event.processTime = profiler.getLastFrameNanos(FrameProfiler.PROCESS);
+        event.presentTime = profiler.getLastFrameNanos(FrameProfiler.PRESENT);
+        event.frameTime = profiler.getLastFrameNanos(FrameProfiler.FRAME);
+        event.drawCalls = renderer.getNumDrawCalls();
+        event.translucentRequests = renderer.getNumTranslucentRequests();
+        event.allocated = allocated >= 0 ? metrics.getThreadAllocatedBytes() - allocated : -1;
+        event.commit();
+    }
 
+    private void dispose() {
+        if ( presenter != null ) {
+            presenter.stop();
+        }
+        metrics.unregister();
     }
 
     public Window getWindow() {
         return window;
     }
 
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * @return the slot of the copy of the state what the render must draw
+     */
+    public int getSnapshotSlot() {
+        return snapshots.getReadSlot();
+    }
+
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    public Presenter getPresenter() {
+        return presenter;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getFps() {
+        return fps;
+    }
+
     public Input getInput() {
         return input;
     }
 
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
     public int getWidth() {
         return width;
     }
@@ -253,8 +590,15 @@ public class GameContainer implements Runnable {
         return title + " - v." + NAME_VERSION + " - fps: " + fps + " " + width + "x" + height;
     }
 
+    /**
+     * @return the time of each update, in seconds
+     */
     public double getUPDATE_CAP() {
-        return UPDATE_CAP;
+        return pacer.getTickSeconds();
+    }
+
+    public FramePacer getPacer() {
+        return pacer;
     }
 
     public boolean isShowingInformation() {
@@ -269,6 +613,46 @@ public class GameContainer implements Runnable {
         return isShowingFpsInConsole;
     }
 
+    public boolean isPublishingMetrics() {
+        return isPublishingMetrics;
+    }
+
+    public boolean isHeadless() {
+        return isHeadless;
+    }
+
+    public boolean isSteppingEachFrame() {
+        return isSteppingEachFrame;
+    }
+
+    public boolean isRenderingInParallel() {
+        return isRenderingInParallel;
+    }
+
+    public boolean isPresentingDirtyRegions() {
+        return isPresentingDirtyRegions;
+    }
+
+    public boolean isUpdatingInOtherThread() {
+        return isUpdatingInOtherThread;
+    }
+
+    public boolean isPresentingInOtherThread() {
+        return isPresentingInOtherThread;
+    }
+
+    public int getFrameLimit() {
+        return frameLimit;
+    }
+
+    public long getTotalFrames() {
+        return totalFrames;
+    }
+
+    public void setWorld(World world) {
+        this.world = world;
+    }
+
     public void setWidth(int width) {
         this.width = width;
     }
@@ -293,4 +677,62 @@ public class GameContainer implements Runnable {
         isShowingInformation = showingInformation;
     }
 
+    public void setShowingFpsInConsole(boolean showingFpsInConsole) {
+        isShowingFpsInConsole = showingFpsInConsole;
+    }
+
+    public void setPublishingMetrics(boolean publishingMetrics) {
+        isPublishingMetrics = publishingMetrics;
+    }
+
+    public void setHeadless(boolean headless) {
+        isHeadless = headless;
+    }
+
+    public void setSteppingEachFrame(boolean steppingEachFrame) {
+        isSteppingEachFrame = steppingEachFrame;
+    }
+
+    public void setRenderingInParallel(boolean renderingInParallel) {
+        isRenderingInParallel = renderingInParallel;
+    }
+
+    public void setPresentingDirtyRegions(boolean presentingDirtyRegions) {
+        isPresentingDirtyRegions = presentingDirtyRegions;
+    }
+
+    public void setUpdatingInOtherThread(boolean updatingInOtherThread) {
+        isUpdatingInOtherThread = updatingInOtherThread;
+    }
+
+    public void setPresentingInOtherThread(boolean presentingInOtherThread) {
+        isPresentingInOtherThread = presentingInOtherThread;
+    }
+
+    /**
+     * @param ticksPerSecond the number of updates each second. By default, 60
+     */
+    public void setTickRate(int ticksPerSecond) {
+        pacer.setTickRate(ticksPerSecond);
+    }
+
+    /**
+     * @param framesPerSecond the maximum number of frames each second, or 0 for not cap them
+     */
+    public void setFrameRateCap(int framesPerSecond) {
+        pacer.setFrameRateCap(framesPerSecond);
+    }
+
+    /**
+     * @param maxUpdatesPerFrame the maximum number of updates before each frame.
+     *                           The time of the rest of the updates is dropped
+     */
+    public void setMaxUpdatesPerFrame(int maxUpdatesPerFrame) {
+        pacer.setMaxUpdatesPerFrame(maxUpdatesPerFrame);
+    }
+
+    public void setFrameLimit(int frameLimit) {
+        this.frameLimit = frameLimit;
+    }
+
 }
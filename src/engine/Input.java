@@ -46,6 +46,10 @@ public class Input implements KeyListener, MouseListener, MouseMotionListener, M
         mouseY = 0;
         scroll = 0;
 
+        if ( gc.getWindow() == null ) { // headless, there is nothing to listen
+            return;
+        }
+
         gc.getWindow().getCanvas().addKeyListener(this);
         gc.getWindow().getCanvas().addMouseListener(this);
         gc.getWindow().getCanvas().addMouseMotionListener(this);
@@ -0,0 +1,131 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class counts durations in buckets, for know their percentiles
+ * without keep all of them. Recording a duration doesn't allocate
+ * memory and doesn't lock, so it can be done each frame from any thread.
+ *
+ * The buckets are logarithmic: each power of two is split in 16 buckets
+ * of the same width, so the error of a percentile is less than 1/16 of
+ * its value, from one nanosecond to hundreds of years.
+ *
+ * @class LatencyHistogram
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class LatencyHistogram {
+
+    /**
+     * The bits of the buckets of each power of two
+     */
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int NUM_BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+
+    /**
+     * The number of durations
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the durations, for the mean
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos a duration
+     * @return the bucket of the duration
+     */
+    private static int getBucket(long nanos) {
+        if ( nanos < SUB_BUCKETS ) {
+            return (int)Math.max(0, nanos);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int)(nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @param bucket a bucket
+     * @return the duration in the middle of the bucket
+     */
+    private static long getValue(int bucket) {
+        if ( bucket < SUB_BUCKETS ) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long)(SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width / 2;
+    }
+
+    /**
+     * Counts a duration
+     * @param nanos the duration, in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(getBucket(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long current = max.get();
+        while ( nanos > current && !max.compareAndSet(current, nanos) ) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @param percentile the percentile, from 0 to 100
+     * @return the duration what is longer than this percentage of the durations, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if ( n == 0 ) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for ( int i = 0; i < NUM_BUCKETS; i++ ) {
+            seen += counts.get(i);
+            if ( seen >= rank ) {
+                return Math.min(getValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forgets all the durations. The durations recorded at the
+     * same time by other threads can be forgotten partially
+     */
+    public void reset() {
+        for ( int i = 0; i < NUM_BUCKETS; i++ ) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMean() {
+        long n = count.get();
+        return n > 0 ? total.get() / n : 0;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+}
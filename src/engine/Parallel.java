@@ -0,0 +1,79 @@
+package engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * This class runs pieces of work in all the cores of the CPU.
+ * It uses the common pool of the <class>ForkJoinPool</class>, and
+ * the thread which calls it also works until all the pieces are done.
+ *
+ * It is used by the engine to split the work in horizontal
+ * bands of the screen, or in chunks of arrays.
+ *
+ * @class Parallel
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Parallel {
+
+    /**
+     * The task which splits the range of pieces in two halves
+     * until each task has only one piece
+     */
+    private static class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+
+        private final int from;
+
+        private final int to;
+
+        RangeTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from == 1 ) {
+                action.accept(from);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(action, from, middle), new RangeTask(action, middle, to));
+            }
+        }
+
+    }
+
+    /**
+     * @return the number of threads what can work at the same time
+     */
+    public static int getParallelism() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs the action for all the pieces from 0 to count (not included).
+     * The pieces can run at the same time, in any order. This method
+     * returns when all of them are done
+     *
+     * @param count the number of pieces
+     * @param action the action to do with each piece. It receives the index of the piece
+     */
+    public static void forEach(int count, IntConsumer action) {
+        if ( count <= 0 ) {
+            return;
+        }
+        if ( count == 1 ) {
+            action.accept(0);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new RangeTask(action, 0, count));
+    }
+
+}
@@ -0,0 +1,227 @@
+package engine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * This class shows the frames in the window from its own thread, so the
+ * game can draw the next frame while the last one is scaled and copied
+ * to the screen.
+ *
+ * It has a ring of three framebuffers. At each moment, one of them is
+ * being drawn by the renderer, one is being presented, and the third one
+ * is the last complete frame, what waits to be presented. When a frame is
+ * complete before the last one was presented, the waiting frame is
+ * dropped and its framebuffer is reused, so the window always shows the
+ * newest frame and the renderer never waits for the presentation.
+ *
+ * The latency is the time since a frame is complete until it is shown.
+ *
+ * @class Presenter
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Presenter implements Runnable {
+
+    /**
+     * The number of framebuffers
+     */
+    public static final int NUM_BUFFERS = 3;
+
+    /**
+     * The number of frames of the average latency
+     */
+    private static final int LATENCY_FRAMES = 64;
+
+    /**
+     * The window where the frames are shown
+     */
+    private final Window window;
+
+    private final BufferedImage[] images = new BufferedImage[NUM_BUFFERS];
+
+    /**
+     * The pixels of each image
+     */
+    private final int[][] pixels = new int[NUM_BUFFERS][];
+
+    /**
+     * The framebuffer being drawn by the renderer, or -1
+     */
+    private int drawing = -1;
+
+    /**
+     * The complete framebuffer what waits to be presented, or -1
+     */
+    private int ready = -1;
+
+    /**
+     * The framebuffer being presented, or -1
+     */
+    private int presenting = -1;
+
+    /**
+     * The time when each framebuffer was complete, in nanoseconds
+     */
+    private final long[] submitTimes = new long[NUM_BUFFERS];
+
+    /**
+     * The latencies of the last frames presented, in nanoseconds
+     */
+    private final long[] latencies = new long[LATENCY_FRAMES];
+
+    private long numPresentedFrames = 0;
+
+    private long numDroppedFrames = 0;
+
+    private Thread thread;
+
+    private volatile boolean running = false;
+
+    /**
+     * Constructor
+     * @param window the window where the frames are shown
+     * @param width the width of the frames
+     * @param height the height of the frames
+     */
+    public Presenter(Window window, int width, int height) {
+        this.window = window;
+        for ( int i = 0; i < NUM_BUFFERS; i++ ) {
+            images[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels[i] = ((DataBufferInt)images[i].getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "Presenter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread, after the frame being presented
+     */
+    public void stop() {
+        synchronized ( this ) {
+            running = false;
+            notifyAll();
+        }
+        if ( thread != null ) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Gives a framebuffer to draw the next frame. It is not being
+     * presented and it is not waiting to be presented
+     *
+     * @return the pixels of the framebuffer
+     */
+    public synchronized int[] acquire() {
+        for ( int i = 0; i < NUM_BUFFERS; i++ ) {
+            if ( i != ready && i != presenting ) {
+                drawing = i;
+                break;
+            }
+        }
+        return pixels[drawing];
+    }
+
+    /**
+     * Marks the framebuffer being drawn as complete. If other frame
+     * was waiting to be presented, it is dropped
+     */
+    public synchronized void submit() {
+        if ( drawing < 0 ) {
+            return;
+        }
+        if ( ready >= 0 ) {
+            numDroppedFrames++;
+        }
+        ready = drawing;
+        submitTimes[ready] = System.nanoTime();
+        drawing = -1;
+        notifyAll();
+    }
+
+    /**
+     * The loop of the thread: it waits for a complete frame and presents it
+     */
+    @Override
+    public void run() {
+        while ( true ) {
+            int index;
+            synchronized ( this ) {
+                while ( running && ready < 0 ) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if ( !running ) {
+                    return;
+                }
+                index = ready;
+                presenting = index;
+                ready = -1;
+            }
+
+            present(images[index]);
+
+            synchronized ( this ) {
+                latencies[(int)(numPresentedFrames % LATENCY_FRAMES)] = System.nanoTime() - submitTimes[index];
+                numPresentedFrames++;
+                presenting = -1;
+            }
+        }
+    }
+
+    /**
+     * Shows a frame in the window
+     * @param image the frame
+     */
+    protected void present(BufferedImage image) {
+        window.present(image);
+    }
+
+    /**
+     * @return the average latency of the last frames presented, in nanoseconds
+     */
+    public synchronized long getAverageLatency() {
+        int count = (int)Math.min(numPresentedFrames, LATENCY_FRAMES);
+        if ( count == 0 ) {
+            return 0;
+        }
+        long sum = 0;
+        for ( int i = 0; i < count; i++ ) {
+            sum += latencies[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * @return the highest latency of the last frames presented, in nanoseconds
+     */
+    public synchronized long getMaxLatency() {
+        long max = 0;
+        for ( int i = 0; i < Math.min(numPresentedFrames, LATENCY_FRAMES); i++ ) {
+            max = Math.max(max, latencies[i]);
+        }
+        return max;
+    }
+
+    public synchronized long getNumPresentedFrames() {
+        return numPresentedFrames;
+    }
+
+    public synchronized long getNumDroppedFrames() {
+        return numDroppedFrames;
+    }
+
+}
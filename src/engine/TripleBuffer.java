@@ -0,0 +1,120 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class passes the state of the game from the thread what updates
+ * it to the thread what draws it, without locks and without waiting.
+ *
+ * There are three slots of state, what are kept by the game (for
+ * example, three copies of the arrays of positions). At each moment,
+ * one slot is being written by the update thread, one is being read
+ * by the render thread, and the third one is the last complete state.
+ * When the update thread ends a state, it swaps its slot with the
+ * third one. When the render thread starts a frame, if there is a new
+ * state, it swaps its slot with the third one. The two threads never
+ * use the same slot.
+ *
+ * The three numbers of the slots and the flag of new state are in one
+ * atomic int, so each swap is one compare and set.
+ *
+ * @class TripleBuffer
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class TripleBuffer {
+
+    /**
+     * The number of slots
+     */
+    public static final int NUM_SLOTS = 3;
+
+    /**
+     * The shift of the bits of the slot written by the update thread
+     */
+    private static final int WRITE_SHIFT = 0;
+
+    /**
+     * The shift of the bits of the last complete slot
+     */
+    private static final int READY_SHIFT = 2;
+
+    /**
+     * The shift of the bits of the slot read by the render thread
+     */
+    private static final int READ_SHIFT = 4;
+
+    /**
+     * The bit of a new complete slot, what the render thread has not taken
+     */
+    private static final int FRESH = 1 << 6;
+
+    private final AtomicInteger state = new AtomicInteger(0 << WRITE_SHIFT | 1 << READY_SHIFT | 2 << READ_SHIFT);
+
+    /**
+     * The time, in nanoseconds, when each slot was published
+     */
+    private final long[] times = new long[NUM_SLOTS];
+
+    /**
+     * @return the slot what the update thread writes
+     */
+    public int getWriteSlot() {
+        return (state.get() >> WRITE_SHIFT) & 3;
+    }
+
+    /**
+     * @return the slot what the render thread reads
+     */
+    public int getReadSlot() {
+        return (state.get() >> READ_SHIFT) & 3;
+    }
+
+    /**
+     * Marks the slot written by the update thread as complete.
+     * The update thread gets other slot to write
+     *
+     * @param time the time of the state, in nanoseconds
+     */
+    public void publish(long time) {
+        int current;
+        int next;
+        do {
+            current = state.get();
+            int write = (current >> WRITE_SHIFT) & 3;
+            int ready = (current >> READY_SHIFT) & 3;
+            int read = (current >> READ_SHIFT) & 3;
+            times[write] = time;
+            next = ready << WRITE_SHIFT | write << READY_SHIFT | read << READ_SHIFT | FRESH;
+        } while ( !state.compareAndSet(current, next) );
+    }
+
+    /**
+     * Gives the last complete slot to the render thread, if there is a new one
+     *
+     * @return true if the slot read by the render thread changed
+     */
+    public boolean acquire() {
+        int current;
+        int next;
+        do {
+            current = state.get();
+            if ( (current & FRESH) == 0 ) {
+                return false;
+            }
+            int write = (current >> WRITE_SHIFT) & 3;
+            int ready = (current >> READY_SHIFT) & 3;
+            int read = (current >> READ_SHIFT) & 3;
+            next = write << WRITE_SHIFT | read << READY_SHIFT | ready << READ_SHIFT;
+        } while ( !state.compareAndSet(current, next) );
+        return true;
+    }
+
+    /**
+     * @return the time of the state of the slot read by the render thread, in nanoseconds
+     */
+    public long getReadTime() {
+        return times[getReadSlot()];
+    }
+
+}
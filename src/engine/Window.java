@@ -1,5 +1,7 @@
 package engine;
 
+import engine.gfx.DirtyRegion;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferStrategy;
@@ -52,6 +54,29 @@ public class Window {
      */
     private GameContainer gc;
 
+    /**
+     * The title shown in the title bar
+     */
+    private String title;
+
+    /**
+     * The damaged regions of the last frame presented. The back buffer
+     * can have the image of two frames before, so these regions are
+     * presented again with the damaged regions of the current frame
+     */
+    private DirtyRegion previousDamage;
+
+    /**
+     * The regions to present in the current frame
+     */
+    private DirtyRegion regionsToPresent;
+
+    /**
+     * The number of next frames which must be presented completely,
+     * because the buffers don't have a valid image
+     */
+    private int fullFramesPending = 2;
+
     /**
      * This method is the one that creates:
      * - the image <class> BufferedImage </class>.
@@ -72,7 +97,8 @@ public class Window {
         canvas.setMaximumSize(s);
         canvas.setMinimumSize(s);
 
-        frame = new JFrame(gc.getTitle());
+        title = gc.getTitle();
+        frame = new JFrame(title);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLayout(new BorderLayout());
         frame.add(canvas, BorderLayout.CENTER);
@@ -89,13 +115,87 @@ public class Window {
     /**
      * The update method is responsible for updating the title of the window's title bar
      * and to redraw the window.
+     *
+     * If the renderer tracks the damaged regions of the screen, only these regions are
+     * redrawn, and if nothing has changed the window is not redrawn.
      */
     public void update() {
-        frame.setTitle(gc.getTitle());
-        g.drawImage(image, 0, 0, canvas.getWidth(), canvas.getHeight(), null);
+        updateTitle();
+
+        DirtyRegion damage = gc.getRenderer() != null ? gc.getRenderer().getDamage() : null;
+        if ( damage == null || damage.isFull() || fullFramesPending > 0 ) {
+            g.drawImage(image, 0, 0, canvas.getWidth(), canvas.getHeight(), null);
+            if ( fullFramesPending > 0 ) {
+                fullFramesPending--;
+            }
+        } else {
+            if ( damage.isEmpty() ) {
+                return;
+            }
+            if ( regionsToPresent == null ) {
+                regionsToPresent = new DirtyRegion(image.getWidth(), image.getHeight());
+            }
+            regionsToPresent.set(damage);
+            regionsToPresent.add(previousDamage);
+            presentRegions(regionsToPresent);
+        }
+
+        if ( damage != null ) {
+            if ( previousDamage == null ) {
+                previousDamage = new DirtyRegion(image.getWidth(), image.getHeight());
+            }
+            previousDamage.set(damage);
+        }
+
+        bs.show();
+        if ( bs.contentsLost() || bs.contentsRestored() ) {
+            fullFramesPending = 2;
+        }
+    }
+
+    /**
+     * Shows a frame in the window, scaled to the size of the canvas. It is
+     * called by the thread of the <class>Presenter</class>, with the
+     * framebuffers of the presenter instead of the image of the window
+     *
+     * @param frame the image of the frame
+     */
+    public void present(BufferedImage frame) {
+        updateTitle();
+        g.drawImage(frame, 0, 0, canvas.getWidth(), canvas.getHeight(), null);
         bs.show();
     }
 
+    private void updateTitle() {
+        String newTitle = gc.getTitle();
+        if ( !newTitle.equals(title) ) {
+            title = newTitle;
+            frame.setTitle(title);
+        }
+    }
+
+    /**
+     * Draws only the regions of the image into the canvas,
+     * scaled to the size of the canvas
+     *
+     * @param regions the regions of the image to draw
+     */
+    private void presentRegions(DirtyRegion regions) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int canvasW = canvas.getWidth();
+        int canvasH = canvas.getHeight();
+        for ( int i = 0; i < regions.getSize(); i++ ) {
+            int x1 = regions.getX1(i);
+            int y1 = regions.getY1(i);
+            int x2 = regions.getX2(i);
+            int y2 = regions.getY2(i);
+            g.drawImage(image,
+                    x1 * canvasW / w, y1 * canvasH / h, x2 * canvasW / w, y2 * canvasH / h,
+                    x1, y1, x2, y2, null);
+        }
+    }
+
     public Canvas getCanvas() {
         return canvas;
     }
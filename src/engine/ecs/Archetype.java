@@ -0,0 +1,124 @@
+package engine.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class is the storage of all the entities with the same set
+ * of components. The entities are kept in chunks of a fixed size,
+ * packed from the first one: when an entity is removed, the last
+ * entity of the last chunk takes its place.
+ *
+ * @class Archetype
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+class Archetype {
+
+    /**
+     * The bits of the types of the components
+     */
+    private final long mask;
+
+    private final ComponentType[] types;
+
+    /**
+     * The first column of each type in the chunks, by the number of
+     * the type. It is -1 for the types what are not in the archetype
+     */
+    private final int[] columns = new int[ComponentType.MAX_TYPES];
+
+    private final int numFloatColumns;
+
+    private final int numIntColumns;
+
+    /**
+     * The number of entities of each chunk
+     */
+    private final int chunkSize;
+
+    private final ArrayList<Chunk> chunks = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param types the types of the components
+     * @param chunkSize the number of entities of each chunk
+     */
+    Archetype(ComponentType[] types, int chunkSize) {
+        this.types = types;
+        this.mask = ComponentType.maskOf(types);
+        this.chunkSize = chunkSize;
+        Arrays.fill(columns, -1);
+        int floatColumns = 0;
+        int intColumns = 0;
+        for ( ComponentType type : types ) {
+            if ( type.isInt() ) {
+                columns[type.getId()] = intColumns;
+                intColumns += type.getWidth();
+            } else {
+                columns[type.getId()] = floatColumns;
+                floatColumns += type.getWidth();
+            }
+        }
+        numFloatColumns = floatColumns;
+        numIntColumns = intColumns;
+    }
+
+    /**
+     * Adds an entity at the end of the archetype. All its fields are 0
+     *
+     * @param entity the entity
+     * @return the chunk of the entity. Its row is the last one of the chunk
+     */
+    Chunk add(int entity) {
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if ( chunk == null || chunk.getSize() == chunkSize ) {
+            chunk = new Chunk(this, chunkSize, numFloatColumns, numIntColumns);
+            chunks.add(chunk);
+        }
+        chunk.add(entity);
+        return chunk;
+    }
+
+    /**
+     * Removes an entity, moving the last entity of the archetype to its place
+     *
+     * @param chunk the chunk of the entity
+     * @param row the row of the entity in the chunk
+     * @return if other entity was moved to the row. It is false if the removed entity was the last one
+     */
+    boolean remove(Chunk chunk, int row) {
+        Chunk last = chunks.get(chunks.size() - 1);
+        int lastRow = last.getSize() - 1;
+        boolean isMoved = last != chunk || lastRow != row;
+        if ( isMoved ) {
+            chunk.copyRow(row, last, lastRow);
+        }
+        last.removeLast();
+        if ( last.getSize() == 0 ) {
+            chunks.remove(chunks.size() - 1);
+        }
+        return isMoved;
+    }
+
+    /**
+     * @param type a type of component
+     * @return the first column of the type in the chunks, or -1 if the type is not in the archetype
+     */
+    int getColumn(ComponentType type) {
+        return columns[type.getId()];
+    }
+
+    long getMask() {
+        return mask;
+    }
+
+    ComponentType[] getTypes() {
+        return types;
+    }
+
+    ArrayList<Chunk> getChunks() {
+        return chunks;
+    }
+
+}
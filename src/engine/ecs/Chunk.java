@@ -0,0 +1,191 @@
+package engine.ecs;
+
+import java.util.Arrays;
+
+/**
+ * This class is a block of entities of one archetype. Each field of
+ * each component is a primitive array with one value for each entity
+ * of the chunk, so a system reads the positions of the entities as
+ * an array of x and an array of y:
+ *
+ * float[] x = chunk.getFloats(POSITION, 0);
+ * float[] y = chunk.getFloats(POSITION, 1);
+ * for ( int i = 0; i < chunk.getSize(); i++ ) { ... }
+ *
+ * The entities are from 0 to the size of the chunk. The arrays can
+ * be longer, and the values after the size must be ignored.
+ *
+ * @class Chunk
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public final class Chunk {
+
+    private final Archetype archetype;
+
+    /**
+     * The entity of each row
+     */
+    private final int[] entities;
+
+    /**
+     * The float fields of the components, one array for each field
+     */
+    private final float[][] floats;
+
+    /**
+     * The int fields of the components, one array for each field
+     */
+    private final int[][] ints;
+
+    /**
+     * The number of entities
+     */
+    private int size = 0;
+
+    Chunk(Archetype archetype, int capacity, int numFloatColumns, int numIntColumns) {
+        this.archetype = archetype;
+        entities = new int[capacity];
+        floats = new float[numFloatColumns][capacity];
+        ints = new int[numIntColumns][capacity];
+    }
+
+    /**
+     * Adds an entity in the next row, with all its fields at 0
+     * @param entity the entity
+     */
+    void add(int entity) {
+        for ( float[] column : floats ) {
+            column[size] = 0.0f;
+        }
+        for ( int[] column : ints ) {
+            column[size] = 0;
+        }
+        entities[size++] = entity;
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    /**
+     * Copies an entity of other chunk of the same archetype to a row
+     *
+     * @param row the row what receives the entity
+     * @param other the chunk of the entity to copy
+     * @param otherRow the row of the entity to copy
+     */
+    void copyRow(int row, Chunk other, int otherRow) {
+        entities[row] = other.entities[otherRow];
+        for ( int i = 0; i < floats.length; i++ ) {
+            floats[i][row] = other.floats[i][otherRow];
+        }
+        for ( int i = 0; i < ints.length; i++ ) {
+            ints[i][row] = other.ints[i][otherRow];
+        }
+    }
+
+    /**
+     * Copies the components what are in both chunks, from an entity
+     * of other chunk. It is used when a component is added to an entity
+     * or removed from it, and the entity changes its archetype
+     *
+     * @param row the row what receives the components
+     * @param other the chunk of the entity to copy
+     * @param otherRow the row of the entity to copy
+     */
+    void copyComponents(int row, Chunk other, int otherRow) {
+        for ( ComponentType type : archetype.getTypes() ) {
+            int otherColumn = other.archetype.getColumn(type);
+            if ( otherColumn < 0 ) {
+                continue;
+            }
+            int column = archetype.getColumn(type);
+            for ( int field = 0; field < type.getWidth(); field++ ) {
+                if ( type.isInt() ) {
+                    ints[column + field][row] = other.ints[otherColumn + field][otherRow];
+                } else {
+                    floats[column + field][row] = other.floats[otherColumn + field][otherRow];
+                }
+            }
+        }
+    }
+
+    /**
+     * @param type a type of component of the archetype
+     * @param isInt if the fields must be ints
+     * @return the column of the first field of the type
+     */
+    private int getColumn(ComponentType type, boolean isInt) {
+        int column = archetype.getColumn(type);
+        if ( column < 0 ) {
+            throw new IllegalArgumentException("The entities of the chunk have no " + type + " component");
+        }
+        if ( type.isInt() != isInt ) {
+            throw new IllegalArgumentException("The fields of the " + type + " component are " + (isInt ? "floats" : "ints"));
+        }
+        return column;
+    }
+
+    /**
+     * @param type a type of component with float fields
+     * @param field the number of the field
+     * @return the values of the field, one for each entity of the chunk
+     */
+    public float[] getFloats(ComponentType type, int field) {
+        return floats[getColumn(type, false) + field];
+    }
+
+    /**
+     * @param type a type of component with float fields
+     * @return the values of the first field, one for each entity of the chunk
+     */
+    public float[] getFloats(ComponentType type) {
+        return getFloats(type, 0);
+    }
+
+    /**
+     * @param type a type of component with int fields
+     * @param field the number of the field
+     * @return the values of the field, one for each entity of the chunk
+     */
+    public int[] getInts(ComponentType type, int field) {
+        return ints[getColumn(type, true) + field];
+    }
+
+    /**
+     * @param type a type of component with int fields
+     * @return the values of the first field, one for each entity of the chunk
+     */
+    public int[] getInts(ComponentType type) {
+        return getInts(type, 0);
+    }
+
+    /**
+     * @param type a type of component
+     * @return if the entities of the chunk have the component
+     */
+    public boolean hasComponent(ComponentType type) {
+        return archetype.getColumn(type) >= 0;
+    }
+
+    public int getEntity(int row) {
+        return entities[row];
+    }
+
+    /**
+     * @return a copy of the entities of the chunk
+     */
+    public int[] getEntities() {
+        return Arrays.copyOf(entities, size);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    Archetype getArchetype() {
+        return archetype;
+    }
+
+}
@@ -0,0 +1,118 @@
+package engine.ecs;
+
+/**
+ * This class is a type of component of the entities. A component is a
+ * fixed number of fields, all floats or all ints, for example a position
+ * is two floats and a color is one int.
+ *
+ * The components are not objects: each field of each type is stored in
+ * one primitive array for each <class>Chunk</class>, so the systems read
+ * the entities in plain loops over the arrays.
+ *
+ * Each type has a number, what is its bit in the masks of the archetypes.
+ * There can be 64 types at most.
+ *
+ * @class ComponentType
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public final class ComponentType {
+
+    /**
+     * The maximum number of types, the bits of a long
+     */
+    public static final int MAX_TYPES = 64;
+
+    /**
+     * The number of types created
+     */
+    private static int numTypes = 0;
+
+    private final String name;
+
+    /**
+     * The number of the type, between 0 and 63
+     */
+    private final int id;
+
+    /**
+     * The number of fields
+     */
+    private final int width;
+
+    /**
+     * Flag for the fields of int type. If not, they are floats
+     */
+    private final boolean isInt;
+
+    private ComponentType(String name, int width, boolean isInt) {
+        if ( width <= 0 ) {
+            throw new IllegalArgumentException("A component needs at least one field");
+        }
+        synchronized ( ComponentType.class ) {
+            if ( numTypes == MAX_TYPES ) {
+                throw new IllegalStateException("There can't be more than " + MAX_TYPES + " component types");
+            }
+            id = numTypes++;
+        }
+        this.name = name;
+        this.width = width;
+        this.isInt = isInt;
+    }
+
+    /**
+     * @param name the name of the component, for the messages
+     * @param width the number of fields
+     * @return a new type of component with float fields
+     */
+    public static ComponentType floats(String name, int width) {
+        return new ComponentType(name, width, false);
+    }
+
+    /**
+     * @param name the name of the component, for the messages
+     * @param width the number of fields
+     * @return a new type of component with int fields
+     */
+    public static ComponentType ints(String name, int width) {
+        return new ComponentType(name, width, true);
+    }
+
+    /**
+     * @param types some types
+     * @return the mask with the bits of the types
+     */
+    static long maskOf(ComponentType... types) {
+        long mask = 0;
+        for ( ComponentType type : types ) {
+            mask |= type.getMask();
+        }
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getMask() {
+        return 1L << id;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public boolean isInt() {
+        return isInt;
+    }
+
+}
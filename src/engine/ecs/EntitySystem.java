@@ -0,0 +1,86 @@
+package engine.ecs;
+
+import engine.gfx.Renderer;
+
+/**
+ * This class is the base of the systems of a <class>World</class>, the
+ * code what goes through the entities with some components each frame.
+ *
+ * Each system declares in its constructor the components what it reads
+ * and the components what it writes. Two update systems can run at the
+ * same time if none of them writes a component what the other one
+ * reads or writes. A system what declares nothing is supposed to read
+ * and write everything, and always runs alone.
+ *
+ * @class EntitySystem
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public abstract class EntitySystem {
+
+    /**
+     * The bits of the components what the system reads
+     */
+    private long readMask = 0;
+
+    /**
+     * The bits of the components what the system writes
+     */
+    private long writeMask = 0;
+
+    /**
+     * Declares the components what the system reads
+     * @param types the types of the components
+     */
+    protected void reads(ComponentType... types) {
+        readMask |= ComponentType.maskOf(types);
+    }
+
+    /**
+     * Declares the components what the system writes. They can be read too
+     * @param types the types of the components
+     */
+    protected void writes(ComponentType... types) {
+        writeMask |= ComponentType.maskOf(types);
+    }
+
+    /**
+     * The method of the update stage
+     *
+     * @param world the world of the entities
+     * @param dt the elapsed time since the last update
+     */
+    public void update(World world, float dt) {
+
+    }
+
+    /**
+     * The method of the render stage
+     *
+     * @param world the world of the entities
+     * @param r the renderer
+     */
+    public void render(World world, Renderer r) {
+
+    }
+
+    /**
+     * @param other other system
+     * @return if the two systems can't run at the same time
+     */
+    boolean isConflicting(EntitySystem other) {
+        if ( (readMask | writeMask) == 0 || (other.readMask | other.writeMask) == 0 ) {
+            return true;
+        }
+        return (writeMask & (other.readMask | other.writeMask)) != 0 || (other.writeMask & readMask) != 0;
+    }
+
+    public long getReadMask() {
+        return readMask;
+    }
+
+    public long getWriteMask() {
+        return writeMask;
+    }
+
+}
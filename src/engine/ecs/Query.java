@@ -0,0 +1,133 @@
+package engine.ecs;
+
+import engine.Parallel;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * This class is a compiled query over the entities of a <class>World</class>:
+ * the entities what have some components and don't have others.
+ *
+ * The query keeps the list of the archetypes what match it. The list is
+ * built when the query is created, and the world adds the new archetypes
+ * to it when they appear, so running the query doesn't test the
+ * entities or the archetypes again, only goes through the chunks.
+ *
+ * Running a query doesn't change it, so the systems what run at the
+ * same time can share it. Each system can create its queries in its
+ * constructor or the first time it runs.
+ *
+ * @class Query
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public final class Query {
+
+    /**
+     * The bits of the components what the entities must have
+     */
+    private final long includeMask;
+
+    /**
+     * The bits of the components what the entities must not have
+     */
+    private final long excludeMask;
+
+    /**
+     * The archetypes what match the query
+     */
+    private final ArrayList<Archetype> archetypes = new ArrayList<>();
+
+    Query(long includeMask, long excludeMask) {
+        this.includeMask = includeMask;
+        this.excludeMask = excludeMask;
+    }
+
+    /**
+     * @param mask the bits of the components of an archetype
+     * @return if the archetype matches the query
+     */
+    boolean matches(long mask) {
+        return (mask & includeMask) == includeMask && (mask & excludeMask) == 0;
+    }
+
+    /**
+     * Adds an archetype, if it matches the query
+     * @param archetype the new archetype of the world
+     */
+    void addArchetype(Archetype archetype) {
+        if ( matches(archetype.getMask()) ) {
+            archetypes.add(archetype);
+        }
+    }
+
+    /**
+     * Runs an action for each chunk with entities of the query,
+     * one after another in the thread which calls it
+     *
+     * @param action the action
+     */
+    public void forEachChunk(Consumer<Chunk> action) {
+        for ( int i = 0; i < archetypes.size(); i++ ) {
+            ArrayList<Chunk> archetypeChunks = archetypes.get(i).getChunks();
+            for ( int k = 0; k < archetypeChunks.size(); k++ ) {
+                action.accept(archetypeChunks.get(k));
+            }
+        }
+    }
+
+    /**
+     * Runs an action for each chunk with entities of the query, in all
+     * the cores of the CPU. The action can run for several chunks at the
+     * same time, so it must only write the components of its own chunk
+     *
+     * @param action the action
+     */
+    public void forEachChunkInParallel(Consumer<Chunk> action) {
+        int numChunks = 0;
+        for ( int i = 0; i < archetypes.size(); i++ ) {
+            numChunks += archetypes.get(i).getChunks().size();
+        }
+        // Each index is found in the archetypes, for not copy the chunks in other list
+        Parallel.forEach(numChunks, index -> action.accept(getChunk(index)));
+    }
+
+    /**
+     * @param index the index of the chunk, counting the chunks of all the archetypes in order
+     * @return the chunk with that index
+     */
+    private Chunk getChunk(int index) {
+        int i = 0;
+        ArrayList<Chunk> archetypeChunks = archetypes.get(i).getChunks();
+        while ( index >= archetypeChunks.size() ) {
+            index -= archetypeChunks.size();
+            i++;
+            archetypeChunks = archetypes.get(i).getChunks();
+        }
+        return archetypeChunks.get(index);
+    }
+
+    /**
+     * @return the number of entities what match the query
+     */
+    public int count() {
+        int count = 0;
+        for ( int i = 0; i < archetypes.size(); i++ ) {
+            ArrayList<Chunk> archetypeChunks = archetypes.get(i).getChunks();
+            for ( int k = 0; k < archetypeChunks.size(); k++ ) {
+                count += archetypeChunks.get(k).getSize();
+            }
+        }
+        return count;
+    }
+
+    public long getIncludeMask() {
+        return includeMask;
+    }
+
+    public long getExcludeMask() {
+        return excludeMask;
+    }
+
+}
@@ -0,0 +1,24 @@
+package engine.ecs;
+
+/**
+ * The stages of the frame where the systems of a <class>World</class> run
+ *
+ * @class Stage
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public enum Stage {
+
+    /**
+     * Each update of the game, with the elapsed time. The systems without
+     * conflicts between their components run at the same time
+     */
+    UPDATE,
+
+    /**
+     * Each render of the game, with the renderer. The systems run one
+     * after another, in the order what they were added
+     */
+    RENDER
+
+}
@@ -0,0 +1,112 @@
+package engine.ecs;
+
+import engine.Parallel;
+import engine.gfx.Renderer;
+
+import java.util.ArrayList;
+
+/**
+ * This class runs the systems of a <class>World</class> in their stages.
+ *
+ * The update systems are put in groups: each system goes to the group
+ * after the last group with a system what conflicts with it, so a system
+ * always runs after the systems added before it what use its components.
+ * The systems of a group run at the same time, and the groups run one
+ * after another. The groups are made again when a system is added or
+ * removed.
+ *
+ * The render systems run one after another, because the renderer
+ * can't be used by several threads.
+ *
+ * @class SystemScheduler
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+class SystemScheduler {
+
+    private final ArrayList<EntitySystem> updateSystems = new ArrayList<>();
+
+    private final ArrayList<EntitySystem> renderSystems = new ArrayList<>();
+
+    /**
+     * The groups of update systems what can run at the same time
+     */
+    private final ArrayList<ArrayList<EntitySystem>> groups = new ArrayList<>();
+
+    /**
+     * Flag for make the groups again before the next update
+     */
+    private boolean isGrouped = false;
+
+    void add(Stage stage, EntitySystem system) {
+        if ( stage == Stage.UPDATE ) {
+            updateSystems.add(system);
+            isGrouped = false;
+        } else {
+            renderSystems.add(system);
+        }
+    }
+
+    void remove(EntitySystem system) {
+        if ( updateSystems.remove(system) ) {
+            isGrouped = false;
+        }
+        renderSystems.remove(system);
+    }
+
+    private void group() {
+        groups.clear();
+        for ( EntitySystem system : updateSystems ) {
+            int group = 0;
+            for ( int i = groups.size() - 1; i >= 0 && group == 0; i-- ) {
+                for ( EntitySystem other : groups.get(i) ) {
+                    if ( system.isConflicting(other) ) {
+                        group = i + 1;
+                        break;
+                    }
+                }
+            }
+            if ( group == groups.size() ) {
+                groups.add(new ArrayList<>());
+            }
+            groups.get(group).add(system);
+        }
+        isGrouped = true;
+    }
+
+    /**
+     * Runs the update systems. The structural changes requested by
+     * the systems are done after each group
+     *
+     * @param world the world of the entities
+     * @param dt the elapsed time since the last update
+     */
+    void update(World world, float dt) {
+        if ( !isGrouped ) {
+            group();
+        }
+        for ( ArrayList<EntitySystem> group : groups ) {
+            if ( group.size() == 1 ) {
+                group.get(0).update(world, dt);
+            } else {
+                Parallel.forEach(group.size(), i -> group.get(i).update(world, dt));
+            }
+            world.applyCommands();
+        }
+    }
+
+    void render(World world, Renderer r) {
+        for ( EntitySystem system : renderSystems ) {
+            system.render(world, r);
+        }
+        world.applyCommands();
+    }
+
+    int getNumGroups() {
+        if ( !isGrouped ) {
+            group();
+        }
+        return groups.size();
+    }
+
+}
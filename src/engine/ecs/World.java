@@ -0,0 +1,408 @@
+package engine.ecs;
+
+import engine.gfx.Renderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class contains the entities of a game, their components and
+ * the systems what work with them.
+ *
+ * An entity is only a number. Its components are stored in the
+ * <class>Archetype</class> of its set of components, in chunks of
+ * primitive arrays, without one object for each entity or component.
+ * The systems go through the entities with a <class>Query</class>,
+ * chunk by chunk.
+ *
+ * The number of an entity has its index in the low 24 bits, and a
+ * generation in the high 8 bits what changes each time the index is
+ * reused, so the number of a destroyed entity is not valid for the
+ * next entity with its index.
+ *
+ * The structural changes (create and destroy entities, add and remove
+ * components) move entities between the chunks, so they can't be done
+ * while the systems go through them in other threads. The systems use
+ * <method>destroyLater</method>, and the entities are destroyed after
+ * each group of systems.
+ *
+ * The world can be given to the <class>GameContainer</class>, what
+ * runs its systems after each update and before each render of the game.
+ * If the updates run in other thread, the container locks the world
+ * while the game and the systems update it and while the systems draw it.
+ *
+ * @class World
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class World {
+
+    /**
+     * The default number of entities of each chunk
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private static final int INDEX_BITS = 24;
+
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /**
+     * The number of entities of each chunk
+     */
+    private final int chunkSize;
+
+    /**
+     * The archetypes by the mask of their components
+     */
+    private final HashMap<Long, Archetype> archetypes = new HashMap<>();
+
+    private final ArrayList<Query> queries = new ArrayList<>();
+
+    private final SystemScheduler scheduler = new SystemScheduler();
+
+    /**
+     * The chunk of each entity, by its index. It is null for the free indices
+     */
+    private Chunk[] entityChunks = new Chunk[256];
+
+    /**
+     * The row of each entity in its chunk, by its index
+     */
+    private int[] entityRows = new int[256];
+
+    /**
+     * The generation of each index
+     */
+    private int[] generations = new int[256];
+
+    /**
+     * The indices of the destroyed entities, for reuse them
+     */
+    private int[] freeIndices = new int[256];
+
+    private int numFreeIndices = 0;
+
+    /**
+     * The number of indices used, free or not
+     */
+    private int numIndices = 0;
+
+    /**
+     * The number of alive entities
+     */
+    private int numEntities = 0;
+
+    /**
+     * The entities to destroy after the running systems
+     */
+    private int[] pendingDestroys = new int[64];
+
+    private int numPendingDestroys = 0;
+
+    /**
+     * The lock of the pending destroys. It is not the world, what
+     * can be locked by the thread what runs the systems
+     */
+    private final Object pendingLock = new Object();
+
+    public World() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param chunkSize the number of entities of each chunk
+     */
+    public World(int chunkSize) {
+        if ( chunkSize <= 0 ) {
+            throw new IllegalArgumentException("The size of the chunks must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param mask the bits of the components
+     * @param types the types of the components, for create the archetype if it doesn't exist
+     * @return the archetype of the components
+     */
+    private Archetype getArchetype(long mask, ComponentType[] types) {
+        Archetype archetype = archetypes.get(mask);
+        if ( archetype == null ) {
+            archetype = new Archetype(types, chunkSize);
+            archetypes.put(mask, archetype);
+            for ( Query query : queries ) {
+                query.addArchetype(archetype);
+            }
+        }
+        return archetype;
+    }
+
+    /**
+     * Creates an entity with some components. All the fields are 0
+     *
+     * @param types the types of the components
+     * @return the entity
+     */
+    public int createEntity(ComponentType... types) {
+        long mask = ComponentType.maskOf(types);
+        if ( Long.bitCount(mask) != types.length ) {
+            throw new IllegalArgumentException("The components of an entity can't be repeated");
+        }
+        int index;
+        if ( numFreeIndices > 0 ) {
+            index = freeIndices[--numFreeIndices];
+        } else {
+            if ( numIndices > INDEX_MASK ) {
+                throw new IllegalStateException("There can't be more than " + (INDEX_MASK + 1) + " entities");
+            }
+            index = numIndices++;
+            if ( index == entityChunks.length ) {
+                int length = entityChunks.length * 2;
+                entityChunks = Arrays.copyOf(entityChunks, length);
+                entityRows = Arrays.copyOf(entityRows, length);
+                generations = Arrays.copyOf(generations, length);
+            }
+        }
+        int entity = generations[index] << INDEX_BITS | index;
+        Chunk chunk = getArchetype(mask, types.clone()).add(entity);
+        entityChunks[index] = chunk;
+        entityRows[index] = chunk.getSize() - 1;
+        numEntities++;
+        return entity;
+    }
+
+    /**
+     * Destroys an entity. It can't be done while the systems run in
+     * other threads, see <method>destroyLater</method>
+     *
+     * @param entity the entity
+     */
+    public void destroyEntity(int entity) {
+        int index = getIndex(entity);
+        removeFromChunk(index);
+        entityChunks[index] = null;
+        generations[index] = (generations[index] + 1) & 0xff;
+        if ( numFreeIndices == freeIndices.length ) {
+            freeIndices = Arrays.copyOf(freeIndices, freeIndices.length * 2);
+        }
+        freeIndices[numFreeIndices++] = index;
+        numEntities--;
+    }
+
+    /**
+     * Destroys an entity when the running systems end. It can be
+     * called from any thread
+     *
+     * @param entity the entity
+     */
+    public void destroyLater(int entity) {
+        synchronized ( pendingLock ) {
+            if ( numPendingDestroys == pendingDestroys.length ) {
+                pendingDestroys = Arrays.copyOf(pendingDestroys, pendingDestroys.length * 2);
+            }
+            pendingDestroys[numPendingDestroys++] = entity;
+        }
+    }
+
+    /**
+     * Does the structural changes requested while the systems were running.
+     * The entities destroyed twice are destroyed once
+     */
+    public void applyCommands() {
+        synchronized ( pendingLock ) {
+            for ( int i = 0; i < numPendingDestroys; i++ ) {
+                if ( isAlive(pendingDestroys[i]) ) {
+                    destroyEntity(pendingDestroys[i]);
+                }
+            }
+            numPendingDestroys = 0;
+        }
+    }
+
+    /**
+     * Removes an entity from its chunk. The entity moved to its
+     * row gets the new row
+     *
+     * @param index the index of the entity
+     */
+    private void removeFromChunk(int index) {
+        Chunk chunk = entityChunks[index];
+        int row = entityRows[index];
+        if ( chunk.getArchetype().remove(chunk, row) ) {
+            int moved = chunk.getEntity(row) & INDEX_MASK;
+            entityChunks[moved] = chunk;
+            entityRows[moved] = row;
+        }
+    }
+
+    /**
+     * Adds a component to an entity. Its fields are 0, and the
+     * entity moves to the archetype of its new set of components
+     *
+     * @param entity the entity
+     * @param type the type of the component
+     */
+    public void addComponent(int entity, ComponentType type) {
+        int index = getIndex(entity);
+        Archetype archetype = entityChunks[index].getArchetype();
+        if ( (archetype.getMask() & type.getMask()) != 0 ) {
+            return;
+        }
+        ComponentType[] types = Arrays.copyOf(archetype.getTypes(), archetype.getTypes().length + 1);
+        types[types.length - 1] = type;
+        move(index, getArchetype(archetype.getMask() | type.getMask(), types));
+    }
+
+    /**
+     * Removes a component from an entity. The entity moves to
+     * the archetype of its new set of components
+     *
+     * @param entity the entity
+     * @param type the type of the component
+     */
+    public void removeComponent(int entity, ComponentType type) {
+        int index = getIndex(entity);
+        Archetype archetype = entityChunks[index].getArchetype();
+        if ( (archetype.getMask() & type.getMask()) == 0 ) {
+            return;
+        }
+        ComponentType[] types = new ComponentType[archetype.getTypes().length - 1];
+        int i = 0;
+        for ( ComponentType other : archetype.getTypes() ) {
+            if ( other != type ) {
+                types[i++] = other;
+            }
+        }
+        move(index, getArchetype(archetype.getMask() & ~type.getMask(), types));
+    }
+
+    /**
+     * Moves an entity to other archetype, copying the components
+     * what are in both of them
+     */
+    private void move(int index, Archetype archetype) {
+        Chunk chunk = entityChunks[index];
+        int row = entityRows[index];
+        Chunk newChunk = archetype.add(chunk.getEntity(row));
+        newChunk.copyComponents(newChunk.getSize() - 1, chunk, row);
+        removeFromChunk(index);
+        entityChunks[index] = newChunk;
+        entityRows[index] = newChunk.getSize() - 1;
+    }
+
+    /**
+     * @param entity an entity
+     * @return the index of the entity
+     */
+    private int getIndex(int entity) {
+        if ( !isAlive(entity) ) {
+            throw new IllegalArgumentException("The entity " + entity + " doesn't exist");
+        }
+        return entity & INDEX_MASK;
+    }
+
+    /**
+     * @param entity an entity
+     * @return if the entity exists and was not destroyed
+     */
+    public boolean isAlive(int entity) {
+        int index = entity & INDEX_MASK;
+        return index < numIndices && entityChunks[index] != null && generations[index] == entity >>> INDEX_BITS;
+    }
+
+    public boolean hasComponent(int entity, ComponentType type) {
+        return entityChunks[getIndex(entity)].hasComponent(type);
+    }
+
+    public float getFloat(int entity, ComponentType type, int field) {
+        int index = getIndex(entity);
+        return entityChunks[index].getFloats(type, field)[entityRows[index]];
+    }
+
+    public void setFloat(int entity, ComponentType type, int field, float value) {
+        int index = getIndex(entity);
+        entityChunks[index].getFloats(type, field)[entityRows[index]] = value;
+    }
+
+    public int getInt(int entity, ComponentType type, int field) {
+        int index = getIndex(entity);
+        return entityChunks[index].getInts(type, field)[entityRows[index]];
+    }
+
+    public void setInt(int entity, ComponentType type, int field, int value) {
+        int index = getIndex(entity);
+        entityChunks[index].getInts(type, field)[entityRows[index]] = value;
+    }
+
+    /**
+     * Creates a query of the entities what have some components
+     *
+     * @param with the types of the components
+     * @return the query
+     */
+    public Query query(ComponentType... with) {
+        return query(with, new ComponentType[0]);
+    }
+
+    /**
+     * Creates a query of the entities what have some components
+     * and don't have others
+     *
+     * @param with the types of the components what the entities must have
+     * @param without the types of the components what the entities must not have
+     * @return the query
+     */
+    public Query query(ComponentType[] with, ComponentType[] without) {
+        Query query = new Query(ComponentType.maskOf(with), ComponentType.maskOf(without));
+        for ( Archetype archetype : archetypes.values() ) {
+            query.addArchetype(archetype);
+        }
+        queries.add(query);
+        return query;
+    }
+
+    public void addSystem(Stage stage, EntitySystem system) {
+        scheduler.add(stage, system);
+    }
+
+    public void removeSystem(EntitySystem system) {
+        scheduler.remove(system);
+    }
+
+    /**
+     * Runs the systems of the update stage
+     * @param dt the elapsed time since the last update
+     */
+    public void update(float dt) {
+        scheduler.update(this, dt);
+    }
+
+    /**
+     * Runs the systems of the render stage
+     * @param r the renderer
+     */
+    public void render(Renderer r) {
+        scheduler.render(this, r);
+    }
+
+    /**
+     * @return the number of groups of update systems what run one after another
+     */
+    public int getNumUpdateGroups() {
+        return scheduler.getNumGroups();
+    }
+
+    public int getNumEntities() {
+        return numEntities;
+    }
+
+    public int getNumArchetypes() {
+        return archetypes.size();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+}
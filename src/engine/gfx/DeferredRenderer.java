@@ -0,0 +1,323 @@
+package engine.gfx;
+
+import engine.GameContainer;
+import engine.Parallel;
+import engine.gfx.font.Font;
+import engine.gfx.font.Glyph;
+import engine.gfx.images.Image;
+import engine.gfx.images.ImageTile;
+
+/**
+ * This renderer doesn't draw at the moment. The drawing calls done
+ * between <method>clear</method> and <method>process</method> are
+ * recorded in a <class>DrawCommandList</class>. When the frame is
+ * processed, the screen is divided in horizontal bands, and the
+ * recorded commands are replayed for each band at the same time,
+ * in all the cores of the CPU. Each band only draws its own rows.
+ *
+ * The result is the same as drawing with the <class>Renderer</class>,
+ * because each pixel receives the same drawing operations in the
+ * same order, including the changes of the depth.
+ *
+ * The drawing calls done outside of the frame (after process, as the
+ * information shown by the GameContainer) are drawn at the moment.
+ *
+ * @class DeferredRenderer
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class DeferredRenderer extends Renderer {
+
+    /**
+     * The minimum height of a band, for not split the work
+     * in pieces too small
+     */
+    private static final int MIN_BAND_HEIGHT = 16;
+
+    /**
+     * The recorded commands of the frame
+     */
+    protected DrawCommandList commands = new DrawCommandList();
+
+    /**
+     * The renderers of each band of the screen
+     */
+    protected Renderer[] bands;
+
+    /**
+     * Recording flag, if the drawing calls are being recorded
+     */
+    protected boolean recording = false;
+
+    /**
+     * The highest depth of the Z-buffer when the frame started
+     */
+    protected int clearedZHigh = 0;
+
+    /**
+     * Constructor
+     * @param gc the GameContainer object
+     */
+    public DeferredRenderer(GameContainer gc) {
+        super(gc);
+        createBands();
+    }
+
+    /**
+     * Constructor
+     * @param pW the width
+     * @param pH the height
+     * @param p the one-dimensional array of pixels, its length must be pW * pH
+     */
+    public DeferredRenderer(int pW, int pH, int[] p) {
+        super(pW, pH, p);
+        createBands();
+    }
+
+    /**
+     * Splits the screen in one band for each core of the CPU
+     */
+    private void createBands() {
+        int numBands = Math.max(1, Math.min(Parallel.getParallelism(), pH / MIN_BAND_HEIGHT));
+        bands = new Renderer[numBands];
+        for ( int i = 0; i < numBands; i++ ) {
+            bands[i] = new Renderer(this, i * pH / numBands, (i + 1) * pH / numBands);
+        }
+    }
+
+    /**
+     * Changes the array of pixels of the renderer and of its bands
+     *
+     * @param p the one-dimensional array of pixels, its length must be pW * pH
+     */
+    @Override
+    public void setTarget(int[] p) {
+        super.setTarget(p);
+        for ( Renderer band : bands ) {
+            band.setTarget(p);
+        }
+    }
+
+    /**
+     * Clears the screen and starts recording the drawing calls of the frame
+     *
+     * @param color the color for clear all the screen
+     */
+    @Override
+    public void clear(int color) {
+        super.clear(color);
+        clearedZHigh = zHigh;
+        commands.clear();
+        commands.setZDepth(zDepth);
+        recording = true;
+    }
+
+    /**
+     * Stops recording and draws the recorded commands, each band
+     * of the screen in parallel. Each band draws its images with alpha.
+     * Then the lights are drawn, and each band applies the light map
+     * to its rows
+     */
+    @Override
+    public void process() {
+        if ( !recording ) {
+            super.process();
+            return;
+        }
+        recording = false;
+        for ( Renderer band : bands ) {
+            band.ambientColor = ambientColor;
+            band.clearedAmbientColor = clearedAmbientColor;
+            band.epoch = epoch;
+            band.isBlendingFast = isBlendingFast;
+            band.isSamplingBilinear = isSamplingBilinear;
+            band.zHigh = clearedZHigh;
+            band.numDrawCalls = 0;
+            band.numTranslucentRequests = 0;
+            if ( damage == null ) {
+                band.damage = null;
+            } else if ( band.damage == null ) {
+                band.damage = new DirtyRegion(pW, pH);
+            } else {
+                band.damage.clear();
+            }
+        }
+        Parallel.forEach(bands.length, i -> {
+            commands.replay(bands[i]);
+            bands[i].processing = true;
+            bands[i].processImageRequests();
+            bands[i].processing = false;
+        });
+        // Each band replays all the commands, so the first one counts them
+        numDrawCalls += bands[0].numDrawCalls;
+        numTranslucentRequests += bands[0].numTranslucentRequests;
+        processLightRequests();
+        if ( (clearedAmbientColor & 0xffffff) != 0xffffff ) {
+            Parallel.forEach(bands.length, i -> bands[i].applyLightMap(bands[i].clipTop, bands[i].clipBottom));
+        }
+        if ( damage != null ) {
+            for ( Renderer band : bands ) {
+                damage.add(band.damage);
+            }
+        }
+        commands.clear();
+    }
+
+    @Override
+    public void setZDepth(int zDepth) {
+        super.setZDepth(zDepth);
+        if ( recording ) {
+            commands.setZDepth(zDepth);
+        }
+    }
+
+    @Override
+    public void setPixel(int x, int y, int value) {
+        if ( recording ) {
+            commands.setPixel(x, y, value);
+        } else {
+            super.setPixel(x, y, value);
+        }
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2, int color) {
+        if ( recording ) {
+            commands.drawLine(x1, y1, x2, y2, color);
+        } else {
+            super.drawLine(x1, y1, x2, y2, color);
+        }
+    }
+
+    @Override
+    public void drawRectangle(int offX, int offY, int width, int height, int color) {
+        if ( recording ) {
+            commands.drawRectangle(offX, offY, width, height, color);
+        } else {
+            super.drawRectangle(offX, offY, width, height, color);
+        }
+    }
+
+    @Override
+    public void drawFillRectangle(int offX, int offY, int width, int height, int color) {
+        if ( recording ) {
+            commands.drawFillRectangle(offX, offY, width, height, color);
+        } else {
+            super.drawFillRectangle(offX, offY, width, height, color);
+        }
+    }
+
+    @Override
+    public void drawFillRect(int x, int y, int w, int h, int color) {
+        if ( recording ) {
+            commands.drawFillRect(x, y, w, h, color);
+        } else {
+            super.drawFillRect(x, y, w, h, color);
+        }
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int radius, int color) {
+        if ( recording ) {
+            commands.drawCircle(x, y, radius, color);
+        } else {
+            super.drawCircle(x, y, radius, color);
+        }
+    }
+
+    @Override
+    public void drawFillCircle(int x, int y, int radius, int color) {
+        if ( recording ) {
+            commands.drawFillCircle(x, y, radius, color);
+        } else {
+            super.drawFillCircle(x, y, radius, color);
+        }
+    }
+
+    @Override
+    public void drawFillTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int color) {
+        if ( recording ) {
+            commands.drawFillTriangle(x1, y1, x2, y2, x3, y3, color);
+        } else {
+            super.drawFillTriangle(x1, y1, x2, y2, x3, y3, color);
+        }
+    }
+
+    /**
+     * The arrays are read when the frame is processed, so
+     * they must not change until then
+     */
+    @Override
+    public void drawPoints(float[] x, float[] y, int[] colors, int count, int size, boolean additive) {
+        if ( recording ) {
+            commands.drawPoints(x, y, colors, count, size, additive);
+        } else {
+            super.drawPoints(x, y, colors, count, size, additive);
+        }
+    }
+
+    @Override
+    public void drawImage(Image image, int offX, int offY) {
+        if ( recording ) {
+            commands.drawImage(image, offX, offY);
+        } else {
+            super.drawImage(image, offX, offY);
+        }
+    }
+
+    @Override
+    public void drawImage(Image image, int offX, int offY, int colorToChange, int newColor) {
+        if ( recording ) {
+            commands.drawImage(image, offX, offY, colorToChange, newColor);
+        } else {
+            super.drawImage(image, offX, offY, colorToChange, newColor);
+        }
+    }
+
+    @Override
+    public void drawImage(Image image, int x, int y, float scaleX, float scaleY, float angle,
+                          int pivotX, int pivotY, boolean flipX, boolean flipY) {
+        if ( recording ) {
+            commands.drawImage(image, x, y, scaleX, scaleY, angle, pivotX, pivotY, flipX, flipY);
+        } else {
+            super.drawImage(image, x, y, scaleX, scaleY, angle, pivotX, pivotY, flipX, flipY);
+        }
+    }
+
+    @Override
+    public void drawImageTile(ImageTile image, int offX, int offY, int tileX, int tileY) {
+        if ( recording ) {
+            commands.drawImageTile(image, offX, offY, tileX, tileY);
+        } else {
+            super.drawImageTile(image, offX, offY, tileX, tileY);
+        }
+    }
+
+    @Override
+    public void drawCharacter(Image characterImage, int offX, int offY, int color) {
+        if ( recording ) {
+            commands.drawCharacter(characterImage, offX, offY, color);
+        } else {
+            super.drawCharacter(characterImage, offX, offY, color);
+        }
+    }
+
+    @Override
+    public void drawGlyph(Glyph glyph, int offX, int offY, int color) {
+        if ( recording ) {
+            commands.drawGlyph(glyph, offX, offY, color);
+        } else {
+            super.drawGlyph(glyph, offX, offY, color);
+        }
+    }
+
+    @Override
+    public void drawText(String text, int offX, int offY, int color, Font font) {
+        if ( recording ) {
+            commands.drawText(text, offX, offY, color, font);
+        } else {
+            super.drawText(text, offX, offY, color, font);
+        }
+    }
+
+}
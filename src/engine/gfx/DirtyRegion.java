@@ -0,0 +1,260 @@
+package engine.gfx;
+
+/**
+ * This class keeps the regions of the screen which have
+ * changed (the damaged regions) during a frame, as a small
+ * list of rectangles. When a new rectangle touches other,
+ * they are merged. When the list is full, the new rectangle
+ * is merged with the one which grows the least.
+ *
+ * The window only needs to present these regions, instead of
+ * all the screen.
+ *
+ * The rectangles are stored as [x1, x2) and [y1, y2), the
+ * second coordinates are not included.
+ *
+ * @class DirtyRegion
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class DirtyRegion {
+
+    /**
+     * The maximum number of rectangles
+     */
+    public static final int MAX_RECTANGLES = 8;
+
+    /**
+     * The rectangles closer than this gap are merged. Presenting a bit
+     * more of area is cheaper than presenting many small rectangles
+     */
+    private static final int GAP = 8;
+
+    /**
+     * The width of the screen
+     */
+    private final int w;
+
+    /**
+     * The height of the screen
+     */
+    private final int h;
+
+    private final int[] x1 = new int[MAX_RECTANGLES];
+
+    private final int[] y1 = new int[MAX_RECTANGLES];
+
+    private final int[] x2 = new int[MAX_RECTANGLES];
+
+    private final int[] y2 = new int[MAX_RECTANGLES];
+
+    /**
+     * The number of rectangles
+     */
+    private int size = 0;
+
+    /**
+     * The last rectangle what has grown. Many drawing calls are
+     * near the previous one, so it is checked first
+     */
+    private int last = 0;
+
+    /**
+     * Constructor
+     * @param w the width of the screen
+     * @param h the height of the screen
+     */
+    public DirtyRegion(int w, int h) {
+        this.w = w;
+        this.h = h;
+    }
+
+    /**
+     * Removes all the rectangles
+     */
+    public void clear() {
+        size = 0;
+        last = 0;
+    }
+
+    /**
+     * Marks all the screen as damaged
+     */
+    public void setFull() {
+        x1[0] = 0;
+        y1[0] = 0;
+        x2[0] = w;
+        y2[0] = h;
+        size = 1;
+        last = 0;
+    }
+
+    /**
+     * @return if all the screen is damaged
+     */
+    public boolean isFull() {
+        return size == 1 && x1[0] == 0 && y1[0] == 0 && x2[0] == w && y2[0] == h;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Marks one pixel as damaged
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public void add(int x, int y) {
+        if ( size > 0 && x >= x1[last] && x < x2[last] && y >= y1[last] && y < y2[last] ) {
+            return;
+        }
+        add(x, y, x + 1, y + 1);
+    }
+
+    /**
+     * Marks a rectangle as damaged. It is clipped to the screen
+     *
+     * @param left the first x coordinate
+     * @param top the first y coordinate
+     * @param right the x coordinate after the last one
+     * @param bottom the y coordinate after the last one
+     */
+    public void add(int left, int top, int right, int bottom) {
+        if ( left < 0 ) {
+            left = 0;
+        }
+        if ( top < 0 ) {
+            top = 0;
+        }
+        if ( right > w ) {
+            right = w;
+        }
+        if ( bottom > h ) {
+            bottom = h;
+        }
+        if ( left >= right || top >= bottom ) {
+            return;
+        }
+
+        // The rectangle is inside other one
+        for ( int i = 0; i < size; i++ ) {
+            if ( left >= x1[i] && right <= x2[i] && top >= y1[i] && bottom <= y2[i] ) {
+                last = i;
+                return;
+            }
+        }
+
+        // The rectangle touches other one
+        for ( int i = 0; i < size; i++ ) {
+            if ( left <= x2[i] + GAP && right + GAP >= x1[i] && top <= y2[i] + GAP && bottom + GAP >= y1[i] ) {
+                grow(i, left, top, right, bottom);
+                return;
+            }
+        }
+
+        if ( size < MAX_RECTANGLES ) {
+            x1[size] = left;
+            y1[size] = top;
+            x2[size] = right;
+            y2[size] = bottom;
+            last = size;
+            size++;
+            return;
+        }
+
+        // The list is full, the rectangle which grows the least is chosen
+        int best = 0;
+        long bestGrowth = Long.MAX_VALUE;
+        for ( int i = 0; i < size; i++ ) {
+            long area = (long)(x2[i] - x1[i]) * (y2[i] - y1[i]);
+            long union = (long)(Math.max(right, x2[i]) - Math.min(left, x1[i])) *
+                    (Math.max(bottom, y2[i]) - Math.min(top, y1[i]));
+            if ( union - area < bestGrowth ) {
+                bestGrowth = union - area;
+                best = i;
+            }
+        }
+        grow(best, left, top, right, bottom);
+    }
+
+    /**
+     * Marks all the rectangles of other region as damaged
+     *
+     * @param region the other region
+     */
+    public void add(DirtyRegion region) {
+        if ( region == null ) {
+            return;
+        }
+        for ( int i = 0; i < region.size; i++ ) {
+            add(region.x1[i], region.y1[i], region.x2[i], region.y2[i]);
+        }
+    }
+
+    /**
+     * Copies the rectangles of other region
+     *
+     * @param region the other region
+     */
+    public void set(DirtyRegion region) {
+        clear();
+        add(region);
+    }
+
+    /**
+     * Grows the rectangle to contain the other rectangle, and merges
+     * the result with the rectangles what it touches now
+     */
+    private void grow(int i, int left, int top, int right, int bottom) {
+        x1[i] = Math.min(x1[i], left);
+        y1[i] = Math.min(y1[i], top);
+        x2[i] = Math.max(x2[i], right);
+        y2[i] = Math.max(y2[i], bottom);
+        last = i;
+
+        int j = 0;
+        while ( j < size ) {
+            if ( j != i && x1[j] <= x2[i] + GAP && x2[j] + GAP >= x1[i] && y1[j] <= y2[i] + GAP && y2[j] + GAP >= y1[i] ) {
+                x1[i] = Math.min(x1[i], x1[j]);
+                y1[i] = Math.min(y1[i], y1[j]);
+                x2[i] = Math.max(x2[i], x2[j]);
+                y2[i] = Math.max(y2[i], y2[j]);
+                size--;
+                x1[j] = x1[size];
+                y1[j] = y1[size];
+                x2[j] = x2[size];
+                y2[j] = y2[size];
+                if ( i == size ) {
+                    i = j;
+                }
+                last = i;
+                j = 0;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getX1(int i) {
+        return x1[i];
+    }
+
+    public int getY1(int i) {
+        return y1[i];
+    }
+
+    public int getX2(int i) {
+        return x2[i];
+    }
+
+    public int getY2(int i) {
+        return y2[i];
+    }
+
+}
@@ -0,0 +1,315 @@
+package engine.gfx;
+
+import engine.gfx.font.Font;
+import engine.gfx.font.Glyph;
+import engine.gfx.images.Image;
+import engine.gfx.images.ImageTile;
+
+import java.util.Arrays;
+
+/**
+ * This class is a compact list of recorded drawing calls.
+ * Each call is stored as an operation code followed by its
+ * integer arguments, all inside one int array. The objects
+ * (images, texts and fonts) are stored in other array, and
+ * the arguments keep their index.
+ *
+ * The list can be replayed over any <class>Renderer</class>,
+ * in the same order that the calls were recorded.
+ *
+ * @class DrawCommandList
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+class DrawCommandList {
+
+    private static final int Z_DEPTH = 0;
+
+    private static final int PIXEL = 1;
+
+    private static final int LINE = 2;
+
+    private static final int RECTANGLE = 3;
+
+    private static final int FILL_RECTANGLE = 4;
+
+    private static final int FILL_RECT = 5;
+
+    private static final int CIRCLE = 6;
+
+    private static final int FILL_CIRCLE = 7;
+
+    private static final int FILL_TRIANGLE = 8;
+
+    private static final int IMAGE = 9;
+
+    private static final int IMAGE_CHANGING_COLOR = 10;
+
+    private static final int IMAGE_TILE = 11;
+
+    private static final int CHARACTER = 12;
+
+    private static final int TEXT = 13;
+
+    private static final int IMAGE_TRANSFORMED = 14;
+
+    private static final int POINTS = 15;
+
+    private static final int GLYPH = 16;
+
+    private static final int FLIP_X = 1;
+
+    private static final int FLIP_Y = 2;
+
+    /**
+     * The operation codes and the integer arguments
+     */
+    private int[] commands = new int[4096];
+
+    /**
+     * The number of used positions of the commands array
+     */
+    private int size = 0;
+
+    /**
+     * The objects what are arguments of the commands
+     */
+    private Object[] objects = new Object[256];
+
+    /**
+     * The number of used positions of the objects array
+     */
+    private int numObjects = 0;
+
+    /**
+     * Removes all the commands. The arrays are kept, so the
+     * next frame doesn't need to allocate them again
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, numObjects, null);
+        numObjects = 0;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void ensureCapacity(int numInts) {
+        if ( size + numInts > commands.length ) {
+            commands = Arrays.copyOf(commands, Math.max(commands.length * 2, size + numInts));
+        }
+    }
+
+    private int addObject(Object object) {
+        if ( numObjects == objects.length ) {
+            objects = Arrays.copyOf(objects, objects.length * 2);
+        }
+        objects[numObjects] = object;
+        return numObjects++;
+    }
+
+    private void add(int command, int a) {
+        ensureCapacity(2);
+        commands[size++] = command;
+        commands[size++] = a;
+    }
+
+    private void add(int command, int a, int b, int c) {
+        ensureCapacity(4);
+        commands[size++] = command;
+        commands[size++] = a;
+        commands[size++] = b;
+        commands[size++] = c;
+    }
+
+    private void add(int command, int a, int b, int c, int d) {
+        ensureCapacity(5);
+        commands[size++] = command;
+        commands[size++] = a;
+        commands[size++] = b;
+        commands[size++] = c;
+        commands[size++] = d;
+    }
+
+    private void add(int command, int a, int b, int c, int d, int e) {
+        ensureCapacity(6);
+        commands[size++] = command;
+        commands[size++] = a;
+        commands[size++] = b;
+        commands[size++] = c;
+        commands[size++] = d;
+        commands[size++] = e;
+    }
+
+    public void setZDepth(int zDepth) {
+        add(Z_DEPTH, zDepth);
+    }
+
+    public void setPixel(int x, int y, int color) {
+        add(PIXEL, x, y, color);
+    }
+
+    public void drawLine(int x1, int y1, int x2, int y2, int color) {
+        add(LINE, x1, y1, x2, y2, color);
+    }
+
+    public void drawRectangle(int offX, int offY, int width, int height, int color) {
+        add(RECTANGLE, offX, offY, width, height, color);
+    }
+
+    public void drawFillRectangle(int offX, int offY, int width, int height, int color) {
+        add(FILL_RECTANGLE, offX, offY, width, height, color);
+    }
+
+    public void drawFillRect(int x, int y, int w, int h, int color) {
+        add(FILL_RECT, x, y, w, h, color);
+    }
+
+    public void drawCircle(int x, int y, int radius, int color) {
+        add(CIRCLE, x, y, radius, color);
+    }
+
+    public void drawFillCircle(int x, int y, int radius, int color) {
+        add(FILL_CIRCLE, x, y, radius, color);
+    }
+
+    public void drawFillTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int color) {
+        add(FILL_TRIANGLE, x1, y1, x2, y2, x3);
+        ensureCapacity(2);
+        commands[size++] = y3;
+        commands[size++] = color;
+    }
+
+    public void drawImage(Image image, int offX, int offY) {
+        add(IMAGE, addObject(image), offX, offY);
+    }
+
+    public void drawImage(Image image, int offX, int offY, int colorToChange, int newColor) {
+        add(IMAGE_CHANGING_COLOR, addObject(image), offX, offY, colorToChange, newColor);
+    }
+
+    public void drawImage(Image image, int x, int y, float scaleX, float scaleY, float angle,
+                          int pivotX, int pivotY, boolean flipX, boolean flipY) {
+        add(IMAGE_TRANSFORMED, addObject(image), x, y, Float.floatToRawIntBits(scaleX), Float.floatToRawIntBits(scaleY));
+        ensureCapacity(4);
+        commands[size++] = Float.floatToRawIntBits(angle);
+        commands[size++] = pivotX;
+        commands[size++] = pivotY;
+        commands[size++] = (flipX ? FLIP_X : 0) | (flipY ? FLIP_Y : 0);
+    }
+
+    /**
+     * The arrays are not copied, so they must not change until the list is replayed
+     */
+    public void drawPoints(float[] x, float[] y, int[] colors, int count, int pointSize, boolean additive) {
+        add(POINTS, addObject(x), addObject(y), addObject(colors), count, pointSize);
+        ensureCapacity(1);
+        commands[size++] = additive ? 1 : 0;
+    }
+
+    public void drawImageTile(ImageTile image, int offX, int offY, int tileX, int tileY) {
+        add(IMAGE_TILE, addObject(image), offX, offY, tileX, tileY);
+    }
+
+    public void drawCharacter(Image characterImage, int offX, int offY, int color) {
+        add(CHARACTER, addObject(characterImage), offX, offY, color);
+    }
+
+    public void drawGlyph(Glyph glyph, int offX, int offY, int color) {
+        add(GLYPH, addObject(glyph), offX, offY, color);
+    }
+
+    public void drawText(String text, int offX, int offY, int color, Font font) {
+        add(TEXT, addObject(text), offX, offY, color, addObject(font));
+    }
+
+    /**
+     * Calls the drawing methods of the renderer with all the
+     * recorded commands, in the same order
+     *
+     * @param r the renderer where the commands are drawn
+     */
+    public void replay(Renderer r) {
+        int[] c = commands;
+        Object[] o = objects;
+        int i = 0;
+        while ( i < size ) {
+            switch ( c[i] ) {
+                case Z_DEPTH:
+                    r.setZDepth(c[i + 1]);
+                    i += 2;
+                    break;
+                case PIXEL:
+                    r.setPixel(c[i + 1], c[i + 2], c[i + 3]);
+                    i += 4;
+                    break;
+                case LINE:
+                    r.drawLine(c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                    i += 6;
+                    break;
+                case RECTANGLE:
+                    r.drawRectangle(c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                    i += 6;
+                    break;
+                case FILL_RECTANGLE:
+                    r.drawFillRectangle(c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                    i += 6;
+                    break;
+                case FILL_RECT:
+                    r.drawFillRect(c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                    i += 6;
+                    break;
+                case CIRCLE:
+                    r.drawCircle(c[i + 1], c[i + 2], c[i + 3], c[i + 4]);
+                    i += 5;
+                    break;
+                case FILL_CIRCLE:
+                    r.drawFillCircle(c[i + 1], c[i + 2], c[i + 3], c[i + 4]);
+                    i += 5;
+                    break;
+                case FILL_TRIANGLE:
+                    r.drawFillTriangle(c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5], c[i + 6], c[i + 7]);
+                    i += 8;
+                    break;
+                case IMAGE:
+                    r.drawImage((Image)o[c[i + 1]], c[i + 2], c[i + 3]);
+                    i += 4;
+                    break;
+                case IMAGE_CHANGING_COLOR:
+                    r.drawImage((Image)o[c[i + 1]], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                    i += 6;
+                    break;
+                case IMAGE_TRANSFORMED:
+                    r.drawImage((Image)o[c[i + 1]], c[i + 2], c[i + 3],
+                            Float.intBitsToFloat(c[i + 4]), Float.intBitsToFloat(c[i + 5]), Float.intBitsToFloat(c[i + 6]),
+                            c[i + 7], c[i + 8], (c[i + 9] & FLIP_X) != 0, (c[i + 9] & FLIP_Y) != 0);
+                    i += 10;
+                    break;
+                case POINTS:
+                    r.drawPoints((float[])o[c[i + 1]], (float[])o[c[i + 2]], (int[])o[c[i + 3]], c[i + 4], c[i + 5], c[i + 6] != 0);
+                    i += 7;
+                    break;
+                case IMAGE_TILE:
+                    r.drawImageTile((ImageTile)o[c[i + 1]], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                    i += 6;
+                    break;
+                case CHARACTER:
+                    r.drawCharacter((Image)o[c[i + 1]], c[i + 2], c[i + 3], c[i + 4]);
+                    i += 5;
+                    break;
+                case GLYPH:
+                    r.drawGlyph((Glyph)o[c[i + 1]], c[i + 2], c[i + 3], c[i + 4]);
+                    i += 5;
+                    break;
+                case TEXT:
+                    r.drawText((String)o[c[i + 1]], c[i + 2], c[i + 3], c[i + 4], (Font)o[c[i + 5]]);
+                    i += 6;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown draw command: " + c[i]);
+            }
+        }
+    }
+
+}
@@ -1,15 +1,19 @@
 package engine.gfx;
 
 import engine.GameContainer;
+import engine.Parallel;
 import engine.gfx.font.Font;
+import engine.gfx.font.Glyph;
 import engine.gfx.images.Image;
-import engine.gfx.images.ImageRequest;
+import engine.gfx.images.ImageRequestQueue;
 import engine.gfx.images.ImageTile;
+import engine.gfx.images.OpacityRuns;
+import engine.gfx.lights.Light;
 import engine.vectors.points2d.Vec2df;
 
 import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 
 /**
  * This is the render class. This class has the responsibility
@@ -48,9 +52,40 @@ public class Renderer implements Painter {
     protected Font font = Font.STANDARD;
 
     /**
-     * This is an ArrayList for the request of the images
+     * The queue of the images with alpha requested during the frame
      */
-    protected ArrayList<ImageRequest> imageRequests = new ArrayList<>();
+    protected ImageRequestQueue imageRequests = new ImageRequestQueue();
+
+    /**
+     * The lights requested during the frame
+     */
+    protected Light[] lightRequests = new Light[16];
+
+    /**
+     * The x coordinate of the center of each requested light
+     */
+    protected int[] lightRequestsX = new int[16];
+
+    /**
+     * The y coordinate of the center of each requested light
+     */
+    protected int[] lightRequestsY = new int[16];
+
+    /**
+     * The number of requested lights
+     */
+    protected int numLightRequests = 0;
+
+    /**
+     * For each requested light, the light map after blocking the light.
+     * The arrays are kept between frames
+     */
+    protected int[][] lightRequestsLm = new int[16][];
+
+    /**
+     * If any pixel blocks the light in this frame
+     */
+    protected boolean isBlockingLight = false;
 
     /**
      * The with
@@ -68,25 +103,70 @@ public class Renderer implements Painter {
     protected int[] p;
 
     /**
-     * The Z-buffer, needed for Alpha blending
+     * The Z-buffer, needed for Alpha blending.
+     * A value is only valid if its stamp in <field>zs</field> is the
+     * current epoch, if not, it counts as cleared (0)
      */
     protected int[] zb;
 
+    /**
+     * The epoch stamps of the Z-buffer
+     */
+    protected int[] zs;
+
     /**
      * The depth in z axis of screen
      */
     protected int zDepth = 0;
 
     /**
-     *
+     * The highest depth what can be in the Z-buffer since the last clear.
+     * When the depth is not lower, every pixel passes the depth test
+     */
+    protected int zHigh = 0;
+
+    /**
+     * The light map. The color of the light what receives each pixel.
+     * A value is only valid if its stamp in <field>ls</field> is the
+     * current epoch, if not, it counts as cleared (the ambient color)
      */
     protected int[] lm;
 
     /**
-     *
+     * The light block. How much each pixel blocks the light.
+     * A value is only valid if its stamp in <field>ls</field> is the
+     * current epoch, if not, it counts as cleared (0)
      */
     protected int[] lb;
 
+    /**
+     * The epoch stamps of the light map and the light block
+     */
+    protected int[] ls;
+
+    /**
+     * The epoch, or the number of the frame. Each clear increases it,
+     * so all the stamps of the buffers become old, and the buffers
+     * count as cleared without touching them
+     */
+    protected int epoch = 1;
+
+    /**
+     * The ambient color when the screen was cleared. It is the value of the
+     * light map for the pixels with old stamps
+     */
+    protected int clearedAmbientColor = 0xffffffff;
+
+    /**
+     * The first row of the screen where the renderer can draw
+     */
+    protected int clipTop;
+
+    /**
+     * The row after the last row of the screen where the renderer can draw
+     */
+    protected int clipBottom;
+
     /**
      * Processing flag for the image processing
      */
@@ -97,34 +177,142 @@ public class Renderer implements Painter {
      */
     protected int ambientColor = 0xffffffff;
 
+    /**
+     * Flag for blend the translucent pixels with the fixed-point
+     * method of the <class>Blender</class>, which is faster but
+     * can differ in one unit from the exact blending
+     */
+    protected boolean isBlendingFast = false;
+
+    /**
+     * Flag for sample the scaled and rotated images mixing the four
+     * nearest pixels (bilinear), instead of taking the nearest one
+     */
+    protected boolean isSamplingBilinear = false;
+
+    /**
+     * Flag for fill the screen with the color when it is cleared.
+     * Games which draw over all the screen each frame can disable
+     * it, so the clear doesn't touch any pixel
+     */
+    protected boolean isClearing = true;
+
+    /**
+     * The regions of the screen what have changed since the last
+     * clear. It is null if the damage is not tracked
+     */
+    protected DirtyRegion damage = null;
+
+    /**
+     * The number of drawing calls since the last clear. The images
+     * with alpha drawn while processing are not counted again
+     */
+    protected int numDrawCalls = 0;
+
+    /**
+     * The number of images with alpha requested since the last clear
+     */
+    protected int numTranslucentRequests = 0;
+
     /**
      * Constructor
+     * When the GameContainer has a window, the renderer draws over the
+     * pixels of the window image. If it is headless, the renderer draws
+     * over an in-memory pixel array
      * @param gc the GameContainer object
      */
     public Renderer(GameContainer gc) {
-        pW = gc.getWidth();
-        pH = gc.getHeight();
-        p = ((DataBufferInt)gc.getWindow().getImage().getRaster().getDataBuffer()).getData();
+        this(gc.getWidth(), gc.getHeight(), gc.getWindow() != null ?
+                ((DataBufferInt)gc.getWindow().getImage().getRaster().getDataBuffer()).getData() :
+                new int[gc.getWidth() * gc.getHeight()]);
+    }
+
+    /**
+     * Constructor
+     * The renderer draws over the pixel array passed as parameter.
+     * It doesn't need any window, so it can be used for offscreen rendering
+     * @param pW the width
+     * @param pH the height
+     * @param p the one-dimensional array of pixels, its length must be pW * pH
+     */
+    public Renderer(int pW, int pH, int[] p) {
+        this.pW = pW;
+        this.pH = pH;
+        this.p = p;
         zb = new int[p.length];
+        zs = new int[p.length];
         lm = new int[p.length];
         lb = new int[p.length];
+        ls = new int[p.length];
+        clipTop = 0;
+        clipBottom = pH;
+    }
+
+    /**
+     * Constructor
+     * The renderer shares all the buffers with the renderer passed as
+     * parameter, but it only draws between the rows clipTop and clipBottom.
+     * Some renderers of this kind can draw at the same time over the
+     * same screen if their bands don't overlap
+     * @param renderer the renderer which has the buffers
+     * @param clipTop the first row where the renderer can draw
+     * @param clipBottom the row after the last row where the renderer can draw
+     */
+    protected Renderer(Renderer renderer, int clipTop, int clipBottom) {
+        pW = renderer.pW;
+        pH = renderer.pH;
+        p = renderer.p;
+        zb = renderer.zb;
+        zs = renderer.zs;
+        lm = renderer.lm;
+        lb = renderer.lb;
+        ls = renderer.ls;
+        epoch = renderer.epoch;
+        clearedAmbientColor = renderer.clearedAmbientColor;
+        font = renderer.font;
+        ambientColor = renderer.ambientColor;
+        isBlendingFast = renderer.isBlendingFast;
+        isSamplingBilinear = renderer.isSamplingBilinear;
+        zHigh = renderer.zHigh;
+        this.clipTop = clipTop;
+        this.clipBottom = clipBottom;
     }
 
     /**
      * This method clears all the screen with
      * the color passed as parameter
      *
-     * Before it works well only with the method
-     * "Arrays.fill(p, color)"
+     * The Z-buffer, the light map and the light block are
+     * not touched, a new epoch starts and all their values
+     * count as cleared.
+     *
+     * If the clearing is disabled, the pixels are not touched
+     * either. It is only right if the game draws over all the
+     * screen each frame, and the ambient color is white (if not,
+     * the light map darkens the old pixels again each frame)
      *
      * @param color the color for clear all the screen
      */
     public void clear(int color) {
-        for ( int i = 0; i < p.length; i++ ) {
-            p[i] = color;
-            zb[i] = 0;
-            lm[i] = ambientColor;
-            lb[i] = 0;
+        if ( isClearing ) {
+            Arrays.fill(p, color);
+        }
+        if ( damage != null ) {
+            damage.clear();
+            if ( isClearing ) {
+                damage.setFull();
+            }
+        }
+        clearedAmbientColor = ambientColor;
+        isBlockingLight = false;
+        numDrawCalls = 0;
+        numTranslucentRequests = 0;
+        zHigh = Math.max(0, zDepth);
+        epoch++;
+        if ( epoch == Integer.MAX_VALUE ) {
+            Arrays.fill(zs, 0);
+            Arrays.fill(ls, 0);
+            epoch = 1;
         }
     }
 
@@ -141,23 +329,89 @@ public class Renderer implements Painter {
      */
     public void process() {
         processing = true;
+        processImageRequests();
+        processLightRequests();
+        applyLightMap();
+        processing = false;
+    }
 
-        imageRequests.sort(Comparator.comparingInt(ImageRequest::getzDepth));
-
-        for (ImageRequest ir : imageRequests) {
-            setZDepth(ir.getzDepth());
-            drawImage(ir.getImage(), ir.getOffX(), ir.getOffY());
+    /**
+     * Counts a drawing call of the game
+     */
+    protected void countDrawCall() {
+        if ( !processing ) {
+            numDrawCalls++;
         }
+    }
 
-        for ( int i = 0; i < p.length; i++ ) {
-            float r = ((lm[i] >> 16) & 0xff) / 255.0f;
-            float g = ((lm[i] >> 8) & 0xff) / 255.0f;
-            float b = (lm[i] & 0xff) / 255.0f;
-            p[i] = ( (int)(((p[i] >> 16) & 0xff) * r) << 16 | (int)(((p[i] >> 8) & 0xff) * g) << 8 | (int)((p[i] & 0xff) * b));
+    /**
+     * Draws the images with alpha requested during the frame,
+     * sorted by its depth. The depth is restored at the end
+     */
+    protected void processImageRequests() {
+        int depth = zDepth;
+        imageRequests.sort();
+
+        for ( int i = 0; i < imageRequests.size(); i++ ) {
+            setZDepth(imageRequests.getzDepth(i));
+            if ( imageRequests.getTileX(i) == ImageRequestQueue.NO_TILE ) {
+                drawImage(imageRequests.getImage(i), imageRequests.getOffX(i), imageRequests.getOffY(i));
+            } else {
+                drawImageTile((ImageTile)imageRequests.getImage(i), imageRequests.getOffX(i), imageRequests.getOffY(i),
+                        imageRequests.getTileX(i), imageRequests.getTileY(i));
+            }
         }
 
         imageRequests.clear();
-        processing = false;
+        setZDepth(depth);
+    }
+
+    /**
+     * Multiplies the pixels of the screen by the light map, each band
+     * of rows in parallel
+     */
+    protected void applyLightMap() {
+        if ( (clearedAmbientColor & 0xffffff) == 0xffffff ) {
+            return;
+        }
+        int top = clipTop;
+        int height = clipBottom - clipTop;
+        int numBands = Math.max(1, Math.min(Parallel.getParallelism(), height / 16));
+        Parallel.forEach(numBands, band ->
+                applyLightMap(top + band * height / numBands, top + (band + 1) * height / numBands));
+    }
+
+    /**
+     * Multiplies the pixels of the rows between top and bottom
+     * by the light map. Nothing is done if the ambient color is white,
+     * because the lights can't exceed the white, so all the light map is white.
+     *
+     * The channels are multiplied with integers. The division by 255 is
+     * done with shifts, and it gives the same result as the division
+     * of the integers
+     *
+     * @param top the first row
+     * @param bottom the row after the last row
+     */
+    protected void applyLightMap(int top, int bottom) {
+        int ambient = clearedAmbientColor & 0xffffff;
+        if ( ambient == 0xffffff ) {
+            return;
+        }
+        if ( damage != null ) {
+            damage.add(0, top, pW, bottom);
+        }
+        for ( int i = top * pW; i < bottom * pW; i++ ) {
+            int light = ls[i] == epoch ? lm[i] : ambient;
+            if ( light == 0xffffff ) {
+                continue;
+            }
+            int color = p[i];
+            int r = ((color >> 16) & 0xff) * ((light >> 16) & 0xff);
+            int g = ((color >> 8) & 0xff) * ((light >> 8) & 0xff);
+            int b = (color & 0xff) * (light & 0xff);
+            p[i] = ((r + 1 + (r >> 8)) >> 8) << 16 | ((g + 1 + (g >> 8)) >> 8) << 8 | ((b + 1 + (b >> 8)) >> 8);
+        }
     }
 
     /**
@@ -170,22 +424,109 @@ public class Renderer implements Painter {
      */
     public void setPixel(int x, int y, int value) {
         int alpha = ((value >> 24) & 0xff);
-        if ( (x < 0 || x >= pW || y < 0 || y >= pH) || alpha == 0 ) { // value == 0xffff00ff
+        if ( (x < 0 || x >= pW || y < clipTop || y >= clipBottom) || alpha == 0 ) { // value == 0xffff00ff
             return;
         }
         int index = x + y * pW;
-        if ( zb[index] > zDepth ) {
+        if ( (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
             return;
         }
         zb[index] = zDepth;
+        zs[index] = epoch;
+        if ( damage != null ) {
+            damage.add(x, y);
+        }
         if ( alpha == 255 ) {
             p[index] = value;
+        } else if ( isBlendingFast ) {
+            p[index] = Blender.blendFast(p[index], value);
         } else {
-            int pixelColor = p[index];
-            int newRed = ((pixelColor >> 16) & 0xff) - (int)((((pixelColor >> 16) & 0xff) - ((value >> 16) & 0xff)) * (alpha / 255.0f));
-            int newGreen = ((pixelColor >> 8) & 0xff) - (int)((((pixelColor >> 8) & 0xff) - ((value >> 8) & 0xff)) * (alpha / 255.0f));
-            int newBlue = (pixelColor & 0xff) - (int)(((pixelColor & 0xff) - (value & 0xff)) * (alpha / 255.0f));
-            p[index] = (newRed << 16 | newGreen << 8 | newBlue); //(255 << 24 | newRed << 16 | newGreen << 8 | newBlue)
+            p[index] = Blender.blend(p[index], value);
+        }
+    }
+
+    /**
+     * This method fills an horizontal span of pixels, from x1 to x2
+     * (both included) in the row y, with the color passed as parameter.
+     * It is the same as calling <method>setPixel</method> for each pixel,
+     * but the clipping and the alpha extraction are done once for the
+     * whole span, and the pixels and the Z-buffer are written directly
+     *
+     * @param x1 the first x coordinate of the span
+     * @param x2 the last x coordinate of the span
+     * @param y the y coordinate in screen
+     * @param color the color
+     */
+    protected void fillSpan(int x1, int x2, int y, int color) {
+        int alpha = ((color >> 24) & 0xff);
+        if ( y < clipTop || y >= clipBottom || alpha == 0 ) {
+            return;
+        }
+        if ( x1 < 0 ) {
+            x1 = 0;
+        }
+        if ( x2 >= pW ) {
+            x2 = pW - 1;
+        }
+        if ( x1 > x2 ) {
+            return;
+        }
+        if ( damage != null ) {
+            damage.add(x1, y, x2 + 1, y + 1);
+        }
+        if ( alpha == 255 ) {
+            fillSpanOpaque(x1 + y * pW, x2 + y * pW, color);
+        } else {
+            fillSpanTranslucent(x1 + y * pW, x2 + y * pW, color);
+        }
+    }
+
+    /**
+     * Fills the pixels between the two indexes (both included) with
+     * an opaque color
+     *
+     * @param start the first index of the span
+     * @param end the last index of the span
+     * @param color the color
+     */
+    private void fillSpanOpaque(int start, int end, int color) {
+        for ( int index = start; index <= end; index++ ) {
+            if ( (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+                continue;
+            }
+            zb[index] = zDepth;
+            zs[index] = epoch;
+            p[index] = color;
+        }
+    }
+
+    /**
+     * Blends the pixels between the two indexes (both included) with
+     * a translucent color
+     *
+     * @param start the first index of the span
+     * @param end the last index of the span
+     * @param color the color
+     */
+    private void fillSpanTranslucent(int start, int end, int color) {
+        if ( isBlendingFast ) {
+            for ( int index = start; index <= end; index++ ) {
+                if ( (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+                    continue;
+                }
+                zb[index] = zDepth;
+                zs[index] = epoch;
+                p[index] = Blender.blendFast(p[index], color);
+            }
+        } else {
+            for ( int index = start; index <= end; index++ ) {
+                if ( (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+                    continue;
+                }
+                zb[index] = zDepth;
+                zs[index] = epoch;
+                p[index] = Blender.blend(p[index], color);
+            }
         }
     }
 
@@ -200,16 +541,217 @@ public class Renderer implements Painter {
         if ( x < 0 || x >= pW || y < 0 || y >= pH ) {
             return;
         }
-        int baseColor = lm[x + y * pW];
+        int index = x + y * pW;
+        int baseColor = lm[index];
+        if ( ls[index] != epoch ) {
+            baseColor = clearedAmbientColor;
+            lb[index] = 0;
+            ls[index] = epoch;
+        }
 
         int maxRed = Math.max(((baseColor >> 16) & 0xff), ((value >> 16) & 0xff));
         int maxGreen = Math.max(((baseColor >> 8) & 0xff), ((value >> 8) & 0xff));
         int maxBlue = Math.max((baseColor & 0xff), (value & 0xff));
 
-        lm[x + y * pW] = (maxRed << 16 | maxGreen << 8 | maxBlue);
+        lm[index] = (maxRed << 16 | maxGreen << 8 | maxBlue);
+    }
+
+    /**
+     * Sets how much a pixel blocks the light
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param value Light.NONE or Light.FULL
+     */
+    public void setLightBlock(int x, int y, int value) {
+        if ( x < 0 || x >= pW || y < 0 || y >= pH ) {
+            return;
+        }
+        int index = x + y * pW;
+        if ( ls[index] != epoch ) {
+            lm[index] = clearedAmbientColor & 0xffffff;
+            ls[index] = epoch;
+        }
+        lb[index] = value;
+        if ( value != Light.NONE ) {
+            isBlockingLight = true;
+        }
+    }
+
+    /**
+     * Sets how much the pixels of a rectangle block the light
+     *
+     * @param offX the x coordinate of the rectangle
+     * @param offY the y coordinate of the rectangle
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     * @param value Light.NONE or Light.FULL
+     */
+    public void drawLightBlock(int offX, int offY, int width, int height, int value) {
+        for ( int y = Math.max(offY, 0); y < Math.min(offY + height, pH); y++ ) {
+            for ( int x = Math.max(offX, 0); x < Math.min(offX + width, pW); x++ ) {
+                setLightBlock(x, y, value);
+            }
+        }
+    }
+
+    /**
+     * Requests to draw a light. The lights are drawn in the light map
+     * when the frame is processed, after all the pixels what block the light
+     * are set.
+     *
+     * As the light map starts with the ambient color, and the lights only
+     * increase it, the lights are not drawn if the ambient color is white
+     *
+     * @param light the light
+     * @param x the x coordinate of the center of the light
+     * @param y the y coordinate of the center of the light
+     */
+    public void drawLight(Light light, int x, int y) {
+        if ( light == null ) {
+            return;
+        }
+        if ( numLightRequests == lightRequests.length ) {
+            int length = lightRequests.length * 2;
+            lightRequests = Arrays.copyOf(lightRequests, length);
+            lightRequestsX = Arrays.copyOf(lightRequestsX, length);
+            lightRequestsY = Arrays.copyOf(lightRequestsY, length);
+            lightRequestsLm = Arrays.copyOf(lightRequestsLm, length);
+        }
+        lightRequests[numLightRequests] = light;
+        lightRequestsX[numLightRequests] = x;
+        lightRequestsY[numLightRequests] = y;
+        numLightRequests++;
+    }
+
+    /**
+     * Draws the requested lights in the light map. If any pixel blocks
+     * the light, first the light map of each light is computed casting
+     * rays from its center, each light in parallel. Then, the lights are
+     * merged into the light map, each band of rows in parallel
+     */
+    protected void processLightRequests() {
+        if ( numLightRequests == 0 ) {
+            return;
+        }
+        if ( (clearedAmbientColor & 0xffffff) != 0xffffff ) {
+            if ( isBlockingLight ) {
+                Parallel.forEach(numLightRequests, this::blockLight);
+            }
+            int top = clipTop;
+            int numBands = Math.max(1, Math.min(Parallel.getParallelism(), (clipBottom - clipTop) / 16));
+            int height = clipBottom - clipTop;
+            Parallel.forEach(numBands, band ->
+                    mergeLights(top + band * height / numBands, top + (band + 1) * height / numBands));
+        }
+        Arrays.fill(lightRequests, 0, numLightRequests, null);
+        numLightRequests = 0;
+    }
+
+    /**
+     * Computes the light map of a requested light, stopping the light
+     * in the pixels what block it. It casts a ray from the center of
+     * the light to each pixel of the border of its square
+     *
+     * @param request the index of the requested light
+     */
+    private void blockLight(int request) {
+        Light light = lightRequests[request];
+        int d = light.getDiameter();
+        int r = light.getRadius();
+        int[] out = lightRequestsLm[request];
+        if ( out == null || out.length < d * d ) {
+            out = new int[d * d];
+            lightRequestsLm[request] = out;
+        } else {
+            Arrays.fill(out, 0, d * d, 0);
+        }
+        int offX = lightRequestsX[request] - r;
+        int offY = lightRequestsY[request] - r;
+        for ( int i = 0; i < d; i++ ) {
+            castLightRay(light, out, offX, offY, i, 0);
+            castLightRay(light, out, offX, offY, i, d - 1);
+            castLightRay(light, out, offX, offY, 0, i);
+            castLightRay(light, out, offX, offY, d - 1, i);
+        }
+    }
+
+    /**
+     * Walks the line from the center of the light to a point of its square,
+     * copying the light map of the light until a pixel blocks the light
+     */
+    private void castLightRay(Light light, int[] out, int offX, int offY, int x2, int y2) {
+        int[] source = light.getLm();
+        float[] falloff = light.getFalloff();
+        int d = light.getDiameter();
+        int x = light.getRadius();
+        int y = light.getRadius();
+        int dx = Math.abs(x2 - x);
+        int dy = Math.abs(y2 - y);
+        int sx = x < x2 ? 1 : -1;
+        int sy = y < y2 ? 1 : -1;
+        int error = dx - dy;
+
+        while ( true ) {
+            int index = x + y * d;
+            if ( falloff[index] <= 0 ) { // out of the circle of the light
+                return;
+            }
+            out[index] = source[index];
+            int screenX = x + offX;
+            int screenY = y + offY;
+            if ( screenX >= 0 && screenX < pW && screenY >= 0 && screenY < pH ) {
+                int screenIndex = screenX + screenY * pW;
+                if ( ls[screenIndex] == epoch && lb[screenIndex] == Light.FULL ) {
+                    return;
+                }
+            }
+            if ( x == x2 && y == y2 ) {
+                return;
+            }
+            int error2 = 2 * error;
+            if ( error2 > -dy ) {
+                error -= dy;
+                x += sx;
+            }
+            if ( error2 < dx ) {
+                error += dx;
+                y += sy;
+            }
+        }
+    }
+
+    /**
+     * Merges the requested lights into the light map, only in the rows
+     * between top and bottom. Only the pixels inside the square of each
+     * light are visited
+     *
+     * @param top the first row
+     * @param bottom the row after the last row
+     */
+    private void mergeLights(int top, int bottom) {
+        for ( int i = 0; i < numLightRequests; i++ ) {
+            Light light = lightRequests[i];
+            int d = light.getDiameter();
+            int[] source = isBlockingLight ? lightRequestsLm[i] : light.getLm();
+            int offX = lightRequestsX[i] - light.getRadius();
+            int offY = lightRequestsY[i] - light.getRadius();
+            int startX = Math.max(0, offX);
+            int endX = Math.min(pW, offX + d);
+            for ( int y = Math.max(top, offY); y < Math.min(bottom, offY + d); y++ ) {
+                int row = (y - offY) * d - offX;
+                for ( int x = startX; x < endX; x++ ) {
+                    int value = source[row + x];
+                    if ( value != 0 ) {
+                        setLightMap(x, y, value);
+                    }
+                }
+            }
+        }
     }
 
     public void drawLine(int x1, int y1, int x2, int y2, int color) {
+        countDrawCall();
         int x, y, dx, dy, dx1, dy1, px, py, xe, ye;
         dx = x2 - x1; dy = y2 - y1;
 
@@ -298,6 +840,7 @@ public class Renderer implements Painter {
     }
 
     public void drawRectangle(int offX, int offY, int width, int height, int color) {
+        countDrawCall();
         // Don't render code
         if ( offX < -width ) {
             return;
@@ -321,14 +864,14 @@ public class Renderer implements Painter {
         if ( offX < 0 ) {
             newX -= offX;
         }
-        if ( offY < 0 ) {
-            newY -= offY;
+        if ( offY < clipTop ) {
+            newY = clipTop - offY;
         }
         if ( newWidth + offX >= pW ) {
             newWidth -= (newWidth + offX - pW);
         }
-        if ( newHeight + offY >= pH ) {
-            newHeight -= (newHeight + offY - pH);
+        if ( newHeight + offY >= clipBottom ) {
+            newHeight -= (newHeight + offY - clipBottom);
         }
 
         for ( int y = newY; y <= newHeight; y++ ) {
@@ -342,6 +885,7 @@ public class Renderer implements Painter {
     }
 
     public void drawFillRectangle(int offX, int offY, int width, int height, int color) {
+        countDrawCall();
         // Don't render code
         if ( offX < -width ) {
             return;
@@ -365,20 +909,18 @@ public class Renderer implements Painter {
         if ( offX < 0 ) {
             newX -= offX;
         }
-        if ( offY < 0 ) {
-            newY -= offY;
+        if ( offY < clipTop ) {
+            newY = clipTop - offY;
         }
         if ( newWidth + offX >= pW ) {
             newWidth -= (newWidth + offX - pW);
         }
-        if ( newHeight + offY >= pH ) {
-            newHeight -= (newHeight + offY - pH);
+        if ( newHeight + offY >= clipBottom ) {
+            newHeight -= (newHeight + offY - clipBottom);
         }
 
         for ( int y = newY; y < newHeight; y++ ) {
-            for ( int x = newX; x < newWidth; x++ ) {
-                setPixel(x + offX, y + offY, color);
-            }
+            fillSpan(newX + offX, newWidth - 1 + offX, y + offY, color);
         }
     }
 
@@ -390,6 +932,7 @@ public class Renderer implements Painter {
     }
 
     public void drawFillRect(int x, int y, int w, int h, int color) {
+        countDrawCall();
         int x2 = x + w;
         int y2 = y + h;
 
@@ -403,14 +946,13 @@ public class Renderer implements Painter {
         if (y2 < 0) y2 = 0;
         if (y2 >= pH) y2 = pH;
 
-        for (int i = x; i < x2; i++) {
-            for (int j = y; j < y2; j++) {
-                setPixel(i, j, color);
-            }
+        for (int j = y; j < y2; j++) {
+            fillSpan(x, x2 - 1, j, color);
         }
     }
 
     public void drawCircle(int x, int y, int radius, int color) {
+        countDrawCall();
         int x0 = 0;
         int y0 = radius;
         int d = 3 - 2 * radius;
@@ -434,12 +976,11 @@ public class Renderer implements Painter {
     }
 
     private void drawLineForFillCircle(int sx, int ex, int ny, int color) {
-        for (int i = sx; i <= ex; i++) {
-            setPixel(i, ny, color);
-        }
+        fillSpan(sx, ex, ny, color);
     }
 
     public void drawFillCircle(int x, int y, int radius, int color) {
+        countDrawCall();
         int x0 = 0;
         int y0 = radius;
         int d = 3 - 2 * radius;
@@ -458,6 +999,95 @@ public class Renderer implements Painter {
         }
     }
 
+    /**
+     * Draws a batch of points, as squares of size x size pixels centered
+     * in their positions. The points are drawn in order, with the depth
+     * test of <method>setPixel</method>. They are blended with their alpha,
+     * or added to the background (see <method>Blender.blendAdditive</method>).
+     *
+     * The positions and the colors are given as arrays, one value for each
+     * point, so thousands of points are drawn in one call
+     *
+     * @param x the x coordinates of the points
+     * @param y the y coordinates of the points
+     * @param colors the colors of the points
+     * @param count the number of points
+     * @param size the size of the points, in pixels
+     * @param additive true for add the colors, false for blend them with their alpha
+     */
+    public void drawPoints(float[] x, float[] y, int[] colors, int count, int size, boolean additive) {
+        countDrawCall();
+        int half = size >> 1;
+        int maxX = pW - size;
+        int maxY = clipBottom - size;
+        int minY = clipTop;
+        int left = Integer.MAX_VALUE;
+        int top = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for ( int i = 0; i < count; i++ ) {
+            float fx = x[i];
+            float fy = y[i];
+            // The points with some pixel outside are drawn clipped, apart
+            if ( !(fx >= half && fx < maxX + half && fy >= minY + half && fy < maxY + half) ) {
+                if ( fx > -size && fx < pW + size && fy > minY - size && fy < clipBottom + size ) {
+                    int px = (int)Math.floor(fx) - half;
+                    int py = (int)Math.floor(fy) - half;
+                    for ( int row = Math.max(py, minY); row < Math.min(py + size, clipBottom); row++ ) {
+                        for ( int column = Math.max(px, 0); column < Math.min(px + size, pW); column++ ) {
+                            drawPoint(column + row * pW, colors[i], additive);
+                        }
+                    }
+                    left = Math.min(left, Math.max(px, 0));
+                    top = Math.min(top, Math.max(py, minY));
+                    right = Math.max(right, Math.min(px + size, pW));
+                    bottom = Math.max(bottom, Math.min(py + size, clipBottom));
+                }
+                continue;
+            }
+            int px = (int)fx - half;
+            int py = (int)fy - half;
+            int color = colors[i];
+            if ( size == 1 ) {
+                drawPoint(px + py * pW, color, additive);
+            } else {
+                for ( int row = 0; row < size; row++ ) {
+                    int index = px + (py + row) * pW;
+                    for ( int column = 0; column < size; column++ ) {
+                        drawPoint(index + column, color, additive);
+                    }
+                }
+            }
+            left = Math.min(left, px);
+            top = Math.min(top, py);
+            right = Math.max(right, px + size);
+            bottom = Math.max(bottom, py + size);
+        }
+        if ( damage != null && left < right ) {
+            damage.add(left, top, right, bottom);
+        }
+    }
+
+    /**
+     * Draws a pixel of a point, which is inside of the screen
+     *
+     * @param index the index of the pixel in screen
+     * @param value the color
+     * @param additive true for add the color, false for blend it
+     */
+    private void drawPoint(int index, int value, boolean additive) {
+        if ( !additive ) {
+            drawPixel(index, value);
+            return;
+        }
+        if ( (value >>> 24) == 0 || (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+            return;
+        }
+        zb[index] = zDepth;
+        zs[index] = epoch;
+        p[index] = Blender.blendAdditive(p[index], value);
+    }
+
     public void drawTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int color) {
         drawLine(x1, y1, x2, y2, color);
         drawLine(x2, y2, x3, y3, color);
@@ -465,6 +1095,7 @@ public class Renderer implements Painter {
     }
 
     public void drawFillTriangle(int x1, int y1, int x2, int y2, int x3, int y3, int color) {
+        countDrawCall();
         if (y2 < y1) {
             int tempInteger = y1;
             y1 = y2;
@@ -511,7 +1142,7 @@ public class Renderer implements Painter {
         }
 
         if ( dy1 != 0 ) {
-            for ( int i = y1; i <= y2; i++ )
+            for ( int i = Math.max(y1, clipTop); i <= Math.min(y2, clipBottom - 1); i++ )
             {
                 int ax = (int)(x1 + (float)(i - y1) * dax_step);
                 int bx = (int)(x1 + (float)(i - y1) * dbx_step);
@@ -522,12 +1153,7 @@ public class Renderer implements Painter {
                     bx = tempInteger;
                 }
 
-                for (int j = ax; j < bx; j++) {
-                    int index = i * pW + j;
-                    if (index < p.length) {
-                        setPixel(j, i, color);
-                    }
-                }
+                fillSpan(ax, bx - 1, i, color);
             }
         }
 
@@ -543,7 +1169,7 @@ public class Renderer implements Painter {
 
         if ( dy1 != 0 )
         {
-            for (int i = y2; i <= y3; i++)
+            for (int i = Math.max(y2, clipTop); i <= Math.min(y3, clipBottom - 1); i++)
             {
                 int ax = (int)(x2 + (float)(i - y2) * dax_step);
                 int bx = (int)(x1 + (float)(i - y1) * dbx_step);
@@ -554,12 +1180,7 @@ public class Renderer implements Painter {
                     bx = tempInteger;
                 }
 
-                for (int j = ax; j < bx; j++) {
-                    int index = i * pW + j;
-                    if (index < p.length) {
-                        setPixel(j, i, color);
-                    }
-                }
+                fillSpan(ax, bx - 1, i, color);
             }
         }
     }
@@ -578,62 +1199,115 @@ public class Renderer implements Painter {
     }
 
     public void drawImage(Image image, int offX, int offY) {
+        countDrawCall();
         if ( image == null ) {
             return;
         }
 
         if ( image.isAlpha() && !processing) {
-            imageRequests.add(new ImageRequest(image, zDepth, offX, offY));
+            imageRequests.add(image, zDepth, offX, offY);
+            numTranslucentRequests++;
             return;
         }
 
-        // Don't render code
-        if ( offX < -pW ) {
-            return;
-        }
-        if ( offY < -pH ) {
-            return;
-        }
-        if ( offX >= pW ) {
+        blitImage(image, offX, offY);
+    }
+
+    /**
+     * Draws an image following its runs of pixels. The transparent
+     * pixels are skipped. The opaque runs are copied, when the depth
+     * is not lower than any depth of the Z-buffer, and only the
+     * translucent runs are blended. The images without runs are
+     * drawn pixel by pixel
+     *
+     * @param image the image
+     * @param offX the x coordinate
+     * @param offY the y coordinate
+     */
+    private void blitImage(Image image, int offX, int offY) {
+        int startX = Math.max(0, -offX);
+        int endX = Math.min(image.getW(), pW - offX);
+        int startY = Math.max(0, clipTop - offY);
+        int endY = Math.min(image.getH(), clipBottom - offY);
+        if ( startX >= endX || startY >= endY ) {
             return;
         }
-        if ( offY >= pH ) {
+        if ( damage != null ) {
+            damage.add(offX + startX, offY + startY, offX + endX, offY + endY);
+        }
+
+        OpacityRuns opacityRuns = image.getRuns();
+        int[] imageP = image.getP();
+        if ( opacityRuns == null ) {
+            for ( int y = startY; y < endY; y++ ) {
+                int row = image.getOffset() + y * image.getStride();
+                int screenRow = offX + (y + offY) * pW;
+                for ( int x = startX; x < endX; x++ ) {
+                    int value = imageP[row + x];
+                    int alpha = value >>> 24;
+                    int index = screenRow + x;
+                    if ( alpha == 0 || (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+                        continue;
+                    }
+                    zb[index] = zDepth;
+                    zs[index] = epoch;
+                    if ( alpha == 255 ) {
+                        p[index] = value;
+                    } else if ( isBlendingFast ) {
+                        p[index] = Blender.blendFast(p[index], value);
+                    } else {
+                        p[index] = Blender.blend(p[index], value);
+                    }
+                }
+            }
             return;
         }
-
-        int newX = 0;
-        int newY = 0;
-        int newWidth = image.getW();
-        int newHeight = image.getH();
-
-        // Clipping Code
-        if ( offX < 0 ) {
-            newX -= offX;
-        }
-        if ( offY < 0 ) {
-            newY -= offY;
-        }
-        if ( newWidth + offX >= pW ) {
-            newWidth -= (newWidth + offX - pW);
-        }
-        if ( newHeight + offY >= pH ) {
-            newHeight -= (newHeight + offY - pH);
-        }
-
-        for ( int y = newY; y < newHeight; y++ ) {
-            for ( int x = newX; x < newWidth; x++ ) {
-                setPixel(x + offX, y + offY, image.getP()[x + y * image.getW()]);
+        int[] runs = opacityRuns.getRuns();
+        boolean isOnTop = zDepth >= zHigh;
+        for ( int y = startY; y < endY; y++ ) {
+            int row = image.getOffset() + y * image.getStride();
+            int screenRow = offX + (y + offY) * pW;
+            for ( int i = opacityRuns.getRowStart(y); i < opacityRuns.getRowEnd(y); i += 3 ) {
+                int x1 = Math.max(runs[i], startX);
+                int x2 = Math.min(runs[i + 1], endX);
+                if ( x1 >= x2 ) {
+                    continue;
+                }
+                if ( runs[i + 2] == OpacityRuns.OPAQUE && isOnTop ) {
+                    System.arraycopy(imageP, row + x1, p, screenRow + x1, x2 - x1);
+                    Arrays.fill(zb, screenRow + x1, screenRow + x2, zDepth);
+                    Arrays.fill(zs, screenRow + x1, screenRow + x2, epoch);
+                } else {
+                    for ( int x = x1; x < x2; x++ ) {
+                        int index = screenRow + x;
+                        if ( (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+                            continue;
+                        }
+                        zb[index] = zDepth;
+                        zs[index] = epoch;
+                        int value = imageP[row + x];
+                        if ( (value >>> 24) == 255 ) {
+                            p[index] = value;
+                        } else if ( isBlendingFast ) {
+                            p[index] = Blender.blendFast(p[index], value);
+                        } else {
+                            p[index] = Blender.blend(p[index], value);
+                        }
+                    }
+                }
             }
         }
     }
 
     public void drawImage(Image image, int offX, int offY, int colorToChange, int newColor) {
+        countDrawCall();
         if ( image == null ) {
             return;
         }
 
         if ( image.isAlpha() && !processing) {
-            imageRequests.add(new ImageRequest(image, zDepth, offX, offY));
+            imageRequests.add(image, zDepth, offX, offY);
+            numTranslucentRequests++;
             return;
         }
 
@@ -660,19 +1334,21 @@ public class Renderer implements Painter {
         if ( offX < 0 ) {
             newX -= offX;
         }
-        if ( offY < 0 ) {
-            newY -= offY;
+        if ( offY < clipTop ) {
+            newY = clipTop - offY;
         }
         if ( newWidth + offX >= pW ) {
             newWidth -= (newWidth + offX - pW);
         }
-        if ( newHeight + offY >= pH ) {
-            newHeight -= (newHeight + offY - pH);
+        if ( newHeight + offY >= clipBottom ) {
+            newHeight -= (newHeight + offY - clipBottom);
         }
 
+        int[] imageP = image.getP();
         for ( int y = newY; y < newHeight; y++ ) {
+            int row = image.getOffset() + y * image.getStride();
             for ( int x = newX; x < newWidth; x++ ) {
-                int pixelValue = image.getP()[x + y * image.getW()];
+                int pixelValue = imageP[row + x];
                 if ( pixelValue == colorToChange ) {
                     setPixel(x + offX, y + offY, newColor);
                 } else {
@@ -683,57 +1359,294 @@ public class Renderer implements Painter {
     }
 
     public void drawImageTile(ImageTile image, int offX, int offY, int tileX, int tileY) {
+        countDrawCall();
         if ( image == null ) {
             return;
         }
 
         if ( image.isAlpha() && !processing) {
-            imageRequests.add(new ImageRequest(image.getTileImage(tileX, tileY), zDepth, offX, offY));
+            imageRequests.add(image, zDepth, offX, offY, tileX, tileY);
+            numTranslucentRequests++;
             return;
         }
 
-        // Don't render code
-        if ( offX < -image.getTileW() ) {
-            return;
-        }
-        if ( offY < -image.getTileH() ) {
+        blitImage(image.getTileImage(tileX, tileY), offX, offY);
+    }
+
+    /**
+     * Draws an image scaled and rotated around its center
+     *
+     * @param image the image
+     * @param x the x coordinate of the center of the image in screen
+     * @param y the y coordinate of the center of the image in screen
+     * @param scaleX the scale in the x axis of the image
+     * @param scaleY the scale in the y axis of the image
+     * @param angle the rotation, in degrees
+     */
+    public void drawImage(Image image, int x, int y, float scaleX, float scaleY, float angle) {
+        if ( image == null ) {
             return;
         }
-        if ( offX >= image.getTileW() ) {
+        drawImage(image, x, y, scaleX, scaleY, angle, image.getW() / 2, image.getH() / 2, false, false);
+    }
+
+    /**
+     * Draws an image transformed. The image is flipped, scaled and rotated
+     * around the pivot, and the pivot is placed in the point (x, y).
+     *
+     * Each pixel of the screen inside the transformed image takes the
+     * pixel of the image what falls over it (inverse mapping). The
+     * coordinates in the image are stepped with fixed-point numbers,
+     * so each pixel only needs two additions. The pixels are taken
+     * as the nearest one, or mixing the four nearest ones if the
+     * bilinear sampling is enabled.
+     *
+     * The image is drawn at the moment, also if it has alpha
+     *
+     * @param image the image
+     * @param x the x coordinate of the pivot in screen
+     * @param y the y coordinate of the pivot in screen
+     * @param scaleX the scale in the x axis of the image
+     * @param scaleY the scale in the y axis of the image
+     * @param angle the rotation, in degrees
+     * @param pivotX the x coordinate of the pivot in the image
+     * @param pivotY the y coordinate of the pivot in the image
+     * @param flipX if the image is mirrored horizontally
+     * @param flipY if the image is mirrored vertically
+     */
+    public void drawImage(Image image, int x, int y, float scaleX, float scaleY, float angle,
+                          int pivotX, int pivotY, boolean flipX, boolean flipY) {
+        countDrawCall();
+        if ( image == null || image.getW() == 0 || image.getH() == 0 || scaleX == 0 || scaleY == 0 ) {
             return;
         }
-        if ( offY >= image.getTileH() ) {
+        double radians = Math.toRadians(angle);
+        float cos = (float)Math.cos(radians);
+        float sin = (float)Math.sin(radians);
+        float sx = flipX ? -scaleX : scaleX;
+        float sy = flipY ? -scaleY : scaleY;
+
+        // The bounding box of the corners of the image in screen
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for ( int corner = 0; corner < 4; corner++ ) {
+            float u = ((corner & 1) == 0 ? 0 : image.getW()) - pivotX;
+            float v = ((corner & 2) == 0 ? 0 : image.getH()) - pivotY;
+            float screenX = x + cos * sx * u - sin * sy * v;
+            float screenY = y + sin * sx * u + cos * sy * v;
+            minX = Math.min(minX, screenX);
+            minY = Math.min(minY, screenY);
+            maxX = Math.max(maxX, screenX);
+            maxY = Math.max(maxY, screenY);
+        }
+        int startX = Math.max(0, (int)Math.floor(minX));
+        int startY = Math.max(clipTop, (int)Math.floor(minY));
+        int endX = Math.min(pW, (int)Math.ceil(maxX));
+        int endY = Math.min(clipBottom, (int)Math.ceil(maxY));
+        if ( startX >= endX || startY >= endY ) {
             return;
         }
+        if ( damage != null ) {
+            damage.add(startX, startY, endX, endY);
+        }
+
+        // The inverse transform: the image coordinates of each screen pixel
+        float ux = cos / sx;
+        float uy = sin / sx;
+        float vx = -sin / sy;
+        float vy = cos / sy;
+        int w = image.getW();
+        int h = image.getH();
+        int du = (int)(ux * 65536.0f);
+        int dv = (int)(vx * 65536.0f);
+
+        for ( int screenY = startY; screenY < endY; screenY++ ) {
+            float relX = startX + 0.5f - x;
+            float relY = screenY + 0.5f - y;
+            float u = pivotX + ux * relX + uy * relY;
+            float v = pivotY + vx * relX + vy * relY;
+
+            // The part of the row where the coordinates are inside of the image
+            float first = 0;
+            float last = endX - startX;
+            if ( ux != 0 ) {
+                float a = -u / ux;
+                float b = (w - u) / ux;
+                first = Math.max(first, Math.min(a, b));
+                last = Math.min(last, Math.max(a, b));
+            } else if ( u < 0 || u >= w ) {
+                continue;
+            }
+            if ( vx != 0 ) {
+                float a = -v / vx;
+                float b = (h - v) / vx;
+                first = Math.max(first, Math.min(a, b));
+                last = Math.min(last, Math.max(a, b));
+            } else if ( v < 0 || v >= h ) {
+                continue;
+            }
+            int firstX = Math.max(0, (int)first - 1);
+            int lastX = Math.min(endX - startX, (int)last + 1);
+            if ( firstX >= lastX ) {
+                continue;
+            }
 
-        int newX = 0;
-        int newY = 0;
-        int newWidth = image.getTileW();
-        int newHeight = image.getTileH();
-
-        // Clipping Code
-        if ( offX < 0 ) {
-            newX -= offX;
-        }
-        if ( offY < 0 ) {
-            newY -= offY;
+            int fu = (int)((u + ux * firstX) * 65536.0f);
+            int fv = (int)((v + vx * firstX) * 65536.0f);
+            int index = startX + firstX + screenY * pW;
+            int end = startX + lastX + screenY * pW;
+            if ( isSamplingBilinear ) {
+                drawRowBilinear(image, index, end, fu, fv, du, dv);
+            } else {
+                drawRowNearest(image, index, end, fu, fv, du, dv);
+            }
         }
-        if ( newWidth + offX >= pW ) {
-            newWidth -= (newWidth + offX - pW);
+    }
+
+    /**
+     * Draws a row of a transformed image taking the nearest pixel
+     *
+     * @param image the image
+     * @param index the first index in screen
+     * @param end the index after the last one
+     * @param fu the x coordinate in the image of the first pixel, in 16.16 fixed-point
+     * @param fv the y coordinate in the image of the first pixel, in 16.16 fixed-point
+     * @param du the step of the x coordinate in the image
+     * @param dv the step of the y coordinate in the image
+     */
+    private void drawRowNearest(Image image, int index, int end, int fu, int fv, int du, int dv) {
+        int[] imageP = image.getP();
+        int offset = image.getOffset();
+        int stride = image.getStride();
+        int w = image.getW();
+        int h = image.getH();
+        if ( zDepth < zHigh ) {
+            for ( ; index < end; index++, fu += du, fv += dv ) {
+                int u = fu >> 16;
+                int v = fv >> 16;
+                if ( fu < 0 || fv < 0 || u >= w || v >= h ) {
+                    continue;
+                }
+                drawPixel(index, imageP[offset + u + v * stride]);
+            }
+            return;
         }
-        if ( newHeight + offY >= pH ) {
-            newHeight -= (newHeight + offY - pH);
+        // The depth is not lower than any depth of the Z-buffer, so all the pixels pass the depth test
+        for ( ; index < end; index++, fu += du, fv += dv ) {
+            int u = fu >> 16;
+            int v = fv >> 16;
+            if ( fu < 0 || fv < 0 || u >= w || v >= h ) {
+                continue;
+            }
+            int value = imageP[offset + u + v * stride];
+            int alpha = value >>> 24;
+            if ( alpha == 0 ) {
+                continue;
+            }
+            zb[index] = zDepth;
+            zs[index] = epoch;
+            if ( alpha == 255 ) {
+                p[index] = value;
+            } else if ( isBlendingFast ) {
+                p[index] = Blender.blendFast(p[index], value);
+            } else {
+                p[index] = Blender.blend(p[index], value);
+            }
         }
+    }
 
-        for ( int y = newY; y < newHeight; y++ ) {
-            for ( int x = newX; x < newWidth; x++ ) {
-                setPixel(x + offX, y + offY,
-                        image.getP()[(x + tileX * image.getTileW()) + (y + tileY * image.getTileH()) * image.getW()]);
+    /**
+     * Draws a row of a transformed image mixing the four nearest pixels.
+     * The channels are mixed with the weights of the fractional part
+     * of the coordinates, in 8 bits. If any of the pixels is not opaque,
+     * they are mixed premultiplied by their alpha, for not darken the
+     * borders with the color of the transparent pixels
+     *
+     * @param image the image
+     * @param index the first index in screen
+     * @param end the index after the last one
+     * @param fu the x coordinate in the image of the first pixel, in 16.16 fixed-point
+     * @param fv the y coordinate in the image of the first pixel, in 16.16 fixed-point
+     * @param du the step of the x coordinate in the image
+     * @param dv the step of the y coordinate in the image
+     */
+    private void drawRowBilinear(Image image, int index, int end, int fu, int fv, int du, int dv) {
+        int[] imageP = image.getP();
+        int offset = image.getOffset();
+        int stride = image.getStride();
+        int w = image.getW();
+        int h = image.getH();
+        for ( ; index < end; index++, fu += du, fv += dv ) {
+            if ( fu < 0 || fv < 0 || (fu >> 16) >= w || (fv >> 16) >= h ) {
+                continue;
+            }
+            // The centers of the pixels are in the half of them
+            int su = Math.max(0, fu - 0x8000);
+            int sv = Math.max(0, fv - 0x8000);
+            int u0 = su >> 16;
+            int v0 = sv >> 16;
+            int u1 = Math.min(u0 + 1, w - 1);
+            int v1 = Math.min(v0 + 1, h - 1);
+            int wu = (su >> 8) & 0xff;
+            int wv = (sv >> 8) & 0xff;
+            int row0 = offset + v0 * stride;
+            int row1 = offset + v1 * stride;
+            int c00 = imageP[row0 + u0];
+            int c01 = imageP[row0 + u1];
+            int c10 = imageP[row1 + u0];
+            int c11 = imageP[row1 + u1];
+            if ( ((c00 & c01 & c10 & c11) >>> 24) == 255 ) {
+                drawPixel(index, mix(mix(c00, c01, wu), mix(c10, c11, wu), wv));
+            } else {
+                int top = mix(Blender.premultiply(c00), Blender.premultiply(c01), wu);
+                int bottom = mix(Blender.premultiply(c10), Blender.premultiply(c11), wu);
+                drawPixel(index, Blender.unpremultiply(mix(top, bottom, wv)));
             }
         }
     }
 
+    /**
+     * Mixes two colors, all the channels with alpha included
+     *
+     * @param a the first color
+     * @param b the second color
+     * @param weight the weight of the second color, from 0 to 255
+     * @return the mixed color
+     */
+    private static int mix(int a, int b, int weight) {
+        int rb = (a & 0xff00ff) * (256 - weight) + (b & 0xff00ff) * weight;
+        int ag = ((a >>> 8) & 0xff00ff) * (256 - weight) + ((b >>> 8) & 0xff00ff) * weight;
+        return (ag & 0xff00ff00) | ((rb >>> 8) & 0xff00ff);
+    }
+
+    /**
+     * Draws a pixel which is inside of the screen, with the depth test
+     * and the blending of <method>setPixel</method>, but without the
+     * clipping and the damage
+     *
+     * @param index the index of the pixel in screen
+     * @param value the color
+     */
+    private void drawPixel(int index, int value) {
+        int alpha = value >>> 24;
+        if ( alpha == 0 || (zs[index] == epoch ? zb[index] : 0) > zDepth ) {
+            return;
+        }
+        zb[index] = zDepth;
+        zs[index] = epoch;
+        if ( alpha == 255 ) {
+            p[index] = value;
+        } else if ( isBlendingFast ) {
+            p[index] = Blender.blendFast(p[index], value);
+        } else {
+            p[index] = Blender.blend(p[index], value);
+        }
+    }
+
     public void drawCharacter(Image characterImage, int offX, int offY, int color) {
+        countDrawCall();
         if ( characterImage == null ) {
             return;
         }
@@ -760,38 +1673,74 @@ public class Renderer implements Painter {
         if ( offX < 0 ) {
             newX -= offX;
         }
-        if ( offY < 0 ) {
-            newY -= offY;
+        if ( offY < clipTop ) {
+            newY = clipTop - offY;
         }
         if ( newWidth + offX >= pW ) {
             newWidth -= (newWidth + offX - pW);
         }
-        if ( newHeight + offY >= pH ) {
-            newHeight -= (newHeight + offY - pH);
+        if ( newHeight + offY >= clipBottom ) {
+            newHeight -= (newHeight + offY - clipBottom);
         }
 
+        int[] characterP = characterImage.getP();
         for ( int y = newY; y < newHeight; y++ ) {
+            int row = characterImage.getOffset() + y * characterImage.getStride();
             for (int x = newX; x < newWidth; x++) {
-                if (characterImage.getP()[x + y * characterImage.getW()] == 0xffffffff) {
+                if (characterP[row + x] == 0xffffffff) {
                     setPixel(x + offX, y + offY, color);
                 }
             }
         }
     }
 
+    /**
+     * Draws a character of a font, filling its spans of white pixels
+     *
+     * @param glyph the character
+     * @param offX the x coordinate
+     * @param offY the y coordinate
+     * @param color the color of the character
+     */
+    public void drawGlyph(Glyph glyph, int offX, int offY, int color) {
+        countDrawCall();
+        fillGlyph(glyph, offX, offY, color);
+    }
+
+    /**
+     * Fills the spans of a character, without counting a drawing call
+     *
+     * @param glyph the character
+     * @param offX the x coordinate
+     * @param offY the y coordinate
+     * @param color the color of the character
+     */
+    protected void fillGlyph(Glyph glyph, int offX, int offY, int color) {
+        if ( glyph == null ) {
+            return;
+        }
+        if ( offX >= pW || offX + glyph.getW() <= 0 ) {
+            return;
+        }
+        int top = Math.max(0, clipTop - offY);
+        int bottom = Math.min(glyph.getH(), clipBottom - offY);
+        for ( int y = top; y < bottom; y++ ) {
+            for ( int i = glyph.getRowStart(y); i < glyph.getRowEnd(y); i += 2 ) {
+                fillSpan(glyph.getSpan(i) + offX, glyph.getSpan(i + 1) + offX, y + offY, color);
+            }
+        }
+    }
+
     public void drawText(String text, int offX, int offY, int color, Font font) {
+        countDrawCall();
         int offset = 0;
         for ( int i = 0; i < text.length(); i++ ) {
-            int unicode = text.codePointAt(i);
-            /*for ( int y = 0; y < font.getFontImage().getH(); y++ ) {
-                for ( int x = 0; x < font.getWidths()[unicode]; x++ ) {
-                    if ( font.getFontImage().getP()[(x + font.getOffsets()[unicode]) + y * font.getFontImage().getW()] == 0xffffffff ) {
-                        setPixel(x + offset + offX, y + offY, color);
-                    }
-                }
-            }*/
-            drawCharacter(font.getCharacterImage(unicode), offset + offX, offY, color);
-            offset += font.getWidths()[unicode];
+            Glyph glyph = font.getGlyph(text.codePointAt(i));
+            if ( glyph == null ) {
+                continue;
+            }
+            fillGlyph(glyph, offset + offX, offY, color);
+            offset += glyph.getW();
         }
     }
 
@@ -807,14 +1756,82 @@ public class Renderer implements Painter {
         return ambientColor;
     }
 
-    private void setZDepth(int zDepth) {
+    public void setZDepth(int zDepth) {
         this.zDepth = zDepth;
+        if ( zDepth > zHigh ) {
+            zHigh = zDepth;
+        }
     }
 
     public void setAmbientColor(int ambientColor) {
         this.ambientColor = ambientColor;
     }
 
+    /**
+     * Changes the array of pixels where the renderer draws. The other
+     * buffers (the Z-buffer, the light map...) are kept. It is used to
+     * draw each frame in a different framebuffer, while the last ones
+     * are being presented
+     *
+     * @param p the one-dimensional array of pixels, its length must be pW * pH
+     */
+    public void setTarget(int[] p) {
+        if ( p.length != pW * pH ) {
+            throw new IllegalArgumentException("The target must have " + pW + "x" + pH + " pixels");
+        }
+        this.p = p;
+    }
+
+    /**
+     * Enables or disables the tracking of the regions of the screen what
+     * change each frame. The tracking starts the next time the screen is cleared
+     *
+     * @param trackingDamage if the damage has to be tracked
+     */
+    public void setTrackingDamage(boolean trackingDamage) {
+        damage = trackingDamage ? new DirtyRegion(pW, pH) : null;
+    }
+
+    /**
+     * @return the regions of the screen what have changed since the
+     * last clear, or null if the damage is not tracked
+     */
+    public DirtyRegion getDamage() {
+        return damage;
+    }
+
+    public int getNumDrawCalls() {
+        return numDrawCalls;
+    }
+
+    public int getNumTranslucentRequests() {
+        return numTranslucentRequests;
+    }
+
+    public boolean isClearing() {
+        return isClearing;
+    }
+
+    public void setClearing(boolean clearing) {
+        isClearing = clearing;
+    }
+
+    public boolean isBlendingFast() {
+        return isBlendingFast;
+    }
+
+    public void setBlendingFast(boolean blendingFast) {
+        isBlendingFast = blendingFast;
+    }
+
+    public boolean isSamplingBilinear() {
+        return isSamplingBilinear;
+    }
+
+    public void setSamplingBilinear(boolean samplingBilinear) {
+        isSamplingBilinear = samplingBilinear;
+    }
+
     public Font getFont() {
         return font;
     }
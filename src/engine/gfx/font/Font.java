@@ -37,6 +37,12 @@ public class Font {
      */
     private int[] widths;
 
+    /**
+     * The characters extracted from the image, one for each unicode.
+     * They are built again if the image, the offsets or the widths change
+     */
+    private Glyph[] glyphs;
+
     /**
      * The constructor
      *
@@ -56,16 +62,46 @@ public class Font {
                 unicode++;
             }
         }
+        buildGlyphs();
     }
 
-    public Image getCharacterImage(int unicode) {
-        int[] characterImage = new int[widths[unicode] * fontImage.getH()];
-        for ( int y = 0; y < fontImage.getH(); y++ ) {
-            for ( int x = 0; x < widths[unicode]; x++ ) {
-                characterImage[x + y * widths[unicode]] = fontImage.getP()[(x + offsets[unicode]) + y * fontImage.getW()];
-            }
+    /**
+     * Extracts all the characters from the image of the font
+     */
+    private void buildGlyphs() {
+        Glyph[] newGlyphs = new Glyph[widths.length];
+        for ( int i = 0; i < widths.length; i++ ) {
+            newGlyphs[i] = new Glyph(fontImage.getP(), fontImage.getOffset(), fontImage.getStride(),
+                    offsets[i], widths[i], fontImage.getH());
         }
-        return new Image(characterImage, widths[unicode], fontImage.getH());
+        glyphs = newGlyphs;
+    }
+
+    /**
+     * @param unicode the unicode of the character
+     * @return the character, or null if the font hasn't it
+     */
+    public Glyph getGlyph(int unicode) {
+        Glyph[] current = glyphs;
+        if ( current == null ) {
+            buildGlyphs();
+            current = glyphs;
+        }
+        if ( unicode < 0 || unicode >= current.length ) {
+            return null;
+        }
+        return current[unicode];
+    }
+
+    /**
+     * Makes a view of a character inside the image of the font. The
+     * renderer draws the characters with <method>getGlyph</method>
+     *
+     * @param unicode the unicode of the character
+     * @return the image of the character
+     */
+    public Image getCharacterImage(int unicode) {
+        return fontImage.getView(offsets[unicode], 0, widths[unicode], fontImage.getH());
     }
 
     public Image getFontImage() {
@@ -82,14 +118,17 @@ public class Font {
 
     public void setFontImage(Image fontImage) {
         this.fontImage = fontImage;
+        glyphs = null;
     }
 
     public void setOffsets(int[] offsets) {
         this.offsets = offsets;
+        glyphs = null;
     }
 
     public void setWidths(int[] widths) {
         this.widths = widths;
+        glyphs = null;
     }
 
 }
@@ -0,0 +1,120 @@
+package engine.gfx.font;
+
+/**
+ * This class is a character of a font, extracted once from the
+ * image of the font. Only the white pixels of the character are
+ * drawn, so the character is stored as the horizontal runs of
+ * white pixels of each row (spans), and the renderer fills them
+ * directly without looking at the other pixels.
+ *
+ * It can't be changed once it is built.
+ *
+ * @class Glyph
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public final class Glyph {
+
+    /**
+     * The width of the character
+     */
+    private final int w;
+
+    /**
+     * The height of the character
+     */
+    private final int h;
+
+    /**
+     * The first span of each row. The spans of the row y are
+     * between rowStarts[y] and rowStarts[y + 1] (not included)
+     */
+    private final int[] rowStarts;
+
+    /**
+     * The spans, two values for each one: the first x coordinate
+     * and the last one (included)
+     */
+    private final int[] spans;
+
+    /**
+     * Constructor. It extracts the character from the image of the font
+     *
+     * @param fontP the pixels of the image of the font
+     * @param fontOffset the index of the first pixel of the image of the font
+     * @param fontStride the distance between two rows of the image of the font
+     * @param start the x coordinate of the character in the image
+     * @param w the width of the character
+     * @param h the height of the character
+     */
+    Glyph(int[] fontP, int fontOffset, int fontStride, int start, int w, int h) {
+        this.w = w;
+        this.h = h;
+        rowStarts = new int[h + 1];
+        int offset = fontOffset + start;
+
+        int numSpans = 0;
+        for ( int y = 0; y < h; y++ ) {
+            for ( int x = 0; x < w; x++ ) {
+                if ( isWhite(fontP, x + offset + y * fontStride) && (x == 0 || !isWhite(fontP, x - 1 + offset + y * fontStride)) ) {
+                    numSpans++;
+                }
+            }
+        }
+
+        spans = new int[numSpans * 2];
+        int i = 0;
+        for ( int y = 0; y < h; y++ ) {
+            rowStarts[y] = i;
+            int x = 0;
+            while ( x < w ) {
+                if ( isWhite(fontP, x + offset + y * fontStride) ) {
+                    spans[i++] = x;
+                    while ( x + 1 < w && isWhite(fontP, x + 1 + offset + y * fontStride) ) {
+                        x++;
+                    }
+                    spans[i++] = x;
+                }
+                x++;
+            }
+        }
+        rowStarts[h] = i;
+    }
+
+    private static boolean isWhite(int[] p, int index) {
+        return p[index] == 0xffffffff;
+    }
+
+    public int getW() {
+        return w;
+    }
+
+    public int getH() {
+        return h;
+    }
+
+    /**
+     * @param y the row
+     * @return the index of the first span of the row, in pairs of values
+     */
+    public int getRowStart(int y) {
+        return rowStarts[y];
+    }
+
+    /**
+     * @param y the row
+     * @return the index after the last span of the row, in pairs of values
+     */
+    public int getRowEnd(int y) {
+        return rowStarts[y + 1];
+    }
+
+    /**
+     * @param i the index of the value
+     * @return the first x coordinate of a span if i is even, or the last one if it is odd
+     */
+    public int getSpan(int i) {
+        return spans[i];
+    }
+
+}
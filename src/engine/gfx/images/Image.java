@@ -37,16 +37,40 @@ public class Image {
     protected int[] p;
 
     /**
-     * If the image has alpha
+     * The index of the first pixel of the image inside the pixel array.
+     * It is 0, unless the image is a view of a part of other image
+     */
+    protected int offset = 0;
+
+    /**
+     * The distance between the first pixels of two consecutive rows
+     * inside the pixel array. It is the width, unless the image is
+     * a view of a part of other image
+     */
+    protected int stride;
+
+    /**
+     * If the image has alpha (translucent pixels). The renderer draws
+     * these images at the end of the frame, sorted by their depth.
+     * It is detected when the image is loaded from a file
      */
     protected boolean alpha = false;
 
+    /**
+     * The runs of opaque and translucent pixels of each row, or null.
+     * They are computed when the image is loaded, or when they are
+     * asked with <method>precomputeRuns</method>. The images made from
+     * pixel arrays don't have them, because their pixels can be changed
+     */
+    protected OpacityRuns runs;
+
     /**
      * The null constructor
      */
     public Image() {
         w = 0;
         h = 0;
+        stride = 0;
         p = new int[w * h];
     }
 
@@ -83,9 +107,13 @@ public class Image {
             assert image != null;
             w = image.getWidth();
             h = image.getHeight();
+            stride = w;
             p = image.getRGB(0, 0, w, h, null, 0, w);
             image.flush();
 
+            runs = new OpacityRuns(p, 0, w, w, h);
+            alpha = runs.hasTranslucentPixels();
+
         } else {
 
             w = 0;
@@ -109,6 +137,44 @@ public class Image {
         this.p = p;
         this.w = w;
         this.h = h;
+        this.stride = w;
+    }
+
+    /**
+     * The constructor of a view. The image doesn't copy the pixels,
+     * it uses a rectangle of the pixel array of other image
+     *
+     * @param p the pixel array of the other image
+     * @param offset the index of the first pixel of the view
+     * @param stride the distance between two rows in the pixel array
+     * @param w width
+     * @param h height
+     */
+    public Image(int[] p, int offset, int stride, int w, int h) {
+        this.p = p;
+        this.offset = offset;
+        this.stride = stride;
+        this.w = w;
+        this.h = h;
+    }
+
+    /**
+     * Makes a view of a rectangle of this image. The view shares
+     * the pixels, so the changes in one of them are seen in the other
+     *
+     * @param x the x coordinate of the rectangle
+     * @param y the y coordinate of the rectangle
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     * @return the view
+     */
+    public Image getView(int x, int y, int w, int h) {
+        Image view = new Image(p, offset + x + y * stride, stride, w, h);
+        view.setAlpha(alpha);
+        if ( runs != null ) {
+            view.precomputeRuns();
+        }
+        return view;
     }
 
     /**
@@ -120,6 +186,7 @@ public class Image {
     public Image(int w, int h) {
         this.w = w;
         this.h = h;
+        this.stride = w;
         p = new int[w * h];
     }
 
@@ -131,14 +198,54 @@ public class Image {
         return h;
     }
 
+    /**
+     * The pixel array. If the image is a view, the pixel (x, y)
+     * is in the index getOffset() + x + y * getStride()
+     *
+     * @return the pixel array
+     */
     public int[] getP() {
         return p;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
     public boolean isAlpha() {
         return alpha;
     }
 
+    /**
+     * @return the runs of opaque and translucent pixels of each row,
+     * or null if they are not computed
+     */
+    public OpacityRuns getRuns() {
+        return runs;
+    }
+
+    /**
+     * Computes the runs of the image, so it is drawn skipping its transparent
+     * pixels and copying its opaque ones. If the pixels are changed later,
+     * <method>updateRuns</method> has to be called
+     */
+    public void precomputeRuns() {
+        runs = new OpacityRuns(p, offset, stride, w, h);
+    }
+
+    /**
+     * Computes the runs of the image again, if it has them, because its pixels have changed
+     */
+    public void updateRuns() {
+        if ( runs != null ) {
+            precomputeRuns();
+        }
+    }
+
     /**
      * This method returns an pixel for the image
      *
@@ -148,46 +255,65 @@ public class Image {
      * @throws ArrayIndexOutOfBoundsException if the x and/or y positions are outside of the image
      */
     public int getPixel(int x, int y) throws ArrayIndexOutOfBoundsException {
-        int index = x + w * y;
+        int index = offset + x + stride * y;
         assert p != null;
         if ( index < p.length ) {
-            return p[x + w * y];
+            return p[index];
         } else {
             throw new ArrayIndexOutOfBoundsException();
         }
     }
 
     /**
-     * This method returns a sample (pixel) of the image
-     * @param x the X position of the pixel inside the image
-     * @param y the Y position of the pixel inside the image
-     * @return a pixel of the image
-     * @throws ArrayIndexOutOfBoundsException if the x and/or y positions are outside of the image
+     * This method returns a sample (pixel) of the image. The coordinates
+     * are clamped to the borders of the image, so it never fails
+     * @param x the X position of the pixel inside the image, from 0 to 1
+     * @param y the Y position of the pixel inside the image, from 0 to 1
+     * @return a pixel of the image, or transparent if the image is empty
      */
     public int getSample(float x, float y) {
-        int color;
-        int sampleX = Math.min((int)(x * (float)w), w > 0 ? w - 1 : w);
-        int sampleY = Math.min((int)(y * (float)h), h > 0 ? h - 1 : h);
-        try {
-            color = getPixel(sampleX, sampleY);
-        } catch ( ArrayIndexOutOfBoundsException e ) {
-            color = 0x00000000;
-            String errorMessage = "X: " + x + " Y: " + y + " outside of " + getW() + "x" + getH();
-            System.out.println("Get sample Error: " + errorMessage + e.getMessage());
+        if ( w <= 0 || h <= 0 ) {
+            return 0x00000000;
         }
-        return color;
+        int sampleX = Math.max(0, Math.min((int)(x * (float)w), w - 1));
+        int sampleY = Math.max(0, Math.min((int)(y * (float)h), h - 1));
+        return p[offset + sampleX + stride * sampleY];
+    }
+
+    /**
+     * This method returns a sample (pixel) of the image. The image
+     * is repeated outside of the coordinates from 0 to 1
+     * @param x the X position of the pixel
+     * @param y the Y position of the pixel
+     * @return a pixel of the image, or transparent if the image is empty
+     */
+    public int getSampleWrapped(float x, float y) {
+        if ( w <= 0 || h <= 0 ) {
+            return 0x00000000;
+        }
+        int sampleX = Math.floorMod((int)Math.floor(x * (float)w), w);
+        int sampleY = Math.floorMod((int)Math.floor(y * (float)h), h);
+        return p[offset + sampleX + stride * sampleY];
     }
 
     public void setW(int w) {
+        if ( offset == 0 && stride == this.w ) {
+            stride = w;
+        }
         this.w = w;
+        runs = null;
     }
 
     public void setH(int h) {
         this.h = h;
+        runs = null;
     }
 
     public void setP(int[] p) {
         this.p = p;
+        this.offset = 0;
+        this.stride = w;
+        runs = null;
     }
 
     public void setAlpha(boolean alpha) {
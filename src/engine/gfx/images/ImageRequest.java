@@ -3,10 +3,15 @@ package engine.gfx.images;
 /**
  * The request which has the image
  *
+ * @deprecated the renderer keeps the requests in an
+ * <class>ImageRequestQueue</class>, which doesn't allocate one
+ * object for each request
+ *
  * @class: ImageRequest
  * @autor: Sergio Martí Torregrosa
  * @date: 2020-07-06
  */
+@Deprecated
 public class ImageRequest {
 
     /**
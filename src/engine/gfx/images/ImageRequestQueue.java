@@ -0,0 +1,202 @@
+package engine.gfx.images;
+
+import java.util.Arrays;
+
+/**
+ * The queue of the images with alpha requested during a frame.
+ * The requests are stored in parallel arrays (the image, the depth,
+ * the offset and the tile of each one) instead of one object for each
+ * request, and the arrays are kept between frames, so a frame
+ * doesn't allocate anything once the arrays are big enough.
+ *
+ * The requests are sorted by depth with a radix sort, which is
+ * stable: the requests with the same depth keep the order in which
+ * they were added.
+ *
+ * @class ImageRequestQueue
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class ImageRequestQueue {
+
+    /**
+     * The tile of the requests what aren't tiles
+     */
+    public static final int NO_TILE = -1;
+
+    private Image[] images = new Image[64];
+
+    private int[] zDepths = new int[64];
+
+    private int[] offX = new int[64];
+
+    private int[] offY = new int[64];
+
+    private int[] tileX = new int[64];
+
+    private int[] tileY = new int[64];
+
+    /**
+     * The indexes of the requests, sorted by depth after sort is called
+     */
+    private int[] order = new int[64];
+
+    /**
+     * The auxiliary array of the radix sort
+     */
+    private int[] buffer = new int[64];
+
+    /**
+     * The counts of each digit of the radix sort
+     */
+    private final int[] counts = new int[256];
+
+    /**
+     * The number of requests
+     */
+    private int size = 0;
+
+    /**
+     * If the requests have been added in order of depth
+     */
+    private boolean isSorted = true;
+
+    /**
+     * Adds the request of an image
+     *
+     * @param image the image
+     * @param zDepth the depth
+     * @param offX the x coordinate
+     * @param offY the y coordinate
+     */
+    public void add(Image image, int zDepth, int offX, int offY) {
+        add(image, zDepth, offX, offY, NO_TILE, NO_TILE);
+    }
+
+    /**
+     * Adds the request of a tile of an image tile
+     *
+     * @param image the image
+     * @param zDepth the depth
+     * @param offX the x coordinate
+     * @param offY the y coordinate
+     * @param tileX the x coordinate of the tile, or NO_TILE
+     * @param tileY the y coordinate of the tile, or NO_TILE
+     */
+    public void add(Image image, int zDepth, int offX, int offY, int tileX, int tileY) {
+        if ( size == images.length ) {
+            grow();
+        }
+        if ( size > 0 && zDepth < zDepths[size - 1] ) {
+            isSorted = false;
+        }
+        images[size] = image;
+        zDepths[size] = zDepth;
+        this.offX[size] = offX;
+        this.offY[size] = offY;
+        this.tileX[size] = tileX;
+        this.tileY[size] = tileY;
+        order[size] = size;
+        size++;
+    }
+
+    private void grow() {
+        int length = images.length * 2;
+        images = Arrays.copyOf(images, length);
+        zDepths = Arrays.copyOf(zDepths, length);
+        offX = Arrays.copyOf(offX, length);
+        offY = Arrays.copyOf(offY, length);
+        tileX = Arrays.copyOf(tileX, length);
+        tileY = Arrays.copyOf(tileY, length);
+        order = Arrays.copyOf(order, length);
+        buffer = new int[length];
+    }
+
+    /**
+     * Sorts the requests by depth. It is a radix sort of one byte
+     * in each pass, and the passes of the bytes which are the same
+     * in all the depths are skipped, so usually only one or two
+     * passes are done
+     */
+    public void sort() {
+        if ( isSorted ) {
+            return;
+        }
+        // The sign bit is flipped for sort the negative depths before the positive ones
+        int first = zDepths[0] ^ Integer.MIN_VALUE;
+        int different = 0;
+        for ( int i = 1; i < size; i++ ) {
+            different |= (zDepths[i] ^ Integer.MIN_VALUE) ^ first;
+        }
+
+        int[] from = order;
+        int[] to = buffer;
+        for ( int shift = 0; shift < 32; shift += 8 ) {
+            if ( ((different >>> shift) & 0xff) == 0 ) {
+                continue;
+            }
+            Arrays.fill(counts, 0);
+            for ( int i = 0; i < size; i++ ) {
+                counts[((zDepths[from[i]] ^ Integer.MIN_VALUE) >>> shift) & 0xff]++;
+            }
+            int sum = 0;
+            for ( int digit = 0; digit < 256; digit++ ) {
+                int count = counts[digit];
+                counts[digit] = sum;
+                sum += count;
+            }
+            for ( int i = 0; i < size; i++ ) {
+                int request = from[i];
+                to[counts[((zDepths[request] ^ Integer.MIN_VALUE) >>> shift) & 0xff]++] = request;
+            }
+            int[] temp = from;
+            from = to;
+            to = temp;
+        }
+        order = from;
+        buffer = to;
+        isSorted = true;
+    }
+
+    /**
+     * Removes all the requests. The arrays are kept for the next frame
+     */
+    public void clear() {
+        Arrays.fill(images, 0, size, null);
+        size = 0;
+        isSorted = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The getters of the requests take the position of the request in
+     * the sorted queue, from 0 to size (not included)
+     */
+    public Image getImage(int i) {
+        return images[order[i]];
+    }
+
+    public int getzDepth(int i) {
+        return zDepths[order[i]];
+    }
+
+    public int getOffX(int i) {
+        return offX[order[i]];
+    }
+
+    public int getOffY(int i) {
+        return offY[order[i]];
+    }
+
+    public int getTileX(int i) {
+        return tileX[order[i]];
+    }
+
+    public int getTileY(int i) {
+        return tileY[order[i]];
+    }
+
+}
@@ -1,5 +1,7 @@
 package engine.gfx.images;
 
+import java.util.Arrays;
+
 /**
  * An ImageTile is really useful because it is a large image that contains all the images
  * to be used in the program. It is a way to save and not increase the number
@@ -40,6 +42,17 @@ public class ImageTile extends Image {
      */
     private int numTilesY;
 
+    /**
+     * The views of the tiles, made the first time each tile is asked
+     */
+    private Image[] tiles;
+
+    /**
+     * The white tile returned for the tiles outside of the image,
+     * made the first time it is asked
+     */
+    private Image outsideTile = null;
+
     /**
      * Constructor
      *
@@ -53,6 +66,7 @@ public class ImageTile extends Image {
         this.tileH = tileH;
         numTilesX = w / tileW;
         numTilesY = h / tileH;
+        tiles = new Image[numTilesX * numTilesY];
     }
 
     /**
@@ -69,30 +83,42 @@ public class ImageTile extends Image {
         this.setW(image.getW());
         this.setH(image.getH());
         this.setP(image.getP());
+        this.offset = image.getOffset();
+        this.stride = image.getStride();
+        this.alpha = image.isAlpha();
+        this.runs = image.getRuns();
         numTilesX = w / tileW;
         numTilesY = h / tileH;
+        tiles = new Image[numTilesX * numTilesY];
     }
 
     /**
      * The method of obtaining a small image of the
-     * original image.
+     * original image. The small image is a view of the
+     * original one, it doesn't copy the pixels, and it is
+     * made only the first time that the tile is asked.
+     * The tiles outside of the image are the same white tile.
      *
      * @param tileX The X position of the small image within the original image.
      * @param tileY The Y position of the small image within the original image.
      * @return returns a small image of the original image.
      */
     public Image getTileImage(int tileX, int tileY) {
-        int[] p = new int[tileW * tileH];
-        for ( int y = 0; y < tileH; y++ ) {
-            for ( int x = 0; x < tileW; x++ ) {
-                try {
-                    p[x + y * tileW] = this.getP()[(x + tileX * tileW) + (y + tileY * tileH) * this.getW()];
-                } catch ( ArrayIndexOutOfBoundsException e ) {
-                    p[x + y * tileW] = 0xffffffff;
-                }
+        if ( tileX < 0 || tileX >= numTilesX || tileY < 0 || tileY >= numTilesY ) {
+            if ( outsideTile == null ) {
+                int[] p = new int[tileW * tileH];
+                Arrays.fill(p, 0xffffffff);
+                outsideTile = new Image(p, tileW, tileH);
             }
+            return outsideTile;
+        }
+        int index = tileX + tileY * numTilesX;
+        Image tile = tiles[index];
+        if ( tile == null ) {
+            tile = getView(tileX * tileW, tileY * tileH, tileW, tileH);
+            tiles[index] = tile;
         }
-        return new Image(p, tileW, tileH);
+        return tile;
     }
 
     /**
@@ -118,6 +144,23 @@ public class ImageTile extends Image {
         return getTileImage(x, y);
     }
 
+    /**
+     * Sets the alpha flag of the image and of its tiles
+     *
+     * @param alpha if the image has alpha
+     */
+    @Override
+    public void setAlpha(boolean alpha) {
+        super.setAlpha(alpha);
+        if ( tiles != null ) {
+            for ( Image tile : tiles ) {
+                if ( tile != null ) {
+                    tile.setAlpha(alpha);
+                }
+            }
+        }
+    }
+
     public int getTileW() {
         return tileW;
     }
@@ -0,0 +1,131 @@
+package engine.gfx.images;
+
+/**
+ * This class keeps, for each row of an image, the runs of pixels
+ * which aren't transparent. Each run is opaque (all its pixels
+ * have alpha 255) or translucent (all its pixels have an alpha
+ * between 1 and 254). The transparent pixels aren't in any run,
+ * so the renderer skips them without reading them.
+ *
+ * It can't be changed once it is built.
+ *
+ * @class OpacityRuns
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public final class OpacityRuns {
+
+    public static final int OPAQUE = 0;
+
+    public static final int TRANSLUCENT = 1;
+
+    /**
+     * The first run of each row. The runs of the row y are
+     * between rowStarts[y] and rowStarts[y + 1] (not included)
+     */
+    private final int[] rowStarts;
+
+    /**
+     * The runs, three values for each one: the first x coordinate,
+     * the x coordinate after the last one, and OPAQUE or TRANSLUCENT
+     */
+    private final int[] runs;
+
+    /**
+     * If any pixel is translucent
+     */
+    private final boolean hasTranslucentPixels;
+
+    /**
+     * Constructor. It finds the runs of the pixels of the image
+     *
+     * @param p the pixel array
+     * @param offset the index of the first pixel
+     * @param stride the distance between two rows in the pixel array
+     * @param w the width
+     * @param h the height
+     */
+    public OpacityRuns(int[] p, int offset, int stride, int w, int h) {
+        rowStarts = new int[h + 1];
+
+        int numRuns = 0;
+        for ( int y = 0; y < h; y++ ) {
+            int previous = -1;
+            for ( int x = 0; x < w; x++ ) {
+                int kind = getKind(p[offset + x + y * stride]);
+                if ( kind >= 0 && kind != previous ) {
+                    numRuns++;
+                }
+                previous = kind;
+            }
+        }
+
+        runs = new int[numRuns * 3];
+        boolean translucent = false;
+        int i = 0;
+        for ( int y = 0; y < h; y++ ) {
+            rowStarts[y] = i;
+            int row = offset + y * stride;
+            int x = 0;
+            while ( x < w ) {
+                int kind = getKind(p[row + x]);
+                int start = x;
+                while ( x < w && getKind(p[row + x]) == kind ) {
+                    x++;
+                }
+                if ( kind >= 0 ) {
+                    runs[i++] = start;
+                    runs[i++] = x;
+                    runs[i++] = kind;
+                    translucent |= kind == TRANSLUCENT;
+                }
+            }
+        }
+        rowStarts[h] = i;
+        hasTranslucentPixels = translucent;
+    }
+
+    /**
+     * @param color the color of a pixel
+     * @return OPAQUE, TRANSLUCENT, or -1 if the pixel is transparent
+     */
+    private static int getKind(int color) {
+        int alpha = color >>> 24;
+        if ( alpha == 255 ) {
+            return OPAQUE;
+        }
+        return alpha == 0 ? -1 : TRANSLUCENT;
+    }
+
+    /**
+     * @param y the row
+     * @return the index of the first value of the first run of the row
+     */
+    public int getRowStart(int y) {
+        return rowStarts[y];
+    }
+
+    /**
+     * @param y the row
+     * @return the index after the last value of the last run of the row
+     */
+    public int getRowEnd(int y) {
+        return rowStarts[y + 1];
+    }
+
+    /**
+     * The runs are read in groups of three values: runs[i] is the first
+     * x coordinate, runs[i + 1] the x coordinate after the last one and
+     * runs[i + 2] the kind of the run
+     *
+     * @return the values of the runs
+     */
+    public int[] getRuns() {
+        return runs;
+    }
+
+    public boolean hasTranslucentPixels() {
+        return hasTranslucentPixels;
+    }
+
+}
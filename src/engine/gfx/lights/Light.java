@@ -0,0 +1,133 @@
+package engine.gfx.lights;
+
+/**
+ * This class represents a point light. The light has a color
+ * and a radius, and its intensity falls linearly from the center
+ * to the radius.
+ *
+ * The falloff of the light (the intensity in each pixel of the
+ * square around the light) is computed once, when the light is built.
+ * The light map (the color what receives each pixel) is computed from
+ * the falloff, so drawing the light doesn't need to compute distances.
+ *
+ * The idea is taken from the 2D Java Game Engine from the channel Majoolwip
+ * GitHub: https://github.com/Majoolwip
+ * Youtube channel: https://www.youtube.com/channel/UCYdJWlQWeuhDZicBbxM0-mg
+ *
+ * @class Light
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Light {
+
+    /**
+     * The light block value of the pixels which let the light pass
+     */
+    public static final int NONE = 0;
+
+    /**
+     * The light block value of the pixels which stop the light
+     */
+    public static final int FULL = 1;
+
+    /**
+     * The radius of the light
+     */
+    protected int radius;
+
+    /**
+     * The diameter of the light. It is the size of the light map
+     */
+    protected int diameter;
+
+    /**
+     * The color of the light, in its center
+     */
+    protected int color;
+
+    /**
+     * The radial falloff. The intensity of the light in each pixel
+     * of the square around the light, between 0 and 1
+     */
+    protected float[] falloff;
+
+    /**
+     * The light map. The color what receives each pixel of
+     * the square around the light
+     */
+    protected int[] lm;
+
+    /**
+     * Constructor
+     * @param radius the radius of the light
+     * @param color the color of the light
+     */
+    public Light(int radius, int color) {
+        this.radius = radius;
+        this.diameter = radius * 2;
+        this.color = color;
+        falloff = new float[diameter * diameter];
+        lm = new int[diameter * diameter];
+        for ( int y = 0; y < diameter; y++ ) {
+            for ( int x = 0; x < diameter; x++ ) {
+                float distance = (float)Math.sqrt((x - radius) * (x - radius) + (y - radius) * (y - radius));
+                falloff[x + y * diameter] = distance < radius ? 1.0f - distance / radius : 0.0f;
+            }
+        }
+        computeLightMap();
+    }
+
+    /**
+     * Computes the light map. For each pixel, the color of
+     * the light is multiplied by the intensity
+     */
+    protected void computeLightMap() {
+        int red = (color >> 16) & 0xff;
+        int green = (color >> 8) & 0xff;
+        int blue = color & 0xff;
+        for ( int i = 0; i < lm.length; i++ ) {
+            float power = getPower(i);
+            if ( power > 0 ) {
+                lm[i] = ((int)(red * power) << 16 | (int)(green * power) << 8 | (int)(blue * power));
+            } else {
+                lm[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * The intensity of the light in a pixel of its square
+     *
+     * @param index the index of the pixel, x + y * diameter
+     * @return a value between 0 (dark) and 1 (all the light)
+     */
+    protected float getPower(int index) {
+        return falloff[index];
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getDiameter() {
+        return diameter;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public float[] getFalloff() {
+        return falloff;
+    }
+
+    public int[] getLm() {
+        return lm;
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+        computeLightMap();
+    }
+
+}
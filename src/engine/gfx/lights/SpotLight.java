@@ -0,0 +1,103 @@
+package engine.gfx.lights;
+
+/**
+ * This class represents a spot light. It is a point light which
+ * only lights inside a cone. The cone points to a direction, and
+ * its intensity falls softly near the borders of the cone.
+ *
+ * @class SpotLight
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class SpotLight extends Light {
+
+    /**
+     * The angle of each pixel of the square around the light, in degrees.
+     * It is computed once, so turning the light is cheap
+     */
+    private float[] angles;
+
+    /**
+     * The direction of the cone, in degrees
+     */
+    private float direction;
+
+    /**
+     * The half of the opening of the cone, in degrees
+     */
+    private float angle;
+
+    /**
+     * The part of the cone, near its borders, where the light
+     * falls. Between 0 (hard borders) and 1
+     */
+    private float softness;
+
+    /**
+     * Constructor
+     * @param radius the radius of the light
+     * @param color the color of the light
+     * @param direction the direction of the cone, in degrees
+     * @param angle the half of the opening of the cone, in degrees
+     * @param softness the part of the cone where the light falls, between 0 and 1
+     */
+    public SpotLight(int radius, int color, float direction, float angle, float softness) {
+        super(radius, color);
+        this.direction = direction;
+        this.angle = angle;
+        this.softness = Math.max(0.0f, Math.min(1.0f, softness));
+        angles = new float[diameter * diameter];
+        for ( int y = 0; y < diameter; y++ ) {
+            for ( int x = 0; x < diameter; x++ ) {
+                angles[x + y * diameter] = (float)Math.toDegrees(Math.atan2(y - radius, x - radius));
+            }
+        }
+        computeLightMap();
+    }
+
+    @Override
+    protected float getPower(int index) {
+        if ( angles == null ) { // the constructor of Light calls this before the cone is set
+            return 0.0f;
+        }
+        float power = falloff[index];
+        if ( power <= 0 ) {
+            return 0.0f;
+        }
+        float difference = Math.abs(angles[index] - direction) % 360.0f;
+        if ( difference > 180.0f ) {
+            difference = 360.0f - difference;
+        }
+        if ( difference >= angle ) {
+            return 0.0f;
+        }
+        float inner = angle * (1.0f - softness);
+        if ( difference <= inner ) {
+            return power;
+        }
+        return power * (angle - difference) / (angle - inner);
+    }
+
+    public float getDirection() {
+        return direction;
+    }
+
+    public float getAngle() {
+        return angle;
+    }
+
+    public float getSoftness() {
+        return softness;
+    }
+
+    /**
+     * Changes the direction of the cone. The light map is computed again
+     *
+     * @param direction the new direction of the cone, in degrees
+     */
+    public void setDirection(float direction) {
+        this.direction = direction;
+        computeLightMap();
+    }
+
+}
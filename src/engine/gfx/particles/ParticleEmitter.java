@@ -0,0 +1,208 @@
+package engine.gfx.particles;
+
+import engine.FastMath;
+
+/**
+ * This class emits particles in a <class>ParticleSystem</class>. The
+ * particles leave the position of the emitter in a direction inside a
+ * cone, with random speeds and lives between a minimum and a maximum.
+ *
+ * The emitter emits a number of particles each second, keeping the
+ * fraction of particles what is not emitted yet for the next update, or
+ * a burst of particles at once.
+ *
+ * @class ParticleEmitter
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class ParticleEmitter {
+
+    private float x;
+
+    private float y;
+
+    /**
+     * The number of particles emitted each second
+     */
+    private float rate;
+
+    /**
+     * The particles what are not emitted yet, less than one
+     */
+    private float accumulated = 0.0f;
+
+    /**
+     * The direction of the cone, in degrees
+     */
+    private float angle = -90.0f;
+
+    /**
+     * The angle of the cone, in degrees
+     */
+    private float spread = 30.0f;
+
+    private float minSpeed = 50.0f;
+
+    private float maxSpeed = 100.0f;
+
+    private float minLife = 1.0f;
+
+    private float maxLife = 2.0f;
+
+    private int color = 0xffffffff;
+
+    /**
+     * The state of the random numbers generator. It is a xorshift,
+     * for not pay the synchronization of <class>java.util.Random</class>
+     * for each particle
+     */
+    private int seed = 0x2545f491;
+
+    /**
+     * Flag for emit the particles of the rate in each update
+     */
+    private boolean isEmitting = true;
+
+    /**
+     * Constructor
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param rate the number of particles emitted each second
+     */
+    public ParticleEmitter(float x, float y, float rate) {
+        this.x = x;
+        this.y = y;
+        this.rate = rate;
+    }
+
+    /**
+     * Emits the particles of the time since the last update
+     *
+     * @param system the system what receives the particles
+     * @param dt the seconds since the last update
+     */
+    public void update(ParticleSystem system, float dt) {
+        if ( !isEmitting ) {
+            return;
+        }
+        accumulated += rate * dt;
+        int count = (int)accumulated;
+        accumulated -= count;
+        emit(system, count);
+    }
+
+    /**
+     * Emits a number of particles at once
+     *
+     * @param system the system what receives the particles
+     * @param count the number of particles
+     */
+    public void burst(ParticleSystem system, int count) {
+        emit(system, count);
+    }
+
+    private void emit(ParticleSystem system, int count) {
+        for ( int i = 0; i < count; i++ ) {
+            float direction = angle + spread * (nextFloat() - 0.5f);
+            float speed = minSpeed + (maxSpeed - minSpeed) * nextFloat();
+            float life = minLife + (maxLife - minLife) * nextFloat();
+            if ( !system.emit(x, y, FastMath.cosDeg(direction) * speed, FastMath.sinDeg(direction) * speed, life, color) ) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return a random number between 0 and 1
+     */
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) * (1.0f / (1 << 24));
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getRate() {
+        return rate;
+    }
+
+    public float getAngle() {
+        return angle;
+    }
+
+    public float getSpread() {
+        return spread;
+    }
+
+    public float getMinSpeed() {
+        return minSpeed;
+    }
+
+    public float getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public float getMinLife() {
+        return minLife;
+    }
+
+    public float getMaxLife() {
+        return maxLife;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public boolean isEmitting() {
+        return isEmitting;
+    }
+
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public void setRate(float rate) {
+        this.rate = rate;
+    }
+
+    public void setAngle(float angle) {
+        this.angle = angle;
+    }
+
+    public void setSpread(float spread) {
+        this.spread = spread;
+    }
+
+    public void setSpeed(float minSpeed, float maxSpeed) {
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+    }
+
+    public void setLife(float minLife, float maxLife) {
+        this.minLife = minLife;
+        this.maxLife = maxLife;
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    public void setSeed(int seed) {
+        this.seed = seed != 0 ? seed : 1;
+    }
+
+    public void setEmitting(boolean emitting) {
+        isEmitting = emitting;
+    }
+
+}
@@ -0,0 +1,324 @@
+package engine.gfx.particles;
+
+import engine.Parallel;
+import engine.gfx.Renderer;
+
+import java.util.ArrayList;
+
+/**
+ * This class is a system of particles. The particles are kept in a
+ * pool with a fixed capacity, as a structure of arrays: one array for
+ * each property (the x coordinates, the y coordinates, the velocities...),
+ * without one object for each particle.
+ *
+ * Each update:
+ * - The emitters add their new particles at the end of the pool.
+ * - The particles are moved, in pieces what run in all the cores of the
+ *   CPU. Each piece writes down its dead particles.
+ * - The dead particles are removed swapping them with the last one, so
+ *   the alive particles are always from 0 to the size of the pool, and
+ *   nothing has to be shifted.
+ *
+ * The particles are drawn as points with one call to the
+ * <method>drawPoints</method> method of the <class>Renderer</class>.
+ *
+ * @class ParticleSystem
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class ParticleSystem {
+
+    /**
+     * The minimum number of particles of a piece of the update
+     */
+    private static final int MIN_PIECE_SIZE = 8192;
+
+    /**
+     * The maximum number of particles
+     */
+    private final int capacity;
+
+    /**
+     * The number of alive particles
+     */
+    private int size = 0;
+
+    private final float[] x;
+
+    private final float[] y;
+
+    private final float[] vx;
+
+    private final float[] vy;
+
+    /**
+     * The seconds since the particle was emitted
+     */
+    private final float[] age;
+
+    /**
+     * The seconds what the particle lives
+     */
+    private final float[] life;
+
+    /**
+     * The color of the particle when it is emitted
+     */
+    private final int[] baseColors;
+
+    /**
+     * The color of the particle to draw, with its alpha faded by the age
+     */
+    private final int[] colors;
+
+    /**
+     * The indices of the dead particles of each piece. Each piece
+     * writes from its first particle, so they don't overlap
+     */
+    private final int[] dead;
+
+    /**
+     * The number of dead particles of each piece
+     */
+    private final int[] numDead;
+
+    private final ArrayList<ParticleEmitter> emitters = new ArrayList<>();
+
+    /**
+     * The acceleration of all the particles, in pixels per second squared
+     */
+    private float gravityX = 0.0f;
+
+    private float gravityY = 0.0f;
+
+    /**
+     * The fraction of the velocity what the particles lose each second
+     */
+    private float drag = 0.0f;
+
+    /**
+     * The size of the points, in pixels
+     */
+    private int pointSize = 1;
+
+    /**
+     * Flag for add the colors of the particles to the background,
+     * instead of blend them with their alpha
+     */
+    private boolean isBlendingAdditive = true;
+
+    /**
+     * Flag for fade out the alpha of the particles while they get old
+     */
+    private boolean isFadingOut = true;
+
+    /**
+     * Constructor
+     * @param capacity the maximum number of particles
+     */
+    public ParticleSystem(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        age = new float[capacity];
+        life = new float[capacity];
+        baseColors = new int[capacity];
+        colors = new int[capacity];
+        dead = new int[capacity];
+        numDead = new int[Parallel.getParallelism() * 4];
+    }
+
+    /**
+     * Adds a particle, if the pool is not full
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param vx the velocity in the x axis, in pixels per second
+     * @param vy the velocity in the y axis, in pixels per second
+     * @param life the seconds what the particle lives
+     * @param color the color
+     * @return false if the pool is full and the particle was not added
+     */
+    public boolean emit(float x, float y, float vx, float vy, float life, int color) {
+        if ( size == capacity ) {
+            return false;
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.age[i] = 0.0f;
+        this.life[i] = life;
+        this.baseColors[i] = color;
+        this.colors[i] = color;
+        return true;
+    }
+
+    public void addEmitter(ParticleEmitter emitter) {
+        emitters.add(emitter);
+    }
+
+    public void removeEmitter(ParticleEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    /**
+     * Emits the new particles, moves all of them and removes the dead ones
+     *
+     * @param dt the seconds since the last update
+     */
+    public void update(float dt) {
+        for ( ParticleEmitter emitter : emitters ) {
+            emitter.update(this, dt);
+        }
+        int count = size;
+        if ( count == 0 ) {
+            return;
+        }
+        int pieces = Math.max(1, Math.min(numDead.length, count / MIN_PIECE_SIZE));
+        Parallel.forEach(pieces, piece -> updatePiece(piece, piece * count / pieces, (piece + 1) * count / pieces, dt));
+        removeDead(pieces, count);
+    }
+
+    /**
+     * Moves the particles of a range, and writes down the dead ones
+     */
+    private void updatePiece(int piece, int from, int to, float dt) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] vx = this.vx;
+        float[] vy = this.vy;
+        float[] age = this.age;
+        float[] life = this.life;
+        int[] baseColors = this.baseColors;
+        int[] colors = this.colors;
+        float dvx = gravityX * dt;
+        float dvy = gravityY * dt;
+        float damping = Math.max(0.0f, 1.0f - drag * dt);
+        boolean isFading = isFadingOut;
+        int deadCount = 0;
+        for ( int i = from; i < to; i++ ) {
+            float particleAge = age[i] + dt;
+            if ( particleAge >= life[i] ) {
+                dead[from + deadCount++] = i;
+                continue;
+            }
+            age[i] = particleAge;
+            float velocityX = (vx[i] + dvx) * damping;
+            float velocityY = (vy[i] + dvy) * damping;
+            vx[i] = velocityX;
+            vy[i] = velocityY;
+            x[i] += velocityX * dt;
+            y[i] += velocityY * dt;
+            if ( isFading ) {
+                int color = baseColors[i];
+                int alpha = (int)((color >>> 24) * (1.0f - particleAge / life[i]));
+                colors[i] = alpha << 24 | (color & 0xffffff);
+            }
+        }
+        numDead[piece] = deadCount;
+    }
+
+    /**
+     * Removes the dead particles, from the last one to the first one. Each one
+     * is replaced by the last particle of the pool, what is always alive
+     * because the dead particles after it are already removed
+     *
+     * @param pieces the number of pieces of the update
+     * @param count the number of particles of the update
+     */
+    private void removeDead(int pieces, int count) {
+        for ( int piece = pieces - 1; piece >= 0; piece-- ) {
+            int from = piece * count / pieces;
+            for ( int k = numDead[piece] - 1; k >= 0; k-- ) {
+                int i = dead[from + k];
+                int last = --size;
+                if ( i != last ) {
+                    x[i] = x[last];
+                    y[i] = y[last];
+                    vx[i] = vx[last];
+                    vy[i] = vy[last];
+                    age[i] = age[last];
+                    life[i] = life[last];
+                    baseColors[i] = baseColors[last];
+                    colors[i] = colors[last];
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws all the particles as points
+     *
+     * @param r the renderer
+     */
+    public void render(Renderer r) {
+        if ( size > 0 ) {
+            r.drawPoints(x, y, colors, size, pointSize, isBlendingAdditive);
+        }
+    }
+
+    /**
+     * Removes all the particles
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public float getGravityX() {
+        return gravityX;
+    }
+
+    public float getGravityY() {
+        return gravityY;
+    }
+
+    public float getDrag() {
+        return drag;
+    }
+
+    public int getPointSize() {
+        return pointSize;
+    }
+
+    public boolean isBlendingAdditive() {
+        return isBlendingAdditive;
+    }
+
+    public boolean isFadingOut() {
+        return isFadingOut;
+    }
+
+    public void setGravity(float gravityX, float gravityY) {
+        this.gravityX = gravityX;
+        this.gravityY = gravityY;
+    }
+
+    public void setDrag(float drag) {
+        this.drag = drag;
+    }
+
+    public void setPointSize(int pointSize) {
+        this.pointSize = pointSize;
+    }
+
+    public void setBlendingAdditive(boolean blendingAdditive) {
+        isBlendingAdditive = blendingAdditive;
+    }
+
+    public void setFadingOut(boolean fadingOut) {
+        isFadingOut = fadingOut;
+    }
+
+}
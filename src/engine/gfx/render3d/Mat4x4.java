@@ -0,0 +1,268 @@
+package engine.gfx.render3d;
+
+import engine.vectors.points3d.Vec3Batch;
+import engine.vectors.points3d.Vec3df;
+
+/**
+ * This class is a 4x4 matrix for transform points in 3D.
+ * The values are stored by rows in a float array, and the
+ * points are column vectors: the matrix multiplies them from
+ * the left side.
+ *
+ * The points are transformed in batches, from packed float
+ * arrays (x, y, z for each point) to other packed arrays
+ * (x, y, z, w for each point), without creating objects.
+ *
+ * @class Mat4x4
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Mat4x4 {
+
+    /**
+     * The values of the matrix, by rows. The value of the
+     * row i and the column j is in m[i * 4 + j]
+     */
+    private final float[] m = new float[16];
+
+    /**
+     * Constructor. The matrix is the identity
+     */
+    public Mat4x4() {
+        m[0] = 1.0f;
+        m[5] = 1.0f;
+        m[10] = 1.0f;
+        m[15] = 1.0f;
+    }
+
+    /**
+     * Constructor
+     * @param values the 16 values of the matrix, by rows
+     */
+    public Mat4x4(float[] values) {
+        System.arraycopy(values, 0, m, 0, 16);
+    }
+
+    public static Mat4x4 identity() {
+        return new Mat4x4();
+    }
+
+    public static Mat4x4 translation(float x, float y, float z) {
+        Mat4x4 matrix = new Mat4x4();
+        matrix.m[3] = x;
+        matrix.m[7] = y;
+        matrix.m[11] = z;
+        return matrix;
+    }
+
+    public static Mat4x4 scale(float x, float y, float z) {
+        Mat4x4 matrix = new Mat4x4();
+        matrix.m[0] = x;
+        matrix.m[5] = y;
+        matrix.m[10] = z;
+        return matrix;
+    }
+
+    /**
+     * @param angle the angle in degrees
+     * @return the rotation around the x axis
+     */
+    public static Mat4x4 rotationX(float angle) {
+        float cos = (float)Math.cos(Math.toRadians(angle));
+        float sin = (float)Math.sin(Math.toRadians(angle));
+        Mat4x4 matrix = new Mat4x4();
+        matrix.m[5] = cos;
+        matrix.m[6] = -sin;
+        matrix.m[9] = sin;
+        matrix.m[10] = cos;
+        return matrix;
+    }
+
+    /**
+     * @param angle the angle in degrees
+     * @return the rotation around the y axis
+     */
+    public static Mat4x4 rotationY(float angle) {
+        float cos = (float)Math.cos(Math.toRadians(angle));
+        float sin = (float)Math.sin(Math.toRadians(angle));
+        Mat4x4 matrix = new Mat4x4();
+        matrix.m[0] = cos;
+        matrix.m[2] = sin;
+        matrix.m[8] = -sin;
+        matrix.m[10] = cos;
+        return matrix;
+    }
+
+    /**
+     * @param angle the angle in degrees
+     * @return the rotation around the z axis
+     */
+    public static Mat4x4 rotationZ(float angle) {
+        float cos = (float)Math.cos(Math.toRadians(angle));
+        float sin = (float)Math.sin(Math.toRadians(angle));
+        Mat4x4 matrix = new Mat4x4();
+        matrix.m[0] = cos;
+        matrix.m[1] = -sin;
+        matrix.m[4] = sin;
+        matrix.m[5] = cos;
+        return matrix;
+    }
+
+    /**
+     * The perspective projection. The camera looks to the negative z axis,
+     * and the points between the near and the far planes end with a z
+     * between -w and w
+     *
+     * @param fov the vertical field of view, in degrees
+     * @param aspect the width divided by the height of the screen
+     * @param near the distance to the near plane
+     * @param far the distance to the far plane
+     * @return the projection matrix
+     */
+    public static Mat4x4 perspective(float fov, float aspect, float near, float far) {
+        float f = 1.0f / (float)Math.tan(Math.toRadians(fov) / 2.0);
+        Mat4x4 matrix = new Mat4x4();
+        matrix.m[0] = f / aspect;
+        matrix.m[5] = f;
+        matrix.m[10] = (far + near) / (near - far);
+        matrix.m[11] = 2.0f * far * near / (near - far);
+        matrix.m[14] = -1.0f;
+        matrix.m[15] = 0.0f;
+        return matrix;
+    }
+
+    /**
+     * The view matrix of a camera
+     *
+     * @param eye the position of the camera
+     * @param target the point what the camera looks at
+     * @param up the up direction
+     * @return the view matrix
+     */
+    public static Mat4x4 lookAt(Vec3df eye, Vec3df target, Vec3df up) {
+        // The forward axis, from the target to the eye
+        float fx = eye.getX() - target.getX();
+        float fy = eye.getY() - target.getY();
+        float fz = eye.getZ() - target.getZ();
+        float length = (float)Math.sqrt(fx * fx + fy * fy + fz * fz);
+        fx /= length;
+        fy /= length;
+        fz /= length;
+
+        // The right axis, up x forward
+        float rx = up.getY() * fz - up.getZ() * fy;
+        float ry = up.getZ() * fx - up.getX() * fz;
+        float rz = up.getX() * fy - up.getY() * fx;
+        length = (float)Math.sqrt(rx * rx + ry * ry + rz * rz);
+        rx /= length;
+        ry /= length;
+        rz /= length;
+
+        // The true up axis, forward x right
+        float ux = fy * rz - fz * ry;
+        float uy = fz * rx - fx * rz;
+        float uz = fx * ry - fy * rx;
+
+        return new Mat4x4(new float[] {
+                rx, ry, rz, -(rx * eye.getX() + ry * eye.getY() + rz * eye.getZ()),
+                ux, uy, uz, -(ux * eye.getX() + uy * eye.getY() + uz * eye.getZ()),
+                fx, fy, fz, -(fx * eye.getX() + fy * eye.getY() + fz * eye.getZ()),
+                0.0f, 0.0f, 0.0f, 1.0f
+        });
+    }
+
+    /**
+     * @param other the matrix of the right side
+     * @return a new matrix, this times the other. The other is applied first
+     */
+    public Mat4x4 multiply(Mat4x4 other) {
+        Mat4x4 result = new Mat4x4();
+        for ( int i = 0; i < 4; i++ ) {
+            for ( int j = 0; j < 4; j++ ) {
+                float sum = 0.0f;
+                for ( int k = 0; k < 4; k++ ) {
+                    sum += m[i * 4 + k] * other.m[k * 4 + j];
+                }
+                result.m[i * 4 + j] = sum;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Transforms a range of points
+     *
+     * @param src the points, x, y and z for each one
+     * @param dst the transformed points, x, y, z and w for each one
+     * @param from the first point
+     * @param to the point after the last one
+     */
+    public void transformPoints(float[] src, float[] dst, int from, int to) {
+        float m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3];
+        float m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+        float m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11];
+        float m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+        for ( int i = from; i < to; i++ ) {
+            float x = src[i * 3];
+            float y = src[i * 3 + 1];
+            float z = src[i * 3 + 2];
+            dst[i * 4] = m0 * x + m1 * y + m2 * z + m3;
+            dst[i * 4 + 1] = m4 * x + m5 * y + m6 * z + m7;
+            dst[i * 4 + 2] = m8 * x + m9 * y + m10 * z + m11;
+            dst[i * 4 + 3] = m12 * x + m13 * y + m14 * z + m15;
+        }
+    }
+
+    /**
+     * Transforms a range of directions with the 3x3 part of the matrix
+     * (without the translation), and normalizes them
+     *
+     * @param src the directions, x, y and z for each one
+     * @param dst the transformed directions, x, y and z for each one
+     * @param from the first direction
+     * @param to the direction after the last one
+     */
+    public void transformNormals(float[] src, float[] dst, int from, int to) {
+        for ( int i = from; i < to; i++ ) {
+            float x = src[i * 3];
+            float y = src[i * 3 + 1];
+            float z = src[i * 3 + 2];
+            float nx = m[0] * x + m[1] * y + m[2] * z;
+            float ny = m[4] * x + m[5] * y + m[6] * z;
+            float nz = m[8] * x + m[9] * y + m[10] * z;
+            float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if ( length > 0 ) {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+            dst[i * 3] = nx;
+            dst[i * 3 + 1] = ny;
+            dst[i * 3 + 2] = nz;
+        }
+    }
+
+    /**
+     * Transforms the vectors of a batch in place, with the first three rows
+     * of the matrix. The matrix must not have projection
+     *
+     * @param batch the vectors
+     */
+    public void transform(Vec3Batch batch) {
+        batch.transform(0, batch.getSize(), m);
+    }
+
+    /**
+     * @param row the row
+     * @param column the column
+     * @return the value
+     */
+    public float get(int row, int column) {
+        return m[row * 4 + column];
+    }
+
+    public void set(int row, int column, float value) {
+        m[row * 4 + column] = value;
+    }
+
+}
@@ -0,0 +1,185 @@
+package engine.gfx.render3d;
+
+import engine.gfx.images.Image;
+
+/**
+ * This class is a mesh of triangles. The vertices, the normals,
+ * the triangles and the colors are stored in packed arrays of
+ * primitives, so the pipeline can transform them in batches.
+ *
+ * The triangles are front faces when their vertices are in
+ * counter-clockwise order, seen from the outside.
+ *
+ * @class Mesh
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Mesh {
+
+    /**
+     * The positions of the vertices, x, y and z for each one
+     */
+    private float[] positions;
+
+    /**
+     * The normals of the vertices, x, y and z for each one
+     */
+    private float[] normals;
+
+    /**
+     * The indices of the vertices of the triangles, three for each one
+     */
+    private int[] indices;
+
+    /**
+     * The color of each triangle
+     */
+    private int[] colors;
+
+    /**
+     * The texture coordinates of the vertices, u and v for each one, or null
+     */
+    private float[] uvs;
+
+    /**
+     * The texture of all the triangles, or null if they have only color
+     */
+    private Image texture;
+
+    /**
+     * Constructor. The normals of the vertices are computed
+     * from the triangles what share them
+     *
+     * @param positions the positions of the vertices, x, y and z for each one
+     * @param indices the indices of the vertices of the triangles, three for each one
+     * @param colors the color of each triangle
+     */
+    public Mesh(float[] positions, int[] indices, int[] colors) {
+        this(positions, null, indices, colors);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param positions the positions of the vertices, x, y and z for each one
+     * @param normals the normals of the vertices, x, y and z for each one, or null for compute them
+     * @param indices the indices of the vertices of the triangles, three for each one
+     * @param colors the color of each triangle
+     */
+    public Mesh(float[] positions, float[] normals, int[] indices, int[] colors) {
+        if ( positions.length % 3 != 0 || indices.length % 3 != 0 || colors.length != indices.length / 3 ) {
+            throw new IllegalArgumentException("The sizes of the arrays of the mesh don't match");
+        }
+        this.positions = positions;
+        this.indices = indices;
+        this.colors = colors;
+        if ( normals == null ) {
+            computeNormals();
+        } else {
+            this.normals = normals;
+        }
+    }
+
+    /**
+     * Computes the normal of each vertex as the sum of the normals
+     * of its triangles, weighted by their areas
+     */
+    public void computeNormals() {
+        normals = new float[positions.length];
+        for ( int t = 0; t < indices.length; t += 3 ) {
+            int a = indices[t] * 3;
+            int b = indices[t + 1] * 3;
+            int c = indices[t + 2] * 3;
+            float e1x = positions[b] - positions[a];
+            float e1y = positions[b + 1] - positions[a + 1];
+            float e1z = positions[b + 2] - positions[a + 2];
+            float e2x = positions[c] - positions[a];
+            float e2y = positions[c + 1] - positions[a + 1];
+            float e2z = positions[c + 2] - positions[a + 2];
+            float nx = e1y * e2z - e1z * e2y;
+            float ny = e1z * e2x - e1x * e2z;
+            float nz = e1x * e2y - e1y * e2x;
+            addNormal(a, nx, ny, nz);
+            addNormal(b, nx, ny, nz);
+            addNormal(c, nx, ny, nz);
+        }
+        for ( int i = 0; i < normals.length; i += 3 ) {
+            float length = (float)Math.sqrt(normals[i] * normals[i] + normals[i + 1] * normals[i + 1] + normals[i + 2] * normals[i + 2]);
+            if ( length > 0 ) {
+                normals[i] /= length;
+                normals[i + 1] /= length;
+                normals[i + 2] /= length;
+            }
+        }
+    }
+
+    private void addNormal(int vertex, float nx, float ny, float nz) {
+        normals[vertex] += nx;
+        normals[vertex + 1] += ny;
+        normals[vertex + 2] += nz;
+    }
+
+    /**
+     * Sets the texture of the mesh. The colors of the triangles are
+     * not used while the mesh has texture
+     *
+     * @param texture the texture, or null for use the colors
+     * @param uvs the texture coordinates of the vertices, u and v for each one,
+     *            from 0 to 1 inside of the texture
+     */
+    public void setTexture(Image texture, float[] uvs) {
+        if ( texture != null && (uvs == null || uvs.length != getNumVertices() * 2) ) {
+            throw new IllegalArgumentException("The mesh needs two texture coordinates for each vertex");
+        }
+        this.texture = texture;
+        this.uvs = uvs;
+    }
+
+    /**
+     * Sets the texture coordinates of the vertices, for a texture what is set later
+     *
+     * @param uvs the texture coordinates of the vertices, u and v for each one, or null
+     */
+    public void setUvs(float[] uvs) {
+        if ( uvs != null && uvs.length != getNumVertices() * 2 ) {
+            throw new IllegalArgumentException("The mesh needs two texture coordinates for each vertex");
+        }
+        this.uvs = uvs;
+        if ( uvs == null ) {
+            texture = null;
+        }
+    }
+
+    public int getNumVertices() {
+        return positions.length / 3;
+    }
+
+    public int getNumTriangles() {
+        return indices.length / 3;
+    }
+
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public float[] getNormals() {
+        return normals;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int[] getColors() {
+        return colors;
+    }
+
+    public float[] getUvs() {
+        return uvs;
+    }
+
+    public Image getTexture() {
+        return texture;
+    }
+
+}
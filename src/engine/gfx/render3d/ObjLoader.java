@@ -0,0 +1,744 @@
+package engine.gfx.render3d;
+
+import engine.Parallel;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class loads meshes from Wavefront OBJ files. The file is mapped
+ * in memory and parsed straight into the packed arrays of a <class>Mesh</class>,
+ * without creating one object for each vertex.
+ *
+ * The file is parsed in two passes, and each pass splits the file in
+ * chunks of whole lines what are parsed in all the cores of the CPU:
+ * - The first pass counts the vertices, the texture coordinates, the
+ *   normals and the triangles of each chunk. With these counts, each
+ *   chunk knows where its values go in the arrays.
+ * - The second pass parses the numbers into the arrays.
+ *
+ * The faces with more than three vertices are split in a fan of triangles.
+ * When the faces use different indices for the positions, the texture
+ * coordinates or the normals, the vertices are rebuilt, one for each
+ * different combination of indices.
+ *
+ * Only the lines v, vt, vn and f are read. The rest of them (the groups,
+ * the materials...) are skipped.
+ *
+ * The meshes can be saved in a binary format, what is loaded with a few
+ * bulk copies. The loadCached method keeps this binary file next to the
+ * OBJ file, and rebuilds it when the OBJ file changes.
+ *
+ * @class ObjLoader
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class ObjLoader {
+
+    /**
+     * The minimum size of a chunk of the file, for not split the small files
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The first bytes of the binary format, "MESH"
+     */
+    private static final int MAGIC = 0x4d455348;
+
+    private static final int VERSION = 1;
+
+    /**
+     * The bytes of the header of the binary format: the magic, the version,
+     * the size and the modification time of the OBJ file, the number of
+     * vertices, the number of triangles and the flags
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    /**
+     * The flag of the binary format for the meshes with texture coordinates
+     */
+    private static final int HAS_UVS = 1;
+
+    /**
+     * The powers of ten what a double represents exactly
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * A range of lines of the file, with its counts and the positions
+     * of its values in the arrays of the mesh
+     */
+    private static class Chunk {
+
+        /**
+         * The first byte, and the byte after the last one
+         */
+        final int start;
+
+        final int end;
+
+        int numPositions;
+
+        int numUvs;
+
+        int numNormals;
+
+        int numTriangles;
+
+        int firstPosition;
+
+        int firstUv;
+
+        int firstNormal;
+
+        int firstTriangle;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+    /**
+     * The values of the file, as they are written in it. Each corner of
+     * each triangle has the indices of its position, its texture coordinates
+     * and its normal, from 0, or -1 if it doesn't have them
+     */
+    private static class ObjData {
+
+        float[] positions;
+
+        float[] uvs;
+
+        float[] normals;
+
+        int[] cornerPositions;
+
+        int[] cornerUvs;
+
+        int[] cornerNormals;
+
+    }
+
+    /**
+     * Reads the lines of a chunk of the mapped file
+     */
+    private static class Cursor {
+
+        private final MappedByteBuffer buffer;
+
+        private final int end;
+
+        private int position;
+
+        Cursor(MappedByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.position = start;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        /**
+         * @return the byte at the cursor plus an offset, or 0 after the end of the chunk
+         */
+        int peek(int offset) {
+            return position + offset < end ? buffer.get(position + offset) : 0;
+        }
+
+        void skip(int count) {
+            position += count;
+        }
+
+        void skipSpaces() {
+            while ( position < end ) {
+                byte b = buffer.get(position);
+                if ( b != ' ' && b != '\t' ) {
+                    break;
+                }
+                position++;
+            }
+        }
+
+        /**
+         * Moves the cursor to the start of the next line
+         */
+        void skipLine() {
+            while ( position < end && buffer.get(position) != '\n' ) {
+                position++;
+            }
+            position++;
+        }
+
+        boolean isAtLineEnd() {
+            if ( position >= end ) {
+                return true;
+            }
+            byte b = buffer.get(position);
+            return b == '\n' || b == '\r' || b == '#';
+        }
+
+        /**
+         * Skips a group of characters until the next space or the end of the line
+         */
+        void skipToken() {
+            while ( position < end ) {
+                byte b = buffer.get(position);
+                if ( b == ' ' || b == '\t' || b == '\n' || b == '\r' ) {
+                    break;
+                }
+                position++;
+            }
+        }
+
+        /**
+         * @return the number of groups of characters until the end of the line
+         */
+        int countTokens() {
+            int count = 0;
+            skipSpaces();
+            while ( !isAtLineEnd() ) {
+                skipToken();
+                skipSpaces();
+                count++;
+            }
+            return count;
+        }
+
+        int parseInt() throws IOException {
+            boolean isNegative = false;
+            if ( peek(0) == '-' ) {
+                isNegative = true;
+                position++;
+            } else if ( peek(0) == '+' ) {
+                position++;
+            }
+            int start = position;
+            int value = 0;
+            while ( position < end ) {
+                int digit = buffer.get(position) - '0';
+                if ( digit < 0 || digit > 9 ) {
+                    break;
+                }
+                value = value * 10 + digit;
+                position++;
+            }
+            if ( position == start ) {
+                throw new IOException("Number expected at the byte " + position);
+            }
+            return isNegative ? -value : value;
+        }
+
+        float parseFloat() throws IOException {
+            skipSpaces();
+            boolean isNegative = false;
+            if ( peek(0) == '-' ) {
+                isNegative = true;
+                position++;
+            } else if ( peek(0) == '+' ) {
+                position++;
+            }
+            int start = position;
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            int b = peek(0);
+            while ( b >= '0' && b <= '9' ) {
+                // The digits what don't fit in the mantissa only change the exponent
+                if ( digits < 18 ) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if ( mantissa != 0 ) {
+                        digits++;
+                    }
+                } else {
+                    exponent++;
+                }
+                position++;
+                b = peek(0);
+            }
+            if ( b == '.' ) {
+                position++;
+                b = peek(0);
+                while ( b >= '0' && b <= '9' ) {
+                    if ( digits < 18 ) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        exponent--;
+                        if ( mantissa != 0 ) {
+                            digits++;
+                        }
+                    }
+                    position++;
+                    b = peek(0);
+                }
+            }
+            if ( position == start ) {
+                throw new IOException("Number expected at the byte " + position);
+            }
+            if ( b == 'e' || b == 'E' ) {
+                position++;
+                exponent += parseInt();
+            }
+            double value = mantissa;
+            if ( exponent < 0 ) {
+                value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value * Math.pow(10, exponent);
+            } else if ( exponent > 0 ) {
+                value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+            }
+            return (float)(isNegative ? -value : value);
+        }
+
+    }
+
+    /**
+     * Loads a mesh from an OBJ file
+     *
+     * @param path the path of the file
+     * @param color the color of all the triangles
+     * @return the mesh
+     * @throws IOException if the file can't be read or it isn't a valid OBJ file
+     */
+    public static Mesh load(Path path, int color) throws IOException {
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            long size = channel.size();
+            if ( size > Integer.MAX_VALUE ) {
+                throw new IOException("The file is too large to be mapped: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Chunk[] chunks = split(buffer, (int)size);
+            count(buffer, chunks);
+            ObjData data = parse(buffer, chunks);
+            return build(data, color);
+        }
+    }
+
+    /**
+     * Loads a mesh from an OBJ file, or from its binary file if it is
+     * up to date. If it isn't, the binary file is written again
+     *
+     * @param path the path of the OBJ file
+     * @param cache the path of the binary file
+     * @param color the color of all the triangles, if the OBJ file is loaded
+     * @return the mesh
+     * @throws IOException if the OBJ file can't be read or it isn't a valid OBJ file
+     */
+    public static Mesh loadCached(Path path, Path cache, int color) throws IOException {
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        if ( Files.exists(cache) ) {
+            try {
+                Mesh mesh = readBinary(cache, size, modified);
+                if ( mesh != null ) {
+                    return mesh;
+                }
+            } catch ( IOException e ) {
+                System.out.println("The mesh cache could not be read: " + e.getMessage());
+            }
+        }
+        Mesh mesh = load(path, color);
+        try {
+            writeBinary(mesh, cache, size, modified);
+        } catch ( IOException e ) {
+            System.out.println("The mesh cache could not be written: " + e.getMessage());
+        }
+        return mesh;
+    }
+
+    /**
+     * Loads a mesh from a binary file
+     *
+     * @param path the path of the file
+     * @return the mesh
+     * @throws IOException if the file can't be read or it isn't a valid binary mesh
+     */
+    public static Mesh readBinary(Path path) throws IOException {
+        return readBinary(path, -1, -1);
+    }
+
+    /**
+     * Saves a mesh in a binary file
+     *
+     * @param mesh the mesh
+     * @param path the path of the file
+     * @throws IOException if the file can't be written
+     */
+    public static void writeBinary(Mesh mesh, Path path) throws IOException {
+        writeBinary(mesh, path, -1, -1);
+    }
+
+    /**
+     * @param sourceSize the size of the OBJ file what the binary file has to come from, or -1 for any
+     * @param sourceModified the modification time of the OBJ file, or -1 for any
+     * @return the mesh, or null if the binary file comes from other version of the OBJ file
+     */
+    private static Mesh readBinary(Path path, long sourceSize, long sourceModified) throws IOException {
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            long size = channel.size();
+            if ( size < HEADER_SIZE || size > Integer.MAX_VALUE ) {
+                throw new IOException("Invalid binary mesh: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if ( buffer.getInt() != MAGIC || buffer.getInt() != VERSION ) {
+                throw new IOException("Invalid binary mesh: " + path);
+            }
+            long fileSize = buffer.getLong();
+            long fileModified = buffer.getLong();
+            if ( (sourceSize >= 0 && fileSize != sourceSize) || (sourceModified >= 0 && fileModified != sourceModified) ) {
+                return null;
+            }
+            int numVertices = buffer.getInt();
+            int numTriangles = buffer.getInt();
+            int flags = buffer.getInt();
+            boolean hasUvs = (flags & HAS_UVS) != 0;
+            long expected = HEADER_SIZE + 4L * (numVertices * 6L + (hasUvs ? numVertices * 2L : 0) + numTriangles * 4L);
+            if ( numVertices < 0 || numTriangles < 0 || size != expected ) {
+                throw new IOException("Invalid binary mesh: " + path);
+            }
+
+            float[] positions = new float[numVertices * 3];
+            float[] normals = new float[numVertices * 3];
+            float[] uvs = hasUvs ? new float[numVertices * 2] : null;
+            int[] indices = new int[numTriangles * 3];
+            int[] colors = new int[numTriangles];
+            buffer.asFloatBuffer().get(positions);
+            buffer.position(buffer.position() + positions.length * 4);
+            buffer.asFloatBuffer().get(normals);
+            buffer.position(buffer.position() + normals.length * 4);
+            if ( hasUvs ) {
+                buffer.asFloatBuffer().get(uvs);
+                buffer.position(buffer.position() + uvs.length * 4);
+            }
+            buffer.asIntBuffer().get(indices);
+            buffer.position(buffer.position() + indices.length * 4);
+            buffer.asIntBuffer().get(colors);
+            for ( int index : indices ) {
+                if ( index < 0 || index >= numVertices ) {
+                    throw new IOException("Invalid binary mesh: " + path);
+                }
+            }
+
+            Mesh mesh = new Mesh(positions, normals, indices, colors);
+            if ( hasUvs ) {
+                mesh.setUvs(uvs);
+            }
+            return mesh;
+        }
+    }
+
+    private static void writeBinary(Mesh mesh, Path path, long sourceSize, long sourceModified) throws IOException {
+        float[] positions = mesh.getPositions();
+        float[] normals = mesh.getNormals();
+        float[] uvs = mesh.getUvs();
+        int[] indices = mesh.getIndices();
+        int[] colors = mesh.getColors();
+        long size = HEADER_SIZE + 4L * (positions.length + normals.length + (uvs != null ? uvs.length : 0) + indices.length + colors.length);
+        if ( size > Integer.MAX_VALUE ) {
+            throw new IOException("The mesh is too large for the binary format");
+        }
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING) ) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            // The magic is written at the end, so a file what is not complete is not valid
+            buffer.putInt(0);
+            buffer.putInt(VERSION);
+            buffer.putLong(sourceSize);
+            buffer.putLong(sourceModified);
+            buffer.putInt(mesh.getNumVertices());
+            buffer.putInt(mesh.getNumTriangles());
+            buffer.putInt(uvs != null ? HAS_UVS : 0);
+            buffer.asFloatBuffer().put(positions);
+            buffer.position(buffer.position() + positions.length * 4);
+            buffer.asFloatBuffer().put(normals);
+            buffer.position(buffer.position() + normals.length * 4);
+            if ( uvs != null ) {
+                buffer.asFloatBuffer().put(uvs);
+                buffer.position(buffer.position() + uvs.length * 4);
+            }
+            buffer.asIntBuffer().put(indices);
+            buffer.position(buffer.position() + indices.length * 4);
+            buffer.asIntBuffer().put(colors);
+            buffer.force();
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Splits the file in chunks of whole lines, one or more for each thread
+     */
+    private static Chunk[] split(MappedByteBuffer buffer, int size) {
+        int numChunks = Math.max(1, Math.min(Parallel.getParallelism() * 4, size / MIN_CHUNK_SIZE));
+        Chunk[] chunks = new Chunk[numChunks];
+        int start = 0;
+        for ( int i = 0; i < numChunks; i++ ) {
+            int end = (int)((long)size * (i + 1) / numChunks);
+            while ( end < size && buffer.get(end - 1) != '\n' ) {
+                end++;
+            }
+            end = Math.max(start, end);
+            chunks[i] = new Chunk(start, end);
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * The first pass. Counts the values of each chunk, and computes
+     * where they go in the arrays
+     */
+    private static void count(MappedByteBuffer buffer, Chunk[] chunks) {
+        Parallel.forEach(chunks.length, i -> {
+            Chunk chunk = chunks[i];
+            Cursor cursor = new Cursor(buffer, chunk.start, chunk.end);
+            while ( cursor.hasMore() ) {
+                cursor.skipSpaces();
+                int first = cursor.peek(0);
+                int second = cursor.peek(1);
+                if ( first == 'v' ) {
+                    if ( second == ' ' || second == '\t' ) {
+                        chunk.numPositions++;
+                    } else if ( second == 't' ) {
+                        chunk.numUvs++;
+                    } else if ( second == 'n' ) {
+                        chunk.numNormals++;
+                    }
+                } else if ( first == 'f' && (second == ' ' || second == '\t') ) {
+                    cursor.skip(1);
+                    chunk.numTriangles += Math.max(0, cursor.countTokens() - 2);
+                }
+                cursor.skipLine();
+            }
+        });
+        for ( int i = 1; i < chunks.length; i++ ) {
+            Chunk previous = chunks[i - 1];
+            chunks[i].firstPosition = previous.firstPosition + previous.numPositions;
+            chunks[i].firstUv = previous.firstUv + previous.numUvs;
+            chunks[i].firstNormal = previous.firstNormal + previous.numNormals;
+            chunks[i].firstTriangle = previous.firstTriangle + previous.numTriangles;
+        }
+    }
+
+    /**
+     * The second pass. Parses the values of each chunk into their places in the arrays
+     */
+    private static ObjData parse(MappedByteBuffer buffer, Chunk[] chunks) throws IOException {
+        Chunk last = chunks[chunks.length - 1];
+        ObjData data = new ObjData();
+        data.positions = new float[(last.firstPosition + last.numPositions) * 3];
+        data.uvs = new float[(last.firstUv + last.numUvs) * 2];
+        data.normals = new float[(last.firstNormal + last.numNormals) * 3];
+        int numCorners = (last.firstTriangle + last.numTriangles) * 3;
+        data.cornerPositions = new int[numCorners];
+        data.cornerUvs = new int[numCorners];
+        data.cornerNormals = new int[numCorners];
+
+        IOException[] errors = new IOException[chunks.length];
+        Parallel.forEach(chunks.length, i -> {
+            try {
+                parseChunk(buffer, chunks[i], data);
+            } catch ( IOException e ) {
+                errors[i] = e;
+            }
+        });
+        for ( IOException error : errors ) {
+            if ( error != null ) {
+                throw error;
+            }
+        }
+        return data;
+    }
+
+    private static void parseChunk(MappedByteBuffer buffer, Chunk chunk, ObjData data) throws IOException {
+        Cursor cursor = new Cursor(buffer, chunk.start, chunk.end);
+        int position = chunk.firstPosition;
+        int uv = chunk.firstUv;
+        int normal = chunk.firstNormal;
+        int corner = chunk.firstTriangle * 3;
+        // The indices of the first and the previous vertices of the face, for the fan
+        int[] first = new int[3];
+        int[] previous = new int[3];
+        int[] current = new int[3];
+
+        while ( cursor.hasMore() ) {
+            cursor.skipSpaces();
+            int type = cursor.peek(0);
+            int subtype = cursor.peek(1);
+            if ( type == 'v' && (subtype == ' ' || subtype == '\t') ) {
+                cursor.skip(1);
+                data.positions[position * 3] = cursor.parseFloat();
+                data.positions[position * 3 + 1] = cursor.parseFloat();
+                data.positions[position * 3 + 2] = cursor.parseFloat();
+                position++;
+            } else if ( type == 'v' && subtype == 't' ) {
+                cursor.skip(2);
+                data.uvs[uv * 2] = cursor.parseFloat();
+                cursor.skipSpaces();
+                // The v axis of the OBJ files goes up, and the rows of the images go down
+                data.uvs[uv * 2 + 1] = 1.0f - (cursor.isAtLineEnd() ? 0.0f : cursor.parseFloat());
+                uv++;
+            } else if ( type == 'v' && subtype == 'n' ) {
+                cursor.skip(2);
+                data.normals[normal * 3] = cursor.parseFloat();
+                data.normals[normal * 3 + 1] = cursor.parseFloat();
+                data.normals[normal * 3 + 2] = cursor.parseFloat();
+                normal++;
+            } else if ( type == 'f' && (subtype == ' ' || subtype == '\t') ) {
+                cursor.skip(1);
+                cursor.skipSpaces();
+                int numVertices = 0;
+                while ( !cursor.isAtLineEnd() ) {
+                    parseFaceVertex(cursor, current, position, uv, normal, data);
+                    if ( numVertices == 0 ) {
+                        System.arraycopy(current, 0, first, 0, 3);
+                    } else if ( numVertices >= 2 ) {
+                        setCorner(data, corner++, first);
+                        setCorner(data, corner++, previous);
+                        setCorner(data, corner++, current);
+                    }
+                    System.arraycopy(current, 0, previous, 0, 3);
+                    numVertices++;
+                    cursor.skipSpaces();
+                }
+            }
+            cursor.skipLine();
+        }
+    }
+
+    /**
+     * Parses a vertex of a face, "v", "v/vt", "v//vn" or "v/vt/vn". The negative
+     * indices count back from the last value what is defined before the face
+     *
+     * @param indices the indices of the position, the texture coordinates and the normal, from 0, or -1
+     */
+    private static void parseFaceVertex(Cursor cursor, int[] indices, int numPositions, int numUvs, int numNormals,
+                                        ObjData data) throws IOException {
+        indices[0] = resolveIndex(cursor.parseInt(), numPositions, data.positions.length / 3);
+        indices[1] = -1;
+        indices[2] = -1;
+        if ( cursor.peek(0) == '/' ) {
+            cursor.skip(1);
+            if ( cursor.peek(0) != '/' ) {
+                indices[1] = resolveIndex(cursor.parseInt(), numUvs, data.uvs.length / 2);
+            }
+            if ( cursor.peek(0) == '/' ) {
+                cursor.skip(1);
+                indices[2] = resolveIndex(cursor.parseInt(), numNormals, data.normals.length / 3);
+            }
+        }
+        cursor.skipToken();
+    }
+
+    private static int resolveIndex(int index, int defined, int total) throws IOException {
+        int resolved = index < 0 ? defined + index : index - 1;
+        if ( index == 0 || resolved < 0 || resolved >= total ) {
+            throw new IOException("Invalid index in a face: " + index);
+        }
+        return resolved;
+    }
+
+    private static void setCorner(ObjData data, int corner, int[] indices) {
+        data.cornerPositions[corner] = indices[0];
+        data.cornerUvs[corner] = indices[1];
+        data.cornerNormals[corner] = indices[2];
+    }
+
+    /**
+     * Builds the mesh. If all the corners use the same index for the position,
+     * the texture coordinates and the normal, the arrays of the file are used
+     * as they are. If they don't, one vertex is made for each different
+     * combination of indices
+     */
+    private static Mesh build(ObjData data, int color) {
+        int[] cornerPositions = data.cornerPositions;
+        int[] cornerUvs = data.cornerUvs;
+        int[] cornerNormals = data.cornerNormals;
+        int numCorners = cornerPositions.length;
+        boolean hasUvs = data.uvs.length > 0;
+        boolean hasNormals = data.normals.length > 0;
+        boolean isShared = true;
+        for ( int i = 0; i < numCorners; i++ ) {
+            int position = cornerPositions[i];
+            hasUvs &= cornerUvs[i] >= 0;
+            hasNormals &= cornerNormals[i] >= 0;
+            isShared &= (cornerUvs[i] < 0 || cornerUvs[i] == position) && (cornerNormals[i] < 0 || cornerNormals[i] == position);
+        }
+        int numPositions = data.positions.length / 3;
+        isShared &= (!hasUvs || data.uvs.length / 2 == numPositions) && (!hasNormals || data.normals.length / 3 == numPositions);
+
+        int[] colors = new int[numCorners / 3];
+        Arrays.fill(colors, color);
+        Mesh mesh;
+        if ( isShared ) {
+            mesh = new Mesh(data.positions, hasNormals ? data.normals : null, cornerPositions, colors);
+            if ( hasUvs ) {
+                mesh.setUvs(data.uvs);
+            }
+            return mesh;
+        }
+
+        // A table of the combinations of indices, with open addressing
+        int capacity = Integer.highestOneBit(Math.max(16, numCorners * 2 - 1)) << 1;
+        int mask = capacity - 1;
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, -1);
+        int[] indices = new int[numCorners];
+        // The corner what defines each new vertex
+        int[] sources = new int[numCorners];
+        int numVertices = 0;
+        for ( int i = 0; i < numCorners; i++ ) {
+            int position = cornerPositions[i];
+            int uv = hasUvs ? cornerUvs[i] : -1;
+            int normal = hasNormals ? cornerNormals[i] : -1;
+            int slot = ((position * 73856093) ^ (uv * 19349663) ^ (normal * 83492791)) & mask;
+            while ( true ) {
+                int vertex = slots[slot];
+                if ( vertex < 0 ) {
+                    slots[slot] = numVertices;
+                    sources[numVertices] = i;
+                    indices[i] = numVertices++;
+                    break;
+                }
+                int source = sources[vertex];
+                if ( cornerPositions[source] == position &&
+                        (!hasUvs || cornerUvs[source] == uv) && (!hasNormals || cornerNormals[source] == normal) ) {
+                    indices[i] = vertex;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        float[] positions = new float[numVertices * 3];
+        float[] normals = hasNormals ? new float[numVertices * 3] : null;
+        float[] uvs = hasUvs ? new float[numVertices * 2] : null;
+        for ( int vertex = 0; vertex < numVertices; vertex++ ) {
+            int source = sources[vertex];
+            System.arraycopy(data.positions, cornerPositions[source] * 3, positions, vertex * 3, 3);
+            if ( hasNormals ) {
+                System.arraycopy(data.normals, cornerNormals[source] * 3, normals, vertex * 3, 3);
+            }
+            if ( hasUvs ) {
+                System.arraycopy(data.uvs, cornerUvs[source] * 2, uvs, vertex * 2, 2);
+            }
+        }
+        mesh = new Mesh(positions, normals, indices, colors);
+        if ( hasUvs ) {
+            mesh.setUvs(uvs);
+        }
+        return mesh;
+    }
+
+}
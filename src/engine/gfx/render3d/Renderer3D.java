@@ -0,0 +1,848 @@
+package engine.gfx.render3d;
+
+import engine.Parallel;
+import engine.gfx.DirtyRegion;
+import engine.gfx.Painter;
+import engine.gfx.Renderer;
+import engine.gfx.images.Image;
+import engine.vectors.points3d.Vec3df;
+
+import java.util.Arrays;
+
+/**
+ * This class is a software 3D pipeline. It draws meshes of triangles
+ * over the pixels of a <class>Renderer</class>, with its own depth buffer.
+ *
+ * Each mesh passes through these stages:
+ * - The vertices are transformed to clip space in batches, and for the
+ *   Gouraud shading, the light of each vertex is computed.
+ * - The triangles are rejected if they are outside of the view, clipped
+ *   by the near and far planes, projected to the screen, culled if they
+ *   are back faces, and shaded. The result is kept in triangle buffers.
+ * - When the frame is processed, the screen is divided in horizontal
+ *   bands, and each band rasterizes the triangles what cross it.
+ *
+ * The vertices and the triangles are split in pieces, and the pieces
+ * and the bands run in all the cores of the CPU.
+ *
+ * The triangles can have a color or a texture. The textures are sampled
+ * with perspective correction, and the textured triangles are rasterized
+ * in tiles of 8x8 pixels, so the texels what are read together are near
+ * in the texture too.
+ *
+ * The light is a directional light plus an ambient light. The normals
+ * are transformed with the model matrix, so the model matrix must only
+ * have rotations, translations and uniform scales.
+ *
+ * The triangles are written to the pixels when the frame is processed.
+ * A <class>DeferredRenderer</class> draws its recorded 2D calls later, in
+ * its own process, so they are drawn over the 3D triangles.
+ *
+ * @class Renderer3D
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Renderer3D implements Painter {
+
+    /**
+     * The minimum number of triangles or vertices of a piece, for
+     * not split the small meshes
+     */
+    private static final int MIN_PIECE_SIZE = 1024;
+
+    /**
+     * The minimum height of a band
+     */
+    private static final int MIN_BAND_HEIGHT = 8;
+
+    /**
+     * The width and the height of the tiles of the textured triangles
+     */
+    private static final int TILE_SIZE = 8;
+
+    /**
+     * The bits of the outcode of a vertex, for each plane of the view
+     */
+    private static final int LEFT = 1;
+
+    private static final int RIGHT = 2;
+
+    private static final int BOTTOM = 4;
+
+    private static final int TOP = 8;
+
+    private static final int NEAR = 16;
+
+    private static final int FAR = 32;
+
+    /**
+     * The renderer where the triangles are drawn
+     */
+    private final Renderer renderer;
+
+    /**
+     * The width of the screen
+     */
+    private final int pW;
+
+    /**
+     * The height of the screen
+     */
+    private final int pH;
+
+    /**
+     * The depth buffer. The depth of each pixel, between -1 (the near
+     * plane) and 1 (the far plane)
+     */
+    private final float[] depth;
+
+    /**
+     * If the depth buffer has to be cleared before rasterize
+     */
+    private boolean isClearingDepth = true;
+
+    private Mat4x4 view = new Mat4x4();
+
+    private Mat4x4 projection;
+
+    /**
+     * The direction towards the light, normalized
+     */
+    private float lightX = 0.0f;
+
+    private float lightY = 0.0f;
+
+    private float lightZ = 1.0f;
+
+    /**
+     * The ambient light, between 0 and 1
+     */
+    private float ambient = 0.2f;
+
+    /**
+     * Flag for shade the triangles with the light of each vertex
+     * interpolated (Gouraud), instead of one light for each triangle (flat)
+     */
+    private boolean isShadingGouraud = false;
+
+    /**
+     * Flag for don't draw the triangles what look away from the camera
+     */
+    private boolean isCullingBackFaces = true;
+
+    /**
+     * Flag for repeat the textures outside of the coordinates from 0 to 1,
+     * instead of clamp them to the borders
+     */
+    private boolean isWrappingTextures = true;
+
+    /**
+     * The vertices in clip space, x, y, z and w for each one
+     */
+    private float[] clip = new float[0];
+
+    /**
+     * The normals of the vertices transformed by the model matrix
+     */
+    private float[] normals = new float[0];
+
+    /**
+     * The light of each vertex
+     */
+    private float[] intensities = new float[0];
+
+    /**
+     * The vertices of the single triangles, in the world and in clip space
+     */
+    private final float[] trianglePositions = new float[9];
+
+    private final float[] triangleVertices = new float[12];
+
+    /**
+     * The triangles of each piece, ready to be rasterized
+     */
+    private final TriangleBuffer[] buffers;
+
+    /**
+     * The number of bands of the screen
+     */
+    private final int numBands;
+
+    /**
+     * The first column and the column after the last one of each row of
+     * a strip of tiles, for each band. They are reused by the textured triangles
+     */
+    private final int[][] bandStarts;
+
+    private final int[][] bandEnds;
+
+    /**
+     * Constructor
+     * @param renderer the renderer where the triangles are drawn
+     */
+    public Renderer3D(Renderer renderer) {
+        this.renderer = renderer;
+        pW = renderer.getpW();
+        pH = renderer.getpH();
+        depth = new float[pW * pH];
+        projection = Mat4x4.perspective(60.0f, (float)pW / pH, 0.1f, 1000.0f);
+        buffers = new TriangleBuffer[Parallel.getParallelism()];
+        for ( int i = 0; i < buffers.length; i++ ) {
+            buffers[i] = new TriangleBuffer();
+        }
+        numBands = Math.max(1, Math.min(pH / MIN_BAND_HEIGHT, Parallel.getParallelism() * 4));
+        bandStarts = new int[numBands][TILE_SIZE];
+        bandEnds = new int[numBands][TILE_SIZE];
+    }
+
+    /**
+     * Clears the depth buffer. It is done by the bands, when the frame is processed
+     */
+    public void clear() {
+        isClearingDepth = true;
+    }
+
+    /**
+     * Transforms, clips, culls, shades and projects the triangles of a mesh.
+     * They are drawn when the frame is processed
+     *
+     * @param mesh the mesh
+     * @param model the transformation of the mesh
+     */
+    public void drawMesh(Mesh mesh, Mat4x4 model) {
+        int numVertices = mesh.getNumVertices();
+        int numTriangles = mesh.getNumTriangles();
+        if ( numTriangles == 0 ) {
+            return;
+        }
+        if ( clip.length < numVertices * 4 ) {
+            clip = new float[numVertices * 4];
+            normals = new float[numVertices * 3];
+            intensities = new float[numVertices];
+        }
+        Mat4x4 mvp = projection.multiply(view).multiply(model);
+
+        int vertexPieces = Math.max(1, Math.min(buffers.length, numVertices / MIN_PIECE_SIZE));
+        Parallel.forEach(vertexPieces, piece -> {
+            int from = piece * numVertices / vertexPieces;
+            int to = (piece + 1) * numVertices / vertexPieces;
+            mvp.transformPoints(mesh.getPositions(), clip, from, to);
+            if ( isShadingGouraud ) {
+                model.transformNormals(mesh.getNormals(), normals, from, to);
+                for ( int i = from; i < to; i++ ) {
+                    intensities[i] = shade(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]);
+                }
+            }
+        });
+
+        int trianglePieces = Math.max(1, Math.min(buffers.length, numTriangles / MIN_PIECE_SIZE));
+        Parallel.forEach(trianglePieces, piece -> setupTriangles(mesh, model,
+                piece * numTriangles / trianglePieces, (piece + 1) * numTriangles / trianglePieces, buffers[piece]));
+    }
+
+    /**
+     * Clips, culls, shades and projects one textured triangle. It is drawn
+     * when the frame is processed. The texture coordinates go from 0 to 1
+     * inside of the texture. The transparent texels are not drawn, and the
+     * rest of them are drawn opaque
+     *
+     * @param p1 the first vertex, in the world
+     * @param u1 the u coordinate of the first vertex
+     * @param v1 the v coordinate of the first vertex
+     * @param p2 the second vertex, in the world
+     * @param u2 the u coordinate of the second vertex
+     * @param v2 the v coordinate of the second vertex
+     * @param p3 the third vertex, in the world
+     * @param u3 the u coordinate of the third vertex
+     * @param v3 the v coordinate of the third vertex
+     * @param texture the texture
+     */
+    public void drawTexturedTriangle(Vec3df p1, float u1, float v1, Vec3df p2, float u2, float v2,
+                                     Vec3df p3, float u3, float v3, Image texture) {
+        TriangleBuffer buffer = buffers[0];
+        float[] polygon = buffer.polygon;
+        Mat4x4 viewProjection = projection.multiply(view);
+        float[] positions = trianglePositions;
+        float[] vertices = triangleVertices;
+        positions[0] = p1.getX();
+        positions[1] = p1.getY();
+        positions[2] = p1.getZ();
+        positions[3] = p2.getX();
+        positions[4] = p2.getY();
+        positions[5] = p2.getZ();
+        positions[6] = p3.getX();
+        positions[7] = p3.getY();
+        positions[8] = p3.getZ();
+        viewProjection.transformPoints(positions, vertices, 0, 3);
+        int codeA = getOutcode(vertices, 0);
+        int codeB = getOutcode(vertices, 1);
+        int codeC = getOutcode(vertices, 2);
+        if ( (codeA & codeB & codeC) != 0 ) {
+            return;
+        }
+
+        float e1x = positions[3] - positions[0];
+        float e1y = positions[4] - positions[1];
+        float e1z = positions[5] - positions[2];
+        float e2x = positions[6] - positions[0];
+        float e2y = positions[7] - positions[1];
+        float e2z = positions[8] - positions[2];
+        float nx = e1y * e2z - e1z * e2y;
+        float ny = e1z * e2x - e1x * e2z;
+        float nz = e1x * e2y - e1y * e2x;
+        float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+        float intensity = length > 0 ? shade(nx / length, ny / length, nz / length) : ambient;
+
+        setPolygonVertex(polygon, 0, vertices, 0, intensity, u1, v1);
+        setPolygonVertex(polygon, 1, vertices, 1, intensity, u2, v2);
+        setPolygonVertex(polygon, 2, vertices, 2, intensity, u3, v3);
+        int numVertices = 3;
+        if ( ((codeA | codeB | codeC) & (NEAR | FAR)) != 0 ) {
+            numVertices = clipPolygon(buffer, numVertices, 1.0f);
+            numVertices = clipPolygon(buffer, numVertices, -1.0f);
+            if ( numVertices < 3 ) {
+                return;
+            }
+        }
+        emitPolygon(buffer, numVertices, 0, texture);
+    }
+
+    /**
+     * Rasterizes all the triangles drawn since the last process,
+     * each band of the screen in parallel
+     */
+    public void process() {
+        int[] p = renderer.getP();
+        Parallel.forEach(numBands, band -> rasterize(p, band, band * pH / numBands, (band + 1) * pH / numBands));
+        isClearingDepth = false;
+
+        DirtyRegion damage = renderer.getDamage();
+        for ( TriangleBuffer buffer : buffers ) {
+            if ( damage != null && buffer.size > 0 ) {
+                damage.add(buffer.minX, buffer.minY, buffer.maxX, buffer.maxY);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * @return the light of a normal, between the ambient light and 1
+     */
+    private float shade(float nx, float ny, float nz) {
+        float diffuse = nx * lightX + ny * lightY + nz * lightZ;
+        return ambient + (1.0f - ambient) * Math.max(0.0f, diffuse);
+    }
+
+    /**
+     * @param vertices the vertices in clip space, x, y, z and w for each one
+     * @param vertex the vertex
+     * @return which planes of the view have the vertex outside
+     */
+    private int getOutcode(float[] vertices, int vertex) {
+        float x = vertices[vertex * 4];
+        float y = vertices[vertex * 4 + 1];
+        float z = vertices[vertex * 4 + 2];
+        float w = vertices[vertex * 4 + 3];
+        int code = 0;
+        if ( x < -w ) {
+            code |= LEFT;
+        }
+        if ( x > w ) {
+            code |= RIGHT;
+        }
+        if ( y < -w ) {
+            code |= BOTTOM;
+        }
+        if ( y > w ) {
+            code |= TOP;
+        }
+        if ( z < -w ) {
+            code |= NEAR;
+        }
+        if ( z > w ) {
+            code |= FAR;
+        }
+        return code;
+    }
+
+    /**
+     * Prepares a range of triangles of a mesh to be rasterized
+     */
+    private void setupTriangles(Mesh mesh, Mat4x4 model, int from, int to, TriangleBuffer buffer) {
+        int[] indices = mesh.getIndices();
+        int[] colors = mesh.getColors();
+        float[] positions = mesh.getPositions();
+        float[] uvs = mesh.getUvs();
+        Image texture = mesh.getTexture();
+        float m00 = model.get(0, 0), m01 = model.get(0, 1), m02 = model.get(0, 2);
+        float m10 = model.get(1, 0), m11 = model.get(1, 1), m12 = model.get(1, 2);
+        float m20 = model.get(2, 0), m21 = model.get(2, 1), m22 = model.get(2, 2);
+        float[] polygon = buffer.polygon;
+
+        for ( int t = from; t < to; t++ ) {
+            int a = indices[t * 3];
+            int b = indices[t * 3 + 1];
+            int c = indices[t * 3 + 2];
+            int codeA = getOutcode(clip, a);
+            int codeB = getOutcode(clip, b);
+            int codeC = getOutcode(clip, c);
+            if ( (codeA & codeB & codeC) != 0 ) {
+                continue;
+            }
+
+            float intensityA;
+            float intensityB;
+            float intensityC;
+            if ( isShadingGouraud ) {
+                intensityA = intensities[a];
+                intensityB = intensities[b];
+                intensityC = intensities[c];
+            } else {
+                // The normal of the face, transformed by the model
+                float e1x = positions[b * 3] - positions[a * 3];
+                float e1y = positions[b * 3 + 1] - positions[a * 3 + 1];
+                float e1z = positions[b * 3 + 2] - positions[a * 3 + 2];
+                float e2x = positions[c * 3] - positions[a * 3];
+                float e2y = positions[c * 3 + 1] - positions[a * 3 + 1];
+                float e2z = positions[c * 3 + 2] - positions[a * 3 + 2];
+                float x = e1y * e2z - e1z * e2y;
+                float y = e1z * e2x - e1x * e2z;
+                float z = e1x * e2y - e1y * e2x;
+                float nx = m00 * x + m01 * y + m02 * z;
+                float ny = m10 * x + m11 * y + m12 * z;
+                float nz = m20 * x + m21 * y + m22 * z;
+                float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+                intensityA = length > 0 ? shade(nx / length, ny / length, nz / length) : ambient;
+                intensityB = intensityA;
+                intensityC = intensityA;
+            }
+
+            if ( texture != null ) {
+                setPolygonVertex(polygon, 0, clip, a, intensityA, uvs[a * 2], uvs[a * 2 + 1]);
+                setPolygonVertex(polygon, 1, clip, b, intensityB, uvs[b * 2], uvs[b * 2 + 1]);
+                setPolygonVertex(polygon, 2, clip, c, intensityC, uvs[c * 2], uvs[c * 2 + 1]);
+            } else {
+                setPolygonVertex(polygon, 0, clip, a, intensityA, 0.0f, 0.0f);
+                setPolygonVertex(polygon, 1, clip, b, intensityB, 0.0f, 0.0f);
+                setPolygonVertex(polygon, 2, clip, c, intensityC, 0.0f, 0.0f);
+            }
+            int numVertices = 3;
+            if ( ((codeA | codeB | codeC) & (NEAR | FAR)) != 0 ) {
+                numVertices = clipPolygon(buffer, numVertices, 1.0f);
+                numVertices = clipPolygon(buffer, numVertices, -1.0f);
+                if ( numVertices < 3 ) {
+                    continue;
+                }
+            }
+            emitPolygon(buffer, numVertices, colors[t], texture);
+        }
+    }
+
+    private void setPolygonVertex(float[] polygon, int i, float[] vertices, int vertex, float intensity, float u, float v) {
+        int index = i * TriangleBuffer.POLYGON_VERTEX_SIZE;
+        polygon[index] = vertices[vertex * 4];
+        polygon[index + 1] = vertices[vertex * 4 + 1];
+        polygon[index + 2] = vertices[vertex * 4 + 2];
+        polygon[index + 3] = vertices[vertex * 4 + 3];
+        polygon[index + 4] = intensity;
+        polygon[index + 5] = u;
+        polygon[index + 6] = v;
+    }
+
+    /**
+     * Clips the polygon of the buffer by the near plane (z >= -w) or the far
+     * plane (z <= w). The vertices what are outside are replaced by the points
+     * where the edges cross the plane
+     *
+     * @param buffer the buffer with the polygon
+     * @param numVertices the number of vertices of the polygon
+     * @param side 1 for the near plane, -1 for the far plane
+     * @return the number of vertices of the clipped polygon
+     */
+    private int clipPolygon(TriangleBuffer buffer, int numVertices, float side) {
+        float[] in = buffer.polygon;
+        float[] out = buffer.clipped;
+        int size = TriangleBuffer.POLYGON_VERTEX_SIZE;
+        int count = 0;
+        for ( int i = 0; i < numVertices; i++ ) {
+            int current = i * size;
+            int next = ((i + 1) % numVertices) * size;
+            float distanceCurrent = in[current + 3] + side * in[current + 2];
+            float distanceNext = in[next + 3] + side * in[next + 2];
+            if ( distanceCurrent >= 0 ) {
+                System.arraycopy(in, current, out, count * size, size);
+                count++;
+            }
+            if ( (distanceCurrent >= 0) != (distanceNext >= 0) ) {
+                float t = distanceCurrent / (distanceCurrent - distanceNext);
+                for ( int k = 0; k < size; k++ ) {
+                    out[count * size + k] = in[current + k] + t * (in[next + k] - in[current + k]);
+                }
+                count++;
+            }
+        }
+        System.arraycopy(out, 0, in, 0, count * size);
+        return count;
+    }
+
+    /**
+     * Projects the polygon of the buffer to the screen, and adds its
+     * triangles (a fan from the first vertex) if they look to the camera.
+     * The texture coordinates are divided by w, for interpolate them
+     * linearly in the screen
+     */
+    private void emitPolygon(TriangleBuffer buffer, int numVertices, int color, Image texture) {
+        float[] polygon = buffer.polygon;
+        float[] projected = buffer.projected;
+        int size = TriangleBuffer.VERTEX_SIZE;
+        int polygonSize = TriangleBuffer.POLYGON_VERTEX_SIZE;
+        for ( int i = 0; i < numVertices; i++ ) {
+            int index = i * polygonSize;
+            float invW = 1.0f / polygon[index + 3];
+            projected[i * size] = (polygon[index] * invW + 1.0f) * 0.5f * pW;
+            projected[i * size + 1] = (1.0f - polygon[index + 1] * invW) * 0.5f * pH;
+            projected[i * size + 2] = polygon[index + 2] * invW;
+            projected[i * size + 3] = polygon[index + 4];
+            projected[i * size + 4] = polygon[index + 5] * invW;
+            projected[i * size + 5] = polygon[index + 6] * invW;
+            projected[i * size + 6] = invW;
+        }
+        for ( int i = 1; i < numVertices - 1; i++ ) {
+            float x0 = projected[0];
+            float y0 = projected[1];
+            float x1 = projected[i * size];
+            float y1 = projected[i * size + 1];
+            float x2 = projected[(i + 1) * size];
+            float y2 = projected[(i + 1) * size + 1];
+            // The counter-clockwise triangles are clockwise in screen, because the y axis goes down
+            float area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+            if ( area == 0 || (isCullingBackFaces && area > 0) ) {
+                continue;
+            }
+            int left = Math.max(0, (int)Math.floor(Math.min(x0, Math.min(x1, x2))));
+            int top = Math.max(0, (int)Math.floor(Math.min(y0, Math.min(y1, y2))));
+            int right = Math.min(pW, (int)Math.ceil(Math.max(x0, Math.max(x1, x2))));
+            int bottom = Math.min(pH, (int)Math.ceil(Math.max(y0, Math.max(y1, y2))));
+            if ( left >= right || top >= bottom ) {
+                continue;
+            }
+            buffer.cover(left, top, right, bottom);
+            buffer.add(projected, 0, i, i + 1, color, texture);
+        }
+    }
+
+    /**
+     * Rasterizes the triangles what cross the rows between top and bottom
+     *
+     * @param p the pixels of the screen
+     * @param band the band of the rows
+     * @param top the first row
+     * @param bottom the row after the last row
+     */
+    private void rasterize(int[] p, int band, int top, int bottom) {
+        if ( isClearingDepth ) {
+            Arrays.fill(depth, top * pW, bottom * pW, Float.POSITIVE_INFINITY);
+        }
+        int[] starts = bandStarts[band];
+        int[] ends = bandEnds[band];
+        int size = TriangleBuffer.VERTEX_SIZE;
+        for ( TriangleBuffer buffer : buffers ) {
+            float[] data = buffer.data;
+            for ( int t = 0; t < buffer.size; t++ ) {
+                int i = t * TriangleBuffer.STRIDE;
+                float minY = Math.min(data[i + 1], Math.min(data[i + size + 1], data[i + 2 * size + 1]));
+                float maxY = Math.max(data[i + 1], Math.max(data[i + size + 1], data[i + 2 * size + 1]));
+                int firstRow = Math.max(top, (int)Math.ceil(minY - 0.5f));
+                int lastRow = Math.min(bottom, (int)Math.ceil(maxY - 0.5f));
+                if ( firstRow >= lastRow ) {
+                    continue;
+                }
+                if ( buffer.textures[t] != null ) {
+                    rasterizeTexturedTriangle(p, data, i, buffer.textures[t], firstRow, lastRow, starts, ends);
+                } else {
+                    rasterizeTriangle(p, data, i, buffer.colors[t], firstRow, lastRow);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rasterizes the rows of a triangle. The pixels are inside if their
+     * centers are inside. The depth and the light are planes over the
+     * triangle, so they are stepped with one addition for each pixel
+     */
+    private void rasterizeTriangle(int[] p, float[] data, int i, int color, int firstRow, int lastRow) {
+        int size = TriangleBuffer.VERTEX_SIZE;
+        float x0 = data[i];
+        float y0 = data[i + 1];
+        float z0 = data[i + 2];
+        float l0 = data[i + 3];
+        float x1 = data[i + size];
+        float y1 = data[i + size + 1];
+        float z1 = data[i + size + 2];
+        float l1 = data[i + size + 3];
+        float x2 = data[i + 2 * size];
+        float y2 = data[i + 2 * size + 1];
+        float z2 = data[i + 2 * size + 2];
+        float l2 = data[i + 2 * size + 3];
+
+        float area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        float dzdx = ((z1 - z0) * (y2 - y0) - (z2 - z0) * (y1 - y0)) / area;
+        float dzdy = ((z2 - z0) * (x1 - x0) - (z1 - z0) * (x2 - x0)) / area;
+        float dldx = ((l1 - l0) * (y2 - y0) - (l2 - l0) * (y1 - y0)) / area;
+        float dldy = ((l2 - l0) * (x1 - x0) - (l1 - l0) * (x2 - x0)) / area;
+
+        int red = (color >> 16) & 0xff;
+        int green = (color >> 8) & 0xff;
+        int blue = color & 0xff;
+
+        for ( int y = firstRow; y < lastRow; y++ ) {
+            float center = y + 0.5f;
+            float left = Float.MAX_VALUE;
+            float right = -Float.MAX_VALUE;
+            if ( (y0 <= center) != (y1 <= center) ) {
+                float x = x0 + (center - y0) * (x1 - x0) / (y1 - y0);
+                left = Math.min(left, x);
+                right = Math.max(right, x);
+            }
+            if ( (y1 <= center) != (y2 <= center) ) {
+                float x = x1 + (center - y1) * (x2 - x1) / (y2 - y1);
+                left = Math.min(left, x);
+                right = Math.max(right, x);
+            }
+            if ( (y2 <= center) != (y0 <= center) ) {
+                float x = x2 + (center - y2) * (x0 - x2) / (y0 - y2);
+                left = Math.min(left, x);
+                right = Math.max(right, x);
+            }
+            int startX = Math.max(0, (int)Math.ceil(left - 0.5f));
+            int endX = Math.min(pW, (int)Math.ceil(right - 0.5f));
+            if ( startX >= endX ) {
+                continue;
+            }
+
+            float z = z0 + dzdx * (startX + 0.5f - x0) + dzdy * (center - y0);
+            float light = l0 + dldx * (startX + 0.5f - x0) + dldy * (center - y0);
+            int index = startX + y * pW;
+            int end = endX + y * pW;
+            for ( ; index < end; index++, z += dzdx, light += dldx ) {
+                if ( z >= depth[index] ) {
+                    continue;
+                }
+                depth[index] = z;
+                float l = Math.max(0.0f, Math.min(1.0f, light));
+                p[index] = 0xff000000 | (int)(red * l) << 16 | (int)(green * l) << 8 | (int)(blue * l);
+            }
+        }
+    }
+
+    /**
+     * Rasterizes the rows of a textured triangle, in tiles of TILE_SIZE x TILE_SIZE
+     * pixels. For each strip of rows, the spans of the rows are computed first,
+     * and then the strip is walked tile by tile. The depth, the light, u / w,
+     * v / w and 1 / w are planes over the triangle, and the texture coordinates
+     * are recovered dividing by 1 / w in each pixel
+     *
+     * @param starts the first column of each row of the strip
+     * @param ends the column after the last one of each row of the strip
+     */
+    private void rasterizeTexturedTriangle(int[] p, float[] data, int i, Image texture, int firstRow, int lastRow,
+                                           int[] starts, int[] ends) {
+        int texW = texture.getW();
+        int texH = texture.getH();
+        if ( texW <= 0 || texH <= 0 ) {
+            return;
+        }
+        int[] texels = texture.getP();
+        int texOffset = texture.getOffset();
+        int texStride = texture.getStride();
+        // The masks for wrap the power of two textures, or -1
+        int maskX = (texW & (texW - 1)) == 0 ? texW - 1 : -1;
+        int maskY = (texH & (texH - 1)) == 0 ? texH - 1 : -1;
+        boolean isWrapping = isWrappingTextures;
+
+        int size = TriangleBuffer.VERTEX_SIZE;
+        float x0 = data[i];
+        float y0 = data[i + 1];
+        float x1 = data[i + size];
+        float y1 = data[i + size + 1];
+        float x2 = data[i + 2 * size];
+        float y2 = data[i + 2 * size + 1];
+        float dx1 = x1 - x0;
+        float dy1 = y1 - y0;
+        float dx2 = x2 - x0;
+        float dy2 = y2 - y0;
+        float area = dx1 * dy2 - dx2 * dy1;
+
+        // The planes of the depth, the light and the texture coordinates in texels
+        float z0 = data[i + 2];
+        float dzdx = ((data[i + size + 2] - z0) * dy2 - (data[i + 2 * size + 2] - z0) * dy1) / area;
+        float dzdy = ((data[i + 2 * size + 2] - z0) * dx1 - (data[i + size + 2] - z0) * dx2) / area;
+        float l0 = data[i + 3];
+        float dldx = ((data[i + size + 3] - l0) * dy2 - (data[i + 2 * size + 3] - l0) * dy1) / area;
+        float dldy = ((data[i + 2 * size + 3] - l0) * dx1 - (data[i + size + 3] - l0) * dx2) / area;
+        float a0 = data[i + 4] * texW;
+        float a1 = data[i + size + 4] * texW;
+        float a2 = data[i + 2 * size + 4] * texW;
+        float dadx = ((a1 - a0) * dy2 - (a2 - a0) * dy1) / area;
+        float dady = ((a2 - a0) * dx1 - (a1 - a0) * dx2) / area;
+        float b0 = data[i + 5] * texH;
+        float b1 = data[i + size + 5] * texH;
+        float b2 = data[i + 2 * size + 5] * texH;
+        float dbdx = ((b1 - b0) * dy2 - (b2 - b0) * dy1) / area;
+        float dbdy = ((b2 - b0) * dx1 - (b1 - b0) * dx2) / area;
+        float q0 = data[i + 6];
+        float dqdx = ((data[i + size + 6] - q0) * dy2 - (data[i + 2 * size + 6] - q0) * dy1) / area;
+        float dqdy = ((data[i + 2 * size + 6] - q0) * dx1 - (data[i + size + 6] - q0) * dx2) / area;
+
+        for ( int stripTop = firstRow; stripTop < lastRow; stripTop += TILE_SIZE ) {
+            int stripBottom = Math.min(lastRow, stripTop + TILE_SIZE);
+            int minStart = pW;
+            int maxEnd = 0;
+            for ( int y = stripTop; y < stripBottom; y++ ) {
+                float center = y + 0.5f;
+                float left = Float.MAX_VALUE;
+                float right = -Float.MAX_VALUE;
+                if ( (y0 <= center) != (y1 <= center) ) {
+                    float x = x0 + (center - y0) * (x1 - x0) / (y1 - y0);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+                if ( (y1 <= center) != (y2 <= center) ) {
+                    float x = x1 + (center - y1) * (x2 - x1) / (y2 - y1);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+                if ( (y2 <= center) != (y0 <= center) ) {
+                    float x = x2 + (center - y2) * (x0 - x2) / (y0 - y2);
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+                int start = Math.max(0, (int)Math.ceil(left - 0.5f));
+                int end = Math.min(pW, (int)Math.ceil(right - 0.5f));
+                starts[y - stripTop] = start;
+                ends[y - stripTop] = end;
+                if ( start < end ) {
+                    minStart = Math.min(minStart, start);
+                    maxEnd = Math.max(maxEnd, end);
+                }
+            }
+
+            for ( int tileX = minStart - minStart % TILE_SIZE; tileX < maxEnd; tileX += TILE_SIZE ) {
+                for ( int y = stripTop; y < stripBottom; y++ ) {
+                    int startX = Math.max(tileX, starts[y - stripTop]);
+                    int endX = Math.min(tileX + TILE_SIZE, ends[y - stripTop]);
+                    if ( startX >= endX ) {
+                        continue;
+                    }
+                    float fx = startX + 0.5f - x0;
+                    float fy = y + 0.5f - y0;
+                    float z = z0 + dzdx * fx + dzdy * fy;
+                    float light = l0 + dldx * fx + dldy * fy;
+                    float a = a0 + dadx * fx + dady * fy;
+                    float b = b0 + dbdx * fx + dbdy * fy;
+                    float q = q0 + dqdx * fx + dqdy * fy;
+                    int index = startX + y * pW;
+                    int end = endX + y * pW;
+                    for ( ; index < end; index++, z += dzdx, light += dldx, a += dadx, b += dbdx, q += dqdx ) {
+                        if ( z >= depth[index] ) {
+                            continue;
+                        }
+                        float w = 1.0f / q;
+                        float u = a * w;
+                        float v = b * w;
+                        int texX = (int)u;
+                        int texY = (int)v;
+                        // The cast rounds towards zero, so the negative values are moved down
+                        if ( u < texX ) {
+                            texX--;
+                        }
+                        if ( v < texY ) {
+                            texY--;
+                        }
+                        if ( isWrapping ) {
+                            texX = maskX >= 0 ? texX & maskX : Math.floorMod(texX, texW);
+                            texY = maskY >= 0 ? texY & maskY : Math.floorMod(texY, texH);
+                        } else {
+                            texX = Math.max(0, Math.min(texW - 1, texX));
+                            texY = Math.max(0, Math.min(texH - 1, texY));
+                        }
+                        int texel = texels[texOffset + texX + texY * texStride];
+                        if ( texel >>> 24 == 0 ) {
+                            continue;
+                        }
+                        depth[index] = z;
+                        int l = (int)(Math.max(0.0f, Math.min(1.0f, light)) * 256.0f);
+                        p[index] = 0xff000000 |
+                                ((((texel >> 16) & 0xff) * l) >> 8) << 16 |
+                                ((((texel >> 8) & 0xff) * l) >> 8) << 8 |
+                                (((texel & 0xff) * l) >> 8);
+                    }
+                }
+            }
+        }
+    }
+
+    public Mat4x4 getView() {
+        return view;
+    }
+
+    public Mat4x4 getProjection() {
+        return projection;
+    }
+
+    public float getAmbient() {
+        return ambient;
+    }
+
+    public boolean isShadingGouraud() {
+        return isShadingGouraud;
+    }
+
+    public boolean isCullingBackFaces() {
+        return isCullingBackFaces;
+    }
+
+    public boolean isWrappingTextures() {
+        return isWrappingTextures;
+    }
+
+    public void setView(Mat4x4 view) {
+        this.view = view;
+    }
+
+    public void setProjection(Mat4x4 projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * Sets the direction towards the directional light
+     *
+     * @param x the x component
+     * @param y the y component
+     * @param z the z component
+     */
+    public void setLightDirection(float x, float y, float z) {
+        float length = (float)Math.sqrt(x * x + y * y + z * z);
+        lightX = x / length;
+        lightY = y / length;
+        lightZ = z / length;
+    }
+
+    public void setAmbient(float ambient) {
+        this.ambient = ambient;
+    }
+
+    public void setShadingGouraud(boolean shadingGouraud) {
+        isShadingGouraud = shadingGouraud;
+    }
+
+    public void setCullingBackFaces(boolean cullingBackFaces) {
+        isCullingBackFaces = cullingBackFaces;
+    }
+
+    public void setWrappingTextures(boolean wrappingTextures) {
+        isWrappingTextures = wrappingTextures;
+    }
+
+}
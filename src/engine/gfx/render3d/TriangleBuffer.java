@@ -0,0 +1,138 @@
+package engine.gfx.render3d;
+
+import engine.gfx.images.Image;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the triangles which are ready to be rasterized:
+ * already clipped, culled, shaded and projected to the screen.
+ * Each triangle has, for each vertex, the x and y coordinates in
+ * screen, the depth, the intensity of the light and the texture
+ * coordinates divided by w (with 1 / w, for interpolate them with
+ * perspective), and one color or texture.
+ *
+ * Each thread of the pipeline fills its own buffer, so they don't
+ * need to be synchronized. The arrays are kept between frames.
+ *
+ * @class TriangleBuffer
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+class TriangleBuffer {
+
+    /**
+     * The number of values of each vertex: x, y, z, the intensity,
+     * u / w, v / w and 1 / w
+     */
+    static final int VERTEX_SIZE = 7;
+
+    /**
+     * The number of values of each vertex of the polygons being clipped:
+     * x, y, z, w, the intensity, u and v
+     */
+    static final int POLYGON_VERTEX_SIZE = 7;
+
+    /**
+     * The number of values of each triangle
+     */
+    static final int STRIDE = VERTEX_SIZE * 3;
+
+    /**
+     * The values of the triangles
+     */
+    float[] data = new float[STRIDE * 1024];
+
+    /**
+     * The color of each triangle
+     */
+    int[] colors = new int[1024];
+
+    /**
+     * The texture of each triangle, or null if it has only color
+     */
+    Image[] textures = new Image[1024];
+
+    /**
+     * The number of triangles
+     */
+    int size = 0;
+
+    /**
+     * The rectangle of the screen what the triangles cover,
+     * [minX, maxX) and [minY, maxY)
+     */
+    int minX;
+
+    int minY;
+
+    int maxX;
+
+    int maxY;
+
+    /**
+     * The vertices of the triangle being clipped, in clip space:
+     * x, y, z, w, the intensity, u and v for each one. The clipping of
+     * the two planes can add two vertices
+     */
+    final float[] polygon = new float[5 * POLYGON_VERTEX_SIZE];
+
+    /**
+     * The auxiliary polygon for the clipping
+     */
+    final float[] clipped = new float[5 * POLYGON_VERTEX_SIZE];
+
+    /**
+     * The vertices of the polygon projected to the screen
+     */
+    final float[] projected = new float[5 * VERTEX_SIZE];
+
+    TriangleBuffer() {
+        clear();
+    }
+
+    void clear() {
+        Arrays.fill(textures, 0, size, null);
+        size = 0;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds a triangle with three vertices of an array of projected vertices
+     *
+     * @param vertices the vertices, VERTEX_SIZE values for each one
+     * @param a the first vertex
+     * @param b the second vertex
+     * @param c the third vertex
+     * @param color the color
+     * @param texture the texture, or null
+     */
+    void add(float[] vertices, int a, int b, int c, int color, Image texture) {
+        if ( size == colors.length ) {
+            colors = Arrays.copyOf(colors, size * 2);
+            textures = Arrays.copyOf(textures, size * 2);
+            data = Arrays.copyOf(data, size * 2 * STRIDE);
+        }
+        int i = size * STRIDE;
+        System.arraycopy(vertices, a * VERTEX_SIZE, data, i, VERTEX_SIZE);
+        System.arraycopy(vertices, b * VERTEX_SIZE, data, i + VERTEX_SIZE, VERTEX_SIZE);
+        System.arraycopy(vertices, c * VERTEX_SIZE, data, i + 2 * VERTEX_SIZE, VERTEX_SIZE);
+        colors[size] = color;
+        textures[size] = texture;
+        size++;
+    }
+
+    /**
+     * Grows the covered rectangle
+     */
+    void cover(int left, int top, int right, int bottom) {
+        minX = Math.min(minX, left);
+        minY = Math.min(minY, top);
+        maxX = Math.max(maxX, right);
+        maxY = Math.max(maxY, bottom);
+    }
+
+}
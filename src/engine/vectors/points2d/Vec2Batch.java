@@ -0,0 +1,342 @@
+package engine.vectors.points2d;
+
+import engine.FastMath;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a batch of two dimensions vectors of
+ * float native type. The components are stored as a structure
+ * of arrays: one array with all the x components and other one
+ * with all the y components.
+ *
+ * The operations work over all the vectors of the batch, or over
+ * a range of them, in plain loops over the arrays. The loops have
+ * no dependencies between the vectors, so the JIT compiler can
+ * run them with the SIMD instructions of the CPU. This is much
+ * faster than call the methods of one <class>Vec2df</class> object
+ * for each vector.
+ *
+ * @class Vec2Batch
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Vec2Batch {
+
+    /**
+     * x components
+     */
+    private float[] x;
+
+    /**
+     * y components
+     */
+    private float[] y;
+
+    /**
+     * The number of vectors
+     */
+    private int size;
+
+    /**
+     * Constructor
+     * @param capacity the number of vectors what fit without grow the arrays
+     */
+    public Vec2Batch(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        size = 0;
+    }
+
+    /**
+     * Constructor. The batch has the values of the vectors
+     * @param vectors the vectors to copy
+     */
+    public Vec2Batch(Vec2df[] vectors) {
+        this(vectors.length);
+        for ( Vec2df vector : vectors ) {
+            add(vector.getX(), vector.getY());
+        }
+    }
+
+    /**
+     * Makes room for a number of vectors
+     * @param capacity the number of vectors
+     */
+    public void ensureCapacity(int capacity) {
+        if ( capacity > x.length ) {
+            int newCapacity = Math.max(capacity, x.length * 2);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+        }
+    }
+
+    /**
+     * Adds a vector at the end of the batch
+     * @param x the x component
+     * @param y the y component
+     * @return the index of the vector
+     */
+    public int add(float x, float y) {
+        ensureCapacity(size + 1);
+        this.x[size] = x;
+        this.y[size] = y;
+        return size++;
+    }
+
+    /**
+     * Removes a vector, moving the last vector to its place.
+     * The order of the vectors changes, but nothing is shifted
+     * @param index the index of the vector
+     */
+    public void swapRemove(int index) {
+        size--;
+        x[index] = x[size];
+        y[index] = y[size];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copies a vector of the batch to an object
+     * @param index the index of the vector
+     * @param vector the object what receives the values
+     */
+    public void get(int index, Vec2df vector) {
+        vector.setX(x[index]);
+        vector.setY(y[index]);
+    }
+
+    /**
+     * Copies the values of an object to a vector of the batch
+     * @param index the index of the vector
+     * @param vector the vector to copy
+     */
+    public void set(int index, Vec2df vector) {
+        x[index] = vector.getX();
+        y[index] = vector.getY();
+    }
+
+    public void set(int index, float x, float y) {
+        this.x[index] = x;
+        this.y[index] = y;
+    }
+
+    /**
+     * @return new objects with the values of the vectors
+     */
+    public Vec2df[] toArray() {
+        Vec2df[] vectors = new Vec2df[size];
+        for ( int i = 0; i < size; i++ ) {
+            vectors[i] = new Vec2df(x[i], y[i]);
+        }
+        return vectors;
+    }
+
+    /**
+     * Adds an amount to the vectors of a range
+     * @param from the first vector
+     * @param to the vector after the last one
+     * @param dx the amount to add to the x components
+     * @param dy the amount to add to the y components
+     */
+    public void add(int from, int to, float dx, float dy) {
+        float[] x = this.x;
+        float[] y = this.y;
+        for ( int i = from; i < to; i++ ) {
+            x[i] += dx;
+            y[i] += dy;
+        }
+    }
+
+    /**
+     * Adds the vectors of other batch, each one to the vector with the same index
+     * @param other the other batch, with at least the size of this one
+     */
+    public void add(Vec2Batch other) {
+        addScaled(other, 1.0f);
+    }
+
+    /**
+     * Adds the vectors of other batch multiplied by an amount. It is
+     * the step of a simulation: position += velocity * dt
+     * @param other the other batch, with at least the size of this one
+     * @param scale the amount what multiplies the other vectors
+     */
+    public void addScaled(Vec2Batch other, float scale) {
+        addScaled(0, size, other, scale);
+    }
+
+    public void addScaled(int from, int to, Vec2Batch other, float scale) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] ox = other.x;
+        float[] oy = other.y;
+        for ( int i = from; i < to; i++ ) {
+            x[i] += ox[i] * scale;
+            y[i] += oy[i] * scale;
+        }
+    }
+
+    /**
+     * Subtracts the vectors of other batch, each one from the vector with the same index
+     * @param other the other batch, with at least the size of this one
+     */
+    public void sub(Vec2Batch other) {
+        addScaled(other, -1.0f);
+    }
+
+    /**
+     * Multiplies the components of all the vectors by an amount
+     * @param amount the amount
+     */
+    public void scale(float amount) {
+        scale(0, size, amount);
+    }
+
+    public void scale(int from, int to, float amount) {
+        float[] x = this.x;
+        float[] y = this.y;
+        for ( int i = from; i < to; i++ ) {
+            x[i] *= amount;
+            y[i] *= amount;
+        }
+    }
+
+    /**
+     * Multiplies the components of the vectors by the components
+     * of the vectors of other batch with the same index
+     * @param other the other batch, with at least the size of this one
+     */
+    public void multiply(Vec2Batch other) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] ox = other.x;
+        float[] oy = other.y;
+        for ( int i = 0; i < size; i++ ) {
+            x[i] *= ox[i];
+            y[i] *= oy[i];
+        }
+    }
+
+    /**
+     * Normalizes all the vectors. The vectors with magnitude
+     * 0 are left as they are
+     */
+    public void normalize() {
+        normalize(0, size);
+    }
+
+    public void normalize(int from, int to) {
+        float[] x = this.x;
+        float[] y = this.y;
+        for ( int i = from; i < to; i++ ) {
+            float mag2 = x[i] * x[i] + y[i] * y[i];
+            float r = mag2 > 0.0f ? 1.0f / (float)Math.sqrt(mag2) : 1.0f;
+            x[i] *= r;
+            y[i] *= r;
+        }
+    }
+
+    /**
+     * Computes the dot product of each vector with the vector
+     * of other batch with the same index
+     * @param other the other batch, with at least the size of this one
+     * @param result the array what receives the products
+     */
+    public void dot(Vec2Batch other, float[] result) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] ox = other.x;
+        float[] oy = other.y;
+        for ( int i = 0; i < size; i++ ) {
+            result[i] = x[i] * ox[i] + y[i] * oy[i];
+        }
+    }
+
+    /**
+     * Computes the magnitude of each vector
+     * @param result the array what receives the magnitudes
+     */
+    public void mag(float[] result) {
+        float[] x = this.x;
+        float[] y = this.y;
+        for ( int i = 0; i < size; i++ ) {
+            result[i] = (float)Math.sqrt(x[i] * x[i] + y[i] * y[i]);
+        }
+    }
+
+    /**
+     * Transforms the vectors of a range with an affine transformation:
+     * x' = m00 * x + m01 * y + tx and y' = m10 * x + m11 * y + ty
+     */
+    public void transform(int from, int to, float m00, float m01, float tx, float m10, float m11, float ty) {
+        float[] x = this.x;
+        float[] y = this.y;
+        for ( int i = from; i < to; i++ ) {
+            float vx = x[i];
+            float vy = y[i];
+            x[i] = m00 * vx + m01 * vy + tx;
+            y[i] = m10 * vx + m11 * vy + ty;
+        }
+    }
+
+    /**
+     * Rotates all the vectors. The sine and the cosine are computed
+     * once for all of them
+     * @param angle the angle in degrees
+     */
+    public void rotate(float angle) {
+        double radians = Math.toRadians(angle);
+        float cos = (float)Math.cos(radians);
+        float sin = (float)Math.sin(radians);
+        transform(0, size, cos, -sin, 0.0f, sin, cos, 0.0f);
+    }
+
+    /**
+     * Rotates each vector by its own angle. The sine and the cosine
+     * are read from the table of <class>FastMath</class>
+     * @param degrees the angle of each vector, in degrees
+     */
+    public void rotate(float[] degrees) {
+        FastMath.rotate(x, y, degrees, 0, size);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return x.length;
+    }
+
+    /**
+     * @return the x components. The array can be longer than the size
+     */
+    public float[] getXs() {
+        return x;
+    }
+
+    /**
+     * @return the y components. The array can be longer than the size
+     */
+    public float[] getYs() {
+        return y;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public void setSize(int size) {
+        ensureCapacity(size);
+        this.size = size;
+    }
+
+}
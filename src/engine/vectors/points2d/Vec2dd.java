@@ -242,8 +242,10 @@ public class Vec2dd implements Vec2d {
     @Override
     public void translateThisAngle(float angle) {
         angle *= (Math.PI / 180.0f);
-        double x = (this.x * Math.cos(angle)) - (this.y * Math.sin(angle));
-        double y = (this.x * Math.sin(angle)) + (this.y * Math.cos(angle));
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double x = (this.x * cos) - (this.y * sin);
+        double y = (this.x * sin) + (this.y * cos);
         this.x = x;
         this.y = y;
     }
@@ -242,8 +242,10 @@ public class Vec2df implements Vec2d {
     @Override
     public void translateThisAngle(float angle) {
         angle *= (Math.PI / 180.0f);
-        float x = (float)((this.x * Math.cos(angle)) - (this.y * Math.sin(angle)));
-        float y = (float)((this.x * Math.sin(angle)) + (this.y * Math.cos(angle)));
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        float x = (float)((this.x * cos) - (this.y * sin));
+        float y = (float)((this.x * sin) + (this.y * cos));
         this.x = x;
         this.y = y;
     }
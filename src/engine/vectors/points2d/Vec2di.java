@@ -242,8 +242,10 @@ public class Vec2di implements Vec2d {
     @Override
     public void translateThisAngle(float angle) {
         angle *= (Math.PI / 180.0f);
-        int x = (int)((this.x * Math.cos(angle)) - (this.y * Math.sin(angle)));
-        int y = (int)((this.x * Math.sin(angle)) + (this.y * Math.cos(angle)));
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        int x = (int)((this.x * cos) - (this.y * sin));
+        int y = (int)((this.x * sin) + (this.y * cos));
         this.x = x;
         this.y = y;
     }
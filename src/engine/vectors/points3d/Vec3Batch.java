@@ -0,0 +1,408 @@
+package engine.vectors.points3d;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a batch of three dimensions vectors of
+ * float native type. The components are stored as a structure
+ * of arrays: one array for the x components, one for the y
+ * components and one for the z components.
+ *
+ * The operations are plain loops over the arrays, without
+ * dependencies between the vectors, so the JIT compiler can
+ * run them with the SIMD instructions of the CPU.
+ *
+ * @class Vec3Batch
+ * @author Sergio Martí Torregrosa
+ * @date 2026-10-18
+ */
+public class Vec3Batch {
+
+    /**
+     * x components
+     */
+    private float[] x;
+
+    /**
+     * y components
+     */
+    private float[] y;
+
+    /**
+     * z components
+     */
+    private float[] z;
+
+    /**
+     * The number of vectors
+     */
+    private int size;
+
+    /**
+     * Constructor
+     * @param capacity the number of vectors what fit without grow the arrays
+     */
+    public Vec3Batch(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        z = new float[capacity];
+        size = 0;
+    }
+
+    /**
+     * Constructor. The batch has the values of the vectors
+     * @param vectors the vectors to copy
+     */
+    public Vec3Batch(Vec3df[] vectors) {
+        this(vectors.length);
+        for ( Vec3df vector : vectors ) {
+            add(vector.getX(), vector.getY(), vector.getZ());
+        }
+    }
+
+    /**
+     * Constructor. The batch has the values of a packed array
+     * @param packed the components, x, y and z for each vector
+     */
+    public Vec3Batch(float[] packed) {
+        this(packed.length / 3);
+        for ( int i = 0; i < packed.length / 3; i++ ) {
+            x[i] = packed[i * 3];
+            y[i] = packed[i * 3 + 1];
+            z[i] = packed[i * 3 + 2];
+        }
+        size = packed.length / 3;
+    }
+
+    /**
+     * Makes room for a number of vectors
+     * @param capacity the number of vectors
+     */
+    public void ensureCapacity(int capacity) {
+        if ( capacity > x.length ) {
+            int newCapacity = Math.max(capacity, x.length * 2);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+            z = Arrays.copyOf(z, newCapacity);
+        }
+    }
+
+    /**
+     * Adds a vector at the end of the batch
+     * @return the index of the vector
+     */
+    public int add(float x, float y, float z) {
+        ensureCapacity(size + 1);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.z[size] = z;
+        return size++;
+    }
+
+    /**
+     * Removes a vector, moving the last vector to its place
+     * @param index the index of the vector
+     */
+    public void swapRemove(int index) {
+        size--;
+        x[index] = x[size];
+        y[index] = y[size];
+        z[index] = z[size];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copies a vector of the batch to an object
+     * @param index the index of the vector
+     * @param vector the object what receives the values
+     */
+    public void get(int index, Vec3df vector) {
+        vector.setX(x[index]);
+        vector.setY(y[index]);
+        vector.setZ(z[index]);
+    }
+
+    /**
+     * Copies the values of an object to a vector of the batch
+     * @param index the index of the vector
+     * @param vector the vector to copy
+     */
+    public void set(int index, Vec3df vector) {
+        x[index] = vector.getX();
+        y[index] = vector.getY();
+        z[index] = vector.getZ();
+    }
+
+    public void set(int index, float x, float y, float z) {
+        this.x[index] = x;
+        this.y[index] = y;
+        this.z[index] = z;
+    }
+
+    /**
+     * @return new objects with the values of the vectors
+     */
+    public Vec3df[] toArray() {
+        Vec3df[] vectors = new Vec3df[size];
+        for ( int i = 0; i < size; i++ ) {
+            vectors[i] = new Vec3df(x[i], y[i], z[i]);
+        }
+        return vectors;
+    }
+
+    /**
+     * @return a packed array with the components, x, y and z for each vector
+     */
+    public float[] toPacked() {
+        float[] packed = new float[size * 3];
+        for ( int i = 0; i < size; i++ ) {
+            packed[i * 3] = x[i];
+            packed[i * 3 + 1] = y[i];
+            packed[i * 3 + 2] = z[i];
+        }
+        return packed;
+    }
+
+    /**
+     * Adds an amount to the vectors of a range
+     * @param from the first vector
+     * @param to the vector after the last one
+     */
+    public void add(int from, int to, float dx, float dy, float dz) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        for ( int i = from; i < to; i++ ) {
+            x[i] += dx;
+            y[i] += dy;
+            z[i] += dz;
+        }
+    }
+
+    /**
+     * Adds the vectors of other batch, each one to the vector with the same index
+     * @param other the other batch, with at least the size of this one
+     */
+    public void add(Vec3Batch other) {
+        addScaled(other, 1.0f);
+    }
+
+    /**
+     * Adds the vectors of other batch multiplied by an amount. It is
+     * the step of a simulation: position += velocity * dt
+     * @param other the other batch, with at least the size of this one
+     * @param scale the amount what multiplies the other vectors
+     */
+    public void addScaled(Vec3Batch other, float scale) {
+        addScaled(0, size, other, scale);
+    }
+
+    public void addScaled(int from, int to, Vec3Batch other, float scale) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        float[] ox = other.x;
+        float[] oy = other.y;
+        float[] oz = other.z;
+        for ( int i = from; i < to; i++ ) {
+            x[i] += ox[i] * scale;
+            y[i] += oy[i] * scale;
+            z[i] += oz[i] * scale;
+        }
+    }
+
+    /**
+     * Subtracts the vectors of other batch, each one from the vector with the same index
+     * @param other the other batch, with at least the size of this one
+     */
+    public void sub(Vec3Batch other) {
+        addScaled(other, -1.0f);
+    }
+
+    /**
+     * Multiplies the components of all the vectors by an amount
+     * @param amount the amount
+     */
+    public void scale(float amount) {
+        scale(0, size, amount);
+    }
+
+    public void scale(int from, int to, float amount) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        for ( int i = from; i < to; i++ ) {
+            x[i] *= amount;
+            y[i] *= amount;
+            z[i] *= amount;
+        }
+    }
+
+    /**
+     * Normalizes all the vectors. The vectors with magnitude
+     * 0 are left as they are
+     */
+    public void normalize() {
+        normalize(0, size);
+    }
+
+    public void normalize(int from, int to) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        for ( int i = from; i < to; i++ ) {
+            float mag2 = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+            float r = mag2 > 0.0f ? 1.0f / (float)Math.sqrt(mag2) : 1.0f;
+            x[i] *= r;
+            y[i] *= r;
+            z[i] *= r;
+        }
+    }
+
+    /**
+     * Computes the dot product of each vector with the vector
+     * of other batch with the same index
+     * @param other the other batch, with at least the size of this one
+     * @param result the array what receives the products
+     */
+    public void dot(Vec3Batch other, float[] result) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        float[] ox = other.x;
+        float[] oy = other.y;
+        float[] oz = other.z;
+        for ( int i = 0; i < size; i++ ) {
+            result[i] = x[i] * ox[i] + y[i] * oy[i] + z[i] * oz[i];
+        }
+    }
+
+    /**
+     * Computes the dot product of each vector with one direction.
+     * It is the diffuse light of a batch of normals
+     * @param result the array what receives the products
+     */
+    public void dot(float dx, float dy, float dz, float[] result) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        for ( int i = 0; i < size; i++ ) {
+            result[i] = x[i] * dx + y[i] * dy + z[i] * dz;
+        }
+    }
+
+    /**
+     * Computes the cross product of each vector with the vector of other
+     * batch with the same index
+     * @param other the other batch, with at least the size of this one
+     * @param result the batch what receives the products. It can be this batch
+     */
+    public void cross(Vec3Batch other, Vec3Batch result) {
+        result.setSize(size);
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        float[] ox = other.x;
+        float[] oy = other.y;
+        float[] oz = other.z;
+        float[] rx = result.x;
+        float[] ry = result.y;
+        float[] rz = result.z;
+        for ( int i = 0; i < size; i++ ) {
+            float cx = y[i] * oz[i] - z[i] * oy[i];
+            float cy = z[i] * ox[i] - x[i] * oz[i];
+            float cz = x[i] * oy[i] - y[i] * ox[i];
+            rx[i] = cx;
+            ry[i] = cy;
+            rz[i] = cz;
+        }
+    }
+
+    /**
+     * Computes the magnitude of each vector
+     * @param result the array what receives the magnitudes
+     */
+    public void mag(float[] result) {
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        for ( int i = 0; i < size; i++ ) {
+            result[i] = (float)Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+        }
+    }
+
+    /**
+     * Transforms the vectors of a range with an affine transformation
+     *
+     * @param from the first vector
+     * @param to the vector after the last one
+     * @param matrix the 12 values of the first three rows of a 4x4 matrix,
+     *               by rows. The translation is the last value of each row
+     */
+    public void transform(int from, int to, float[] matrix) {
+        float m00 = matrix[0], m01 = matrix[1], m02 = matrix[2], m03 = matrix[3];
+        float m10 = matrix[4], m11 = matrix[5], m12 = matrix[6], m13 = matrix[7];
+        float m20 = matrix[8], m21 = matrix[9], m22 = matrix[10], m23 = matrix[11];
+        float[] x = this.x;
+        float[] y = this.y;
+        float[] z = this.z;
+        for ( int i = from; i < to; i++ ) {
+            float vx = x[i];
+            float vy = y[i];
+            float vz = z[i];
+            x[i] = m00 * vx + m01 * vy + m02 * vz + m03;
+            y[i] = m10 * vx + m11 * vy + m12 * vz + m13;
+            z[i] = m20 * vx + m21 * vy + m22 * vz + m23;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return x.length;
+    }
+
+    /**
+     * @return the x components. The array can be longer than the size
+     */
+    public float[] getXs() {
+        return x;
+    }
+
+    /**
+     * @return the y components. The array can be longer than the size
+     */
+    public float[] getYs() {
+        return y;
+    }
+
+    /**
+     * @return the z components. The array can be longer than the size
+     */
+    public float[] getZs() {
+        return z;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public float getZ(int index) {
+        return z[index];
+    }
+
+    public void setSize(int size) {
+        ensureCapacity(size);
+        this.size = size;
+    }
+
+}
@@ -0,0 +1,114 @@
+import engine.gfx.Blender;
+
+import java.util.Random;
+
+/**
+ * This class is a benchmark of the alpha blending methods
+ * of the Blender class against the old float blending of
+ * the Renderer. For each method it shows the time spent
+ * per pixel and the maximum difference in any channel
+ * against the float blending.
+ *
+ * @class BenchmarkBlending
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class BenchmarkBlending {
+
+    private static final int NUM_PIXELS = 1 << 20;
+
+    private static final int NUM_ROUNDS = 50;
+
+    private interface BlendMethod {
+        int blend(int dst, int src);
+    }
+
+    /**
+     * The blending what the Renderer did before the Blender class
+     */
+    private static int blendFloat(int dst, int src) {
+        int alpha = ((src >> 24) & 0xff);
+        int newRed = ((dst >> 16) & 0xff) - (int)((((dst >> 16) & 0xff) - ((src >> 16) & 0xff)) * (alpha / 255.0f));
+        int newGreen = ((dst >> 8) & 0xff) - (int)((((dst >> 8) & 0xff) - ((src >> 8) & 0xff)) * (alpha / 255.0f));
+        int newBlue = (dst & 0xff) - (int)(((dst & 0xff) - (src & 0xff)) * (alpha / 255.0f));
+        return (newRed << 16 | newGreen << 8 | newBlue);
+    }
+
+    private static int maxDifference(int[] dst, int[] src, BlendMethod method, boolean premultiplied) {
+        int max = 0;
+        for ( int i = 0; i < dst.length; i++ ) {
+            int expected = blendFloat(dst[i], src[i]);
+            int actual = method.blend(dst[i], premultiplied ? Blender.premultiply(src[i]) : src[i]);
+            for ( int shift = 0; shift < 24; shift += 8 ) {
+                max = Math.max(max, Math.abs(((expected >> shift) & 0xff) - ((actual >> shift) & 0xff)));
+            }
+        }
+        return max;
+    }
+
+    private static void blendAll(int[] dst, int[] src, int[] out, int method) {
+        switch ( method ) {
+            case 0:
+                for ( int i = 0; i < dst.length; i++ ) {
+                    out[i] = blendFloat(dst[i], src[i]);
+                }
+                break;
+            case 1:
+                for ( int i = 0; i < dst.length; i++ ) {
+                    out[i] = Blender.blend(dst[i], src[i]);
+                }
+                break;
+            case 2:
+                for ( int i = 0; i < dst.length; i++ ) {
+                    out[i] = Blender.blendFast(dst[i], src[i]);
+                }
+                break;
+            case 3:
+                for ( int i = 0; i < dst.length; i++ ) {
+                    out[i] = Blender.blendTable(dst[i], src[i]);
+                }
+                break;
+            default:
+                for ( int i = 0; i < dst.length; i++ ) {
+                    out[i] = Blender.blendPremultiplied(dst[i], src[i]);
+                }
+                break;
+        }
+    }
+
+    private static void benchmark(String name, int[] dst, int[] src, int method, BlendMethod blendMethod) {
+        boolean premultiplied = method == 4;
+        int[] source = src.clone();
+        if ( premultiplied ) {
+            for ( int i = 0; i < source.length; i++ ) {
+                source[i] = Blender.premultiply(source[i]);
+            }
+        }
+        int[] out = new int[dst.length];
+        long best = Long.MAX_VALUE;
+        for ( int round = 0; round < NUM_ROUNDS; round++ ) {
+            long start = System.nanoTime();
+            blendAll(dst, source, out, method);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s %6.3f ns/pixel   max difference: %d%n",
+                name, best / (double)dst.length, maxDifference(dst, src, blendMethod, premultiplied));
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(1234);
+        int[] dst = new int[NUM_PIXELS];
+        int[] src = new int[NUM_PIXELS];
+        for ( int i = 0; i < NUM_PIXELS; i++ ) {
+            dst[i] = 0xff000000 | random.nextInt(0x1000000);
+            src[i] = random.nextInt();
+        }
+
+        benchmark("float (old)", dst, src, 0, BenchmarkBlending::blendFloat);
+        benchmark("blend", dst, src, 1, Blender::blend);
+        benchmark("blendFast", dst, src, 2, Blender::blendFast);
+        benchmark("blendTable", dst, src, 3, Blender::blendTable);
+        benchmark("blendPremultiplied", dst, src, 4, Blender::blendPremultiplied);
+    }
+
+}
@@ -0,0 +1,98 @@
+import engine.FastMath;
+import engine.vectors.points2d.Vec2Batch;
+import engine.vectors.points2d.Vec2df;
+
+import java.util.Random;
+
+/**
+ * This class is a benchmark for the <class>FastMath</class> methods.
+ * It measures the error of the sine, the cosine and the arc tangent
+ * for several sizes of the table, and the time to rotate many vectors
+ * each one by its own angle: with Vec2df.translateThisAngle, with
+ * Math in a loop over arrays and with the table of FastMath.
+ *
+ * @class BenchmarkFastMath
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class BenchmarkFastMath {
+
+    private static final int NUM_VECTORS = 100000;
+
+    private static final int NUM_ROUNDS = 200;
+
+    public static void main(String[] args) {
+        measureErrors();
+        measureRotations();
+    }
+
+    private static void measureErrors() {
+        for ( int bits = 8; bits <= 16; bits += 2 ) {
+            FastMath.setTableBits(bits);
+            double maxSinError = 0.0;
+            double maxCosError = 0.0;
+            for ( int i = 0; i <= 1000000; i++ ) {
+                float angle = (float)(-20.0 + 40.0 * i / 1000000);
+                maxSinError = Math.max(maxSinError, Math.abs(FastMath.sin(angle) - Math.sin(angle)));
+                maxCosError = Math.max(maxCosError, Math.abs(FastMath.cos(angle) - Math.cos(angle)));
+            }
+            System.out.printf("Table of 2^%d: max error of sin %.2e, of cos %.2e%n", bits, maxSinError, maxCosError);
+        }
+        FastMath.setTableBits(FastMath.DEFAULT_TABLE_BITS);
+
+        double maxAtanError = 0.0;
+        Random random = new Random(1);
+        for ( int i = 0; i < 1000000; i++ ) {
+            float x = random.nextFloat() * 2.0f - 1.0f;
+            float y = random.nextFloat() * 2.0f - 1.0f;
+            maxAtanError = Math.max(maxAtanError, Math.abs(FastMath.atan2(y, x) - Math.atan2(y, x)));
+        }
+        System.out.printf("Max error of atan2 %.2e radians%n", maxAtanError);
+    }
+
+    private static void measureRotations() {
+        Random random = new Random(1);
+        Vec2df[] objects = new Vec2df[NUM_VECTORS];
+        float[] angles = new float[NUM_VECTORS];
+        for ( int i = 0; i < NUM_VECTORS; i++ ) {
+            objects[i] = new Vec2df(random.nextFloat(), random.nextFloat());
+            angles[i] = random.nextFloat() * 360.0f;
+        }
+        Vec2Batch batch = new Vec2Batch(objects);
+        float[] x = batch.getXs();
+        float[] y = batch.getYs();
+
+        // Some rounds first, for the JIT compiler
+        for ( int round = 0; round < 3; round++ ) {
+            long objectsTime = 0;
+            long mathTime = 0;
+            long tableTime = 0;
+            for ( int i = 0; i < NUM_ROUNDS; i++ ) {
+                long start = System.nanoTime();
+                for ( int k = 0; k < NUM_VECTORS; k++ ) {
+                    objects[k].translateThisAngle(angles[k]);
+                }
+                long middle = System.nanoTime();
+                for ( int k = 0; k < NUM_VECTORS; k++ ) {
+                    double radians = Math.toRadians(angles[k]);
+                    float cos = (float)Math.cos(radians);
+                    float sin = (float)Math.sin(radians);
+                    float vx = x[k];
+                    float vy = y[k];
+                    x[k] = vx * cos - vy * sin;
+                    y[k] = vx * sin + vy * cos;
+                }
+                long end = System.nanoTime();
+                batch.rotate(angles);
+                long last = System.nanoTime();
+                objectsTime += middle - start;
+                mathTime += end - middle;
+                tableTime += last - end;
+            }
+            System.out.printf("Rotate %d vectors: Vec2df %.3f ms, arrays with Math %.3f ms, arrays with FastMath %.3f ms (%.1fx)%n",
+                    NUM_VECTORS, objectsTime / 1e6 / NUM_ROUNDS, mathTime / 1e6 / NUM_ROUNDS, tableTime / 1e6 / NUM_ROUNDS,
+                    (double)objectsTime / tableTime);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+import engine.gfx.images.Image;
+import engine.gfx.render3d.Mat4x4;
+import engine.gfx.render3d.Mesh;
+import engine.gfx.render3d.Renderer3D;
+import engine.vectors.points3d.Vec3df;
+
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+
+/**
+ * This class is a test for the 3D pipeline. It draws a sphere
+ * with about 100000 triangles and a ring of cubes turning around
+ * it, over a textured floor. The G key changes between flat and
+ * Gouraud shading, and the W key between wrapped and clamped textures
+ *
+ * @class Test3D
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class Test3D extends AbstractGame {
+
+    private static final int SPHERE_RINGS = 160;
+
+    private static final int SPHERE_SEGMENTS = 320;
+
+    private static final int NUM_CUBES = 12;
+
+    /**
+     * The half of the size of the floor, and the times what the texture is repeated
+     */
+    private static final float FLOOR_SIZE = 20.0f;
+
+    private static final float FLOOR_REPEAT = 10.0f;
+
+    private Renderer3D renderer3D;
+
+    private Mesh sphere;
+
+    private Mesh cube;
+
+    private Mesh texturedCube;
+
+    private Image floor;
+
+    private float angle = 0.0f;
+
+    private Test3D(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+        renderer3D = new Renderer3D(gc.getRenderer());
+        renderer3D.setView(Mat4x4.lookAt(new Vec3df(0.0f, 2.0f, 6.0f), new Vec3df(0.0f, 0.0f, 0.0f), new Vec3df(0.0f, 1.0f, 0.0f)));
+        renderer3D.setLightDirection(1.0f, 1.0f, 1.0f);
+        sphere = createSphere(SPHERE_RINGS, SPHERE_SEGMENTS, HexColors.FANCY_BLUE);
+        cube = createCube(HexColors.ORANGE);
+        floor = new Image("/imageTile.png");
+        texturedCube = createTexturedCube(floor);
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        angle += dt * 30.0f;
+        if ( gc.getInput().isKeyDown(KeyEvent.VK_G) ) {
+            renderer3D.setShadingGouraud(!renderer3D.isShadingGouraud());
+        }
+        if ( gc.getInput().isKeyDown(KeyEvent.VK_W) ) {
+            renderer3D.setWrappingTextures(!renderer3D.isWrappingTextures());
+        }
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        renderer3D.clear();
+        Vec3df a = new Vec3df(-FLOOR_SIZE, -2.0f, FLOOR_SIZE);
+        Vec3df b = new Vec3df(FLOOR_SIZE, -2.0f, FLOOR_SIZE);
+        Vec3df c = new Vec3df(FLOOR_SIZE, -2.0f, -FLOOR_SIZE);
+        Vec3df d = new Vec3df(-FLOOR_SIZE, -2.0f, -FLOOR_SIZE);
+        renderer3D.drawTexturedTriangle(a, 0.0f, FLOOR_REPEAT, b, FLOOR_REPEAT, FLOOR_REPEAT, c, FLOOR_REPEAT, 0.0f, floor);
+        renderer3D.drawTexturedTriangle(a, 0.0f, FLOOR_REPEAT, c, FLOOR_REPEAT, 0.0f, d, 0.0f, 0.0f, floor);
+        renderer3D.drawMesh(sphere, Mat4x4.rotationY(angle).multiply(Mat4x4.scale(1.5f, 1.5f, 1.5f)));
+        for ( int i = 0; i < NUM_CUBES; i++ ) {
+            float cubeAngle = angle * 2.0f + i * 360.0f / NUM_CUBES;
+            Mat4x4 model = Mat4x4.rotationY(cubeAngle)
+                    .multiply(Mat4x4.translation(3.0f, 0.0f, 0.0f))
+                    .multiply(Mat4x4.rotationX(cubeAngle * 3.0f))
+                    .multiply(Mat4x4.scale(0.3f, 0.3f, 0.3f));
+            renderer3D.drawMesh(i % 2 == 0 ? cube : texturedCube, model);
+        }
+        renderer3D.process();
+        r.drawText(sphere.getNumTriangles() + NUM_CUBES * cube.getNumTriangles() + " triangles " +
+                (renderer3D.isShadingGouraud() ? "Gouraud" : "flat"), 10, 10, HexColors.WHITE);
+    }
+
+    private static Mesh createSphere(int rings, int segments, int color) {
+        float[] positions = new float[(rings + 1) * (segments + 1) * 3];
+        for ( int ring = 0; ring <= rings; ring++ ) {
+            double theta = Math.PI * ring / rings;
+            for ( int segment = 0; segment <= segments; segment++ ) {
+                double phi = 2.0 * Math.PI * segment / segments;
+                int i = (ring * (segments + 1) + segment) * 3;
+                positions[i] = (float)(Math.sin(theta) * Math.cos(phi));
+                positions[i + 1] = (float)Math.cos(theta);
+                positions[i + 2] = (float)(-Math.sin(theta) * Math.sin(phi));
+            }
+        }
+        int[] indices = new int[rings * segments * 6];
+        int[] colors = new int[rings * segments * 2];
+        int t = 0;
+        for ( int ring = 0; ring < rings; ring++ ) {
+            for ( int segment = 0; segment < segments; segment++ ) {
+                int a = ring * (segments + 1) + segment;
+                int b = a + segments + 1;
+                indices[t * 3] = a;
+                indices[t * 3 + 1] = b;
+                indices[t * 3 + 2] = a + 1;
+                colors[t++] = color;
+                indices[t * 3] = a + 1;
+                indices[t * 3 + 1] = b;
+                indices[t * 3 + 2] = b + 1;
+                colors[t++] = color;
+            }
+        }
+        return new Mesh(positions, indices, colors);
+    }
+
+    private static Mesh createCube(int color) {
+        float[] positions = {
+                -1, -1, -1,  1, -1, -1,  1, 1, -1,  -1, 1, -1,
+                -1, -1, 1,  1, -1, 1,  1, 1, 1,  -1, 1, 1
+        };
+        int[] indices = {
+                4, 5, 6,  4, 6, 7,
+                1, 0, 3,  1, 3, 2,
+                5, 1, 2,  5, 2, 6,
+                0, 4, 7,  0, 7, 3,
+                7, 6, 2,  7, 2, 3,
+                0, 1, 5,  0, 5, 4
+        };
+        int[] colors = new int[12];
+        Arrays.fill(colors, color);
+        return new Mesh(positions, indices, colors);
+    }
+
+    /**
+     * The cube with its own four vertices for each face, so each face has the whole texture
+     */
+    private static Mesh createTexturedCube(Image texture) {
+        Mesh corners = createCube(HexColors.WHITE);
+        float[] cornerPositions = corners.getPositions();
+        int[] cornerIndices = corners.getIndices();
+        float[] positions = new float[6 * 4 * 3];
+        float[] uvs = new float[6 * 4 * 2];
+        int[] indices = new int[6 * 6];
+        float[] faceUvs = { 0, 1,  1, 1,  1, 0,  0, 0 };
+        for ( int face = 0; face < 6; face++ ) {
+            // The two triangles of each face are a, b, c and a, c, d
+            int[] quad = {
+                    cornerIndices[face * 6], cornerIndices[face * 6 + 1],
+                    cornerIndices[face * 6 + 2], cornerIndices[face * 6 + 5]
+            };
+            for ( int k = 0; k < 4; k++ ) {
+                System.arraycopy(cornerPositions, quad[k] * 3, positions, (face * 4 + k) * 3, 3);
+                System.arraycopy(faceUvs, k * 2, uvs, (face * 4 + k) * 2, 2);
+            }
+            int first = face * 4;
+            int[] triangles = { first, first + 1, first + 2, first, first + 2, first + 3 };
+            System.arraycopy(triangles, 0, indices, face * 6, 6);
+        }
+        int[] colors = new int[12];
+        Arrays.fill(colors, HexColors.WHITE);
+        Mesh mesh = new Mesh(positions, indices, colors);
+        mesh.setTexture(texture, uvs);
+        return mesh;
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new Test3D("Test 3D"));
+        gc.start();
+    }
+
+}
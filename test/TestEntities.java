@@ -0,0 +1,204 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.ecs.ComponentType;
+import engine.ecs.EntitySystem;
+import engine.ecs.Query;
+import engine.ecs.Stage;
+import engine.ecs.World;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+
+import java.util.Random;
+
+/**
+ * This class is a test for the entities and the systems. There are
+ * 50000 balls bouncing in the screen, and each one lives some seconds.
+ * The dead balls are destroyed by a system and the game creates new
+ * ones, some of them with a gravity component.
+ *
+ * The move and the age systems run at the same time, because they
+ * don't use the same components, and the bounce system after them.
+ *
+ * @class TestEntities
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestEntities extends AbstractGame {
+
+    private static final int NUM_ENTITIES = 50000;
+
+    private static final ComponentType POSITION = ComponentType.floats("Position", 2);
+
+    private static final ComponentType VELOCITY = ComponentType.floats("Velocity", 2);
+
+    private static final ComponentType LIFE = ComponentType.floats("Life", 1);
+
+    private static final ComponentType COLOR = ComponentType.ints("Color", 1);
+
+    private static final ComponentType GRAVITY = ComponentType.floats("Gravity", 1);
+
+    private static class MoveSystem extends EntitySystem {
+
+        private final Query query;
+
+        MoveSystem(World world) {
+            reads(VELOCITY);
+            writes(POSITION);
+            query = world.query(POSITION, VELOCITY);
+        }
+
+        @Override
+        public void update(World world, float dt) {
+            query.forEachChunkInParallel(chunk -> {
+                float[] x = chunk.getFloats(POSITION, 0);
+                float[] y = chunk.getFloats(POSITION, 1);
+                float[] vx = chunk.getFloats(VELOCITY, 0);
+                float[] vy = chunk.getFloats(VELOCITY, 1);
+                for ( int i = 0; i < chunk.getSize(); i++ ) {
+                    x[i] += vx[i] * dt;
+                    y[i] += vy[i] * dt;
+                }
+            });
+        }
+
+    }
+
+    private static class BounceSystem extends EntitySystem {
+
+        private final Query query;
+
+        private final Query fallingQuery;
+
+        private final int width;
+
+        private final int height;
+
+        BounceSystem(World world, int width, int height) {
+            reads(POSITION, GRAVITY);
+            writes(VELOCITY);
+            query = world.query(POSITION, VELOCITY);
+            fallingQuery = world.query(VELOCITY, GRAVITY);
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void update(World world, float dt) {
+            fallingQuery.forEachChunkInParallel(chunk -> {
+                float[] vy = chunk.getFloats(VELOCITY, 1);
+                float[] gravity = chunk.getFloats(GRAVITY);
+                for ( int i = 0; i < chunk.getSize(); i++ ) {
+                    vy[i] += gravity[i] * dt;
+                }
+            });
+            query.forEachChunkInParallel(chunk -> {
+                float[] x = chunk.getFloats(POSITION, 0);
+                float[] y = chunk.getFloats(POSITION, 1);
+                float[] vx = chunk.getFloats(VELOCITY, 0);
+                float[] vy = chunk.getFloats(VELOCITY, 1);
+                for ( int i = 0; i < chunk.getSize(); i++ ) {
+                    if ( (x[i] < 0 && vx[i] < 0) || (x[i] >= width && vx[i] > 0) ) {
+                        vx[i] = -vx[i];
+                    }
+                    if ( (y[i] < 0 && vy[i] < 0) || (y[i] >= height && vy[i] > 0) ) {
+                        vy[i] = -vy[i];
+                    }
+                }
+            });
+        }
+
+    }
+
+    private static class AgeSystem extends EntitySystem {
+
+        private final Query query;
+
+        AgeSystem(World world) {
+            writes(LIFE);
+            query = world.query(LIFE);
+        }
+
+        @Override
+        public void update(World world, float dt) {
+            query.forEachChunkInParallel(chunk -> {
+                float[] life = chunk.getFloats(LIFE);
+                for ( int i = 0; i < chunk.getSize(); i++ ) {
+                    life[i] -= dt;
+                    if ( life[i] <= 0 ) {
+                        world.destroyLater(chunk.getEntity(i));
+                    }
+                }
+            });
+        }
+
+    }
+
+    private static class DrawSystem extends EntitySystem {
+
+        private final Query query;
+
+        DrawSystem(World world) {
+            reads(POSITION, COLOR);
+            query = world.query(POSITION, COLOR);
+        }
+
+        @Override
+        public void render(World world, Renderer r) {
+            query.forEachChunk(chunk -> r.drawPoints(chunk.getFloats(POSITION, 0), chunk.getFloats(POSITION, 1),
+                    chunk.getInts(COLOR), chunk.getSize(), 2, false));
+        }
+
+    }
+
+    private final Random random = new Random(1);
+
+    private World world;
+
+    private TestEntities(String title) {
+        super(title);
+    }
+
+    private void createBall(GameContainer gc) {
+        boolean isFalling = random.nextInt(4) == 0;
+        int entity = isFalling ? world.createEntity(POSITION, VELOCITY, LIFE, COLOR, GRAVITY) :
+                world.createEntity(POSITION, VELOCITY, LIFE, COLOR);
+        world.setFloat(entity, POSITION, 0, random.nextFloat() * gc.getWidth());
+        world.setFloat(entity, POSITION, 1, random.nextFloat() * gc.getHeight());
+        world.setFloat(entity, VELOCITY, 0, random.nextFloat() * 200.0f - 100.0f);
+        world.setFloat(entity, VELOCITY, 1, random.nextFloat() * 200.0f - 100.0f);
+        world.setFloat(entity, LIFE, 0, 1.0f + random.nextFloat() * 9.0f);
+        world.setInt(entity, COLOR, 0, isFalling ? HexColors.WHITE : 0xff000000 | random.nextInt(0xffffff));
+        if ( isFalling ) {
+            world.setFloat(entity, GRAVITY, 0, 100.0f);
+        }
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+        world = new World();
+        world.addSystem(Stage.UPDATE, new MoveSystem(world));
+        world.addSystem(Stage.UPDATE, new AgeSystem(world));
+        world.addSystem(Stage.UPDATE, new BounceSystem(world, gc.getWidth(), gc.getHeight()));
+        world.addSystem(Stage.RENDER, new DrawSystem(world));
+        gc.setWorld(world);
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        while ( world.getNumEntities() < NUM_ENTITIES ) {
+            createBall(gc);
+        }
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        r.drawText(world.getNumEntities() + " entities " + world.getNumArchetypes() + " archetypes " +
+                world.getNumUpdateGroups() + " groups of systems", 10, 10, HexColors.WHITE);
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new TestEntities("Test entities"));
+        gc.start();
+    }
+
+}
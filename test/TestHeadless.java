@@ -0,0 +1,71 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class is a test for the headless mode of the
+ * GameContainer. It renders a fixed number of frames
+ * without window, as fast as it can, and shows the mean
+ * time spent in each frame. If a path is passed as
+ * argument, the last frame is saved as a png image
+ *
+ * @class TestHeadless
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestHeadless extends AbstractGame {
+
+    private static final int NUM_FRAMES = 600;
+
+    private float angle = 0.0f;
+
+    private TestHeadless(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        angle += dt;
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        int cx = gc.getWidth() / 2;
+        int cy = gc.getHeight() / 2;
+        r.drawFillRectangle(0, 0, gc.getWidth(), gc.getHeight() / 2, HexColors.ROYAL_BLUE);
+        r.drawFillCircle(cx + (int)(Math.cos(angle) * 100), cy + (int)(Math.sin(angle) * 100), 50, HexColors.LEMON);
+        r.drawFillTriangle(10, 10, 200, 50, 80, 300, 0x80ff0000);
+        r.drawText("Headless frame", 10, gc.getHeight() - 30, HexColors.WHITE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        GameContainer gc = new GameContainer(new TestHeadless("Test headless"));
+        gc.setHeadless(true);
+        gc.setSteppingEachFrame(true);
+        gc.setShowingFpsInConsole(false);
+        gc.setFrameLimit(NUM_FRAMES);
+
+        long start = System.nanoTime();
+        gc.start();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%d frames, %.3f ms per frame%n", gc.getTotalFrames(), elapsed / 1e6 / gc.getTotalFrames());
+
+        if ( args.length > 0 ) {
+            BufferedImage image = new BufferedImage(gc.getWidth(), gc.getHeight(), BufferedImage.TYPE_INT_RGB);
+            image.setRGB(0, 0, gc.getWidth(), gc.getHeight(), gc.getRenderer().getP(), 0, gc.getWidth());
+            ImageIO.write(image, "png", new File(args[0]));
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+import engine.gfx.lights.Light;
+import engine.gfx.lights.SpotLight;
+
+/**
+ * This class is a test for the lights. A white light follows
+ * the mouse, a spot light turns around, and some colored lights
+ * are placed around the screen. The grey walls block the light.
+ *
+ * @class TestLights
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestLights extends AbstractGame {
+
+    private static final int NUM_SMALL_LIGHTS = 40;
+
+    private Light mouseLight;
+
+    private SpotLight spotLight;
+
+    private Light[] smallLights;
+
+    private float angle = 0.0f;
+
+    private TestLights(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+        mouseLight = new Light(150, HexColors.WHITE);
+        spotLight = new SpotLight(250, HexColors.LEMON, 0.0f, 25.0f, 0.5f);
+        smallLights = new Light[NUM_SMALL_LIGHTS];
+        for ( int i = 0; i < NUM_SMALL_LIGHTS; i++ ) {
+            smallLights[i] = new Light(40, i % 2 == 0 ? HexColors.FANCY_BLUE : HexColors.FANCY_RED);
+        }
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        angle += dt * 45.0f;
+        spotLight.setDirection(angle);
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        r.setAmbientColor(0xff202020);
+        r.drawFillRectangle(0, 0, gc.getWidth(), gc.getHeight(), 0xffb0b0b0);
+
+        for ( int i = 0; i < 6; i++ ) {
+            int x = 120 + i * 150;
+            r.drawFillRectangle(x, 200, 40, 300, HexColors.GREY);
+            r.drawLightBlock(x, 200, 40, 300, Light.FULL);
+        }
+
+        r.drawLight(mouseLight, gc.getInput().getMouseX(), gc.getInput().getMouseY());
+        r.drawLight(spotLight, gc.getWidth() / 2, gc.getHeight() / 2);
+        for ( int i = 0; i < NUM_SMALL_LIGHTS; i++ ) {
+            r.drawLight(smallLights[i], 20 + (i % 20) * 52, i < 20 ? 60 : 660);
+        }
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new TestLights("Test lights"));
+        gc.start();
+    }
+
+}
@@ -0,0 +1,125 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+import engine.gfx.images.Image;
+import engine.gfx.render3d.Mat4x4;
+import engine.gfx.render3d.Mesh;
+import engine.gfx.render3d.ObjLoader;
+import engine.gfx.render3d.Renderer3D;
+import engine.vectors.points3d.Vec3df;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * This class is a test for the OBJ loader. It writes a torus with
+ * about one million triangles in a temporary OBJ file, loads it from
+ * the OBJ file and from the binary cache, and draws it textured
+ *
+ * @class TestObjLoader
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestObjLoader extends AbstractGame {
+
+    private static final int RINGS = 1000;
+
+    private static final int SEGMENTS = 500;
+
+    private Renderer3D renderer3D;
+
+    private Mesh torus;
+
+    private String times;
+
+    private float angle = 0.0f;
+
+    private TestObjLoader(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+        renderer3D = new Renderer3D(gc.getRenderer());
+        renderer3D.setView(Mat4x4.lookAt(new Vec3df(0.0f, 3.0f, 4.0f), new Vec3df(0.0f, 0.0f, 0.0f), new Vec3df(0.0f, 1.0f, 0.0f)));
+        renderer3D.setLightDirection(1.0f, 1.0f, 1.0f);
+        try {
+            Path obj = Files.createTempFile("torus", ".obj");
+            Path cache = Files.createTempFile("torus", ".mesh");
+            Files.delete(cache);
+            obj.toFile().deleteOnExit();
+            cache.toFile().deleteOnExit();
+            writeTorus(obj, RINGS, SEGMENTS);
+
+            long start = System.nanoTime();
+            torus = ObjLoader.loadCached(obj, cache, HexColors.WHITE);
+            long parsed = System.nanoTime();
+            torus = ObjLoader.loadCached(obj, cache, HexColors.WHITE);
+            long cached = System.nanoTime();
+            times = String.format("OBJ %.0f ms, cache %.0f ms", (parsed - start) / 1e6, (cached - parsed) / 1e6);
+            System.out.println(torus.getNumVertices() + " vertices, " + torus.getNumTriangles() + " triangles, " + times);
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+        torus.setTexture(new Image("/imageTile.png"), torus.getUvs());
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        angle += dt * 20.0f;
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        renderer3D.clear();
+        renderer3D.drawMesh(torus, Mat4x4.rotationY(angle).multiply(Mat4x4.rotationX(angle * 0.5f)));
+        renderer3D.process();
+        r.drawText(torus.getNumTriangles() + " triangles, " + times, 10, 10, HexColors.WHITE);
+    }
+
+    /**
+     * Writes a torus. The positions of the seams are shared, but their texture
+     * coordinates are not, so the loader has to rebuild the vertices
+     */
+    private static void writeTorus(Path path, int rings, int segments) throws IOException {
+        try ( BufferedWriter writer = Files.newBufferedWriter(path) ) {
+            writer.write("# Torus\no torus\n");
+            for ( int ring = 0; ring < rings; ring++ ) {
+                double theta = 2.0 * Math.PI * ring / rings;
+                for ( int segment = 0; segment < segments; segment++ ) {
+                    double phi = 2.0 * Math.PI * segment / segments;
+                    double radius = 1.5 + 0.5 * Math.cos(phi);
+                    writer.write(String.format(Locale.ROOT, "v %.6f %.6f %.6f\n",
+                            radius * Math.cos(theta), 0.5 * Math.sin(phi), -radius * Math.sin(theta)));
+                }
+            }
+            for ( int ring = 0; ring <= rings; ring++ ) {
+                for ( int segment = 0; segment <= segments; segment++ ) {
+                    writer.write(String.format(Locale.ROOT, "vt %.6f %.6f\n", ring * 8.0 / rings, segment * 2.0 / segments));
+                }
+            }
+            for ( int ring = 0; ring < rings; ring++ ) {
+                for ( int segment = 0; segment < segments; segment++ ) {
+                    int a = ring * segments + segment + 1;
+                    int b = ((ring + 1) % rings) * segments + segment + 1;
+                    int c = ((ring + 1) % rings) * segments + (segment + 1) % segments + 1;
+                    int d = ring * segments + (segment + 1) % segments + 1;
+                    int ta = ring * (segments + 1) + segment + 1;
+                    int tb = ta + segments + 1;
+                    writer.write("f " + a + "/" + ta + " " + b + "/" + tb + " " + c + "/" + (tb + 1) + " " + d + "/" + (ta + 1) + "\n");
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new TestObjLoader("Test OBJ loader"));
+        gc.start();
+    }
+
+}
@@ -0,0 +1,84 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+import engine.gfx.particles.ParticleEmitter;
+import engine.gfx.particles.ParticleSystem;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * This class is a test for the particle system. Four fountains emit
+ * particles until the system has about one million of them. A click
+ * of the mouse emits a burst of particles in all the directions, and
+ * the A key changes between additive and alpha blending
+ *
+ * @class TestParticles
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestParticles extends AbstractGame {
+
+    private static final int CAPACITY = 1000000;
+
+    private static final int NUM_FOUNTAINS = 4;
+
+    private static final int BURST_SIZE = 20000;
+
+    private static final int[] COLORS = { 0x40ff8020, 0x4020a0ff, 0x4040ff60, 0x40ff40c0 };
+
+    private ParticleSystem particles;
+
+    private ParticleEmitter burst;
+
+    private TestParticles(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+        particles = new ParticleSystem(CAPACITY);
+        particles.setGravity(0.0f, 120.0f);
+        particles.setDrag(0.2f);
+        for ( int i = 0; i < NUM_FOUNTAINS; i++ ) {
+            ParticleEmitter fountain = new ParticleEmitter(gc.getWidth() * (i + 1) / (NUM_FOUNTAINS + 1.0f), gc.getHeight() - 10.0f, 90000.0f);
+            fountain.setSpread(40.0f);
+            fountain.setSpeed(150.0f, 280.0f);
+            fountain.setLife(2.0f, 3.0f);
+            fountain.setColor(COLORS[i]);
+            fountain.setSeed(i + 1);
+            particles.addEmitter(fountain);
+        }
+        burst = new ParticleEmitter(0.0f, 0.0f, 0.0f);
+        burst.setSpread(360.0f);
+        burst.setSpeed(10.0f, 120.0f);
+        burst.setLife(0.5f, 1.5f);
+        burst.setColor(0x80ffffff);
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        if ( gc.getInput().isButtonDown(1) ) {
+            burst.setPosition(gc.getInput().getMouseX(), gc.getInput().getMouseY());
+            burst.burst(particles, BURST_SIZE);
+        }
+        if ( gc.getInput().isKeyDown(KeyEvent.VK_A) ) {
+            particles.setBlendingAdditive(!particles.isBlendingAdditive());
+        }
+        particles.update(dt);
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        r.clear(HexColors.BLACK);
+        particles.render(r);
+        r.drawText(particles.getSize() + " particles " +
+                (particles.isBlendingAdditive() ? "additive" : "alpha"), 10, 10, HexColors.WHITE);
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new TestParticles("Test particles"));
+        gc.start();
+    }
+
+}
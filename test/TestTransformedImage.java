@@ -0,0 +1,56 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+import engine.gfx.images.ImageTile;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * This class is a test for the scaled, rotated and flipped images.
+ * A tile turns around the mouse, and the sampling changes between
+ * the nearest pixel and bilinear with the space key
+ *
+ * @class TestTransformedImage
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestTransformedImage extends AbstractGame {
+
+    private ImageTile imageTile = new ImageTile("/imageTile.png", 16, 16);
+
+    private float angle = 0.0f;
+
+    private TestTransformedImage(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        angle += dt * 60.0f;
+        if ( gc.getInput().isKeyDown(KeyEvent.VK_SPACE) ) {
+            gc.getRenderer().setSamplingBilinear(!gc.getRenderer().isSamplingBilinear());
+        }
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r) {
+        int x = gc.getInput().getMouseX();
+        int y = gc.getInput().getMouseY();
+        r.drawImage(imageTile.getTileImage(10), x, y, 8.0f, 8.0f, angle);
+        r.drawImage(imageTile.getTileImage(10), 100, 100, 4.0f, 4.0f, 0.0f, 8, 8, true, false);
+        r.drawImage(imageTile.getTileImage(10), 200, 100, 4.0f, 4.0f, 0.0f, 8, 8, false, true);
+        r.drawText(r.isSamplingBilinear() ? "Bilinear" : "Nearest", 10, 10, HexColors.WHITE);
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new TestTransformedImage("Test transformed image"));
+        gc.start();
+    }
+
+}
@@ -0,0 +1,154 @@
+import engine.AbstractGame;
+import engine.GameContainer;
+import engine.TripleBuffer;
+import engine.gfx.HexColors;
+import engine.gfx.Renderer;
+
+import java.awt.event.KeyEvent;
+import java.util.Random;
+
+/**
+ * This class is a test for the update in other thread. The balls
+ * are moved by the update thread, what copies their positions before
+ * and after each update in a slot of the snapshots. The render draws
+ * the positions of its slot, interpolated with the alpha of the frame.
+ *
+ * The S key makes the frames slow, sleeping in the render, and the
+ * balls keep the same speed because the updates don't wait for them.
+ * The frames are presented by other thread, and the CONTROL key shows
+ * the latency of the presentation
+ *
+ * @class TestUpdateThread
+ * @author Sergio Martí Torregrosa
+ * @date 18/10/2026
+ */
+public class TestUpdateThread extends AbstractGame {
+
+    private static final int NUM_BALLS = 20000;
+
+    private static final int SLOW_FRAME_MILLIS = 40;
+
+    private final float[] x = new float[NUM_BALLS];
+
+    private final float[] y = new float[NUM_BALLS];
+
+    private final float[] vx = new float[NUM_BALLS];
+
+    private final float[] vy = new float[NUM_BALLS];
+
+    private final int[] colors = new int[NUM_BALLS];
+
+    /**
+     * The positions before and after the update of each snapshot
+     */
+    private final float[][] previousX = new float[TripleBuffer.NUM_SLOTS][NUM_BALLS];
+
+    private final float[][] previousY = new float[TripleBuffer.NUM_SLOTS][NUM_BALLS];
+
+    private final float[][] currentX = new float[TripleBuffer.NUM_SLOTS][NUM_BALLS];
+
+    private final float[][] currentY = new float[TripleBuffer.NUM_SLOTS][NUM_BALLS];
+
+    /**
+     * The positions of the last snapshot
+     */
+    private final float[] lastX = new float[NUM_BALLS];
+
+    private final float[] lastY = new float[NUM_BALLS];
+
+    /**
+     * The interpolated positions of the frame
+     */
+    private final float[] drawnX = new float[NUM_BALLS];
+
+    private final float[] drawnY = new float[NUM_BALLS];
+
+    private int updates = 0;
+
+    /**
+     * The number of updates of each snapshot
+     */
+    private final int[] snapshotUpdates = new int[TripleBuffer.NUM_SLOTS];
+
+    private volatile boolean isSlow = false;
+
+    private TestUpdateThread(String title) {
+        super(title);
+    }
+
+    @Override
+    public void initialize(GameContainer gc) {
+        Random random = new Random(1);
+        for ( int i = 0; i < NUM_BALLS; i++ ) {
+            x[i] = random.nextFloat() * gc.getWidth();
+            y[i] = random.nextFloat() * gc.getHeight();
+            vx[i] = random.nextFloat() * 300.0f - 150.0f;
+            vy[i] = random.nextFloat() * 300.0f - 150.0f;
+            colors[i] = 0xff000000 | random.nextInt(0xffffff);
+        }
+    }
+
+    @Override
+    public void update(GameContainer gc, float dt) {
+        if ( gc.getInput().isKeyDown(KeyEvent.VK_S) ) {
+            isSlow = !isSlow;
+        }
+        for ( int i = 0; i < NUM_BALLS; i++ ) {
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            if ( (x[i] < 0 && vx[i] < 0) || (x[i] >= gc.getWidth() && vx[i] > 0) ) {
+                vx[i] = -vx[i];
+            }
+            if ( (y[i] < 0 && vy[i] < 0) || (y[i] >= gc.getHeight() && vy[i] > 0) ) {
+                vy[i] = -vy[i];
+            }
+        }
+        updates++;
+    }
+
+    @Override
+    public void snapshot(GameContainer gc, int slot) {
+        if ( updates == 0 ) {
+            System.arraycopy(x, 0, lastX, 0, NUM_BALLS);
+            System.arraycopy(y, 0, lastY, 0, NUM_BALLS);
+        }
+        System.arraycopy(lastX, 0, previousX[slot], 0, NUM_BALLS);
+        System.arraycopy(lastY, 0, previousY[slot], 0, NUM_BALLS);
+        System.arraycopy(x, 0, currentX[slot], 0, NUM_BALLS);
+        System.arraycopy(y, 0, currentY[slot], 0, NUM_BALLS);
+        System.arraycopy(x, 0, lastX, 0, NUM_BALLS);
+        System.arraycopy(y, 0, lastY, 0, NUM_BALLS);
+        snapshotUpdates[slot] = updates;
+    }
+
+    @Override
+    public void render(GameContainer gc, Renderer r, float alpha) {
+        int slot = gc.getSnapshotSlot();
+        float[] x0 = previousX[slot];
+        float[] y0 = previousY[slot];
+        float[] x1 = currentX[slot];
+        float[] y1 = currentY[slot];
+        for ( int i = 0; i < NUM_BALLS; i++ ) {
+            drawnX[i] = x0[i] + (x1[i] - x0[i]) * alpha;
+            drawnY[i] = y0[i] + (y1[i] - y0[i]) * alpha;
+        }
+        r.drawPoints(drawnX, drawnY, colors, NUM_BALLS, 2, false);
+        r.drawText("Update " + snapshotUpdates[slot] + " alpha " + String.format("%.2f", alpha) +
+                (isSlow ? " slow frames" : ""), 10, 10, HexColors.WHITE);
+        if ( isSlow ) {
+            try {
+                Thread.sleep(SLOW_FRAME_MILLIS);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        GameContainer gc = new GameContainer(new TestUpdateThread("Test update thread"));
+        gc.setUpdatingInOtherThread(true);
+        gc.setPresentingInOtherThread(true);
+        gc.start();
+    }
+
+}